@@ -18,21 +18,47 @@ class PredictionInput(BaseModel):
     submissionDelay: float = 0
 
 
-@app.post("/predict")
-def predict(data: PredictionInput):
+class BatchPredictionInput(BaseModel):
+    students: List[PredictionInput]
+
+
+def build_features(data: PredictionInput):
     marks = [float(mark) for mark in data.previousMarks]
     assignment_marks = [float(mark) for mark in data.assignmentMarks] or marks
     average_marks = float(np.mean(marks)) if marks else 0.0
     average_assignment = float(np.mean(assignment_marks)) if assignment_marks else 0.0
 
-    features = [[
+    return [
         float(data.attendance),
         average_marks,
         average_assignment,
         float(data.previousGpa),
         float(data.submissionDelay),
-    ]]
-    predicted_score = float(model.predict(features)[0])
+    ]
+
+
+@app.post("/predict")
+def predict(data: PredictionInput):
+    features = build_features(data)
+    return to_result(data, features[1], float(model.predict([features])[0]))
+
+
+@app.post("/predict/batch")
+def predict_batch(batch: BatchPredictionInput):
+    if not batch.students:
+        return {"predictions": []}
+    # One model call for the whole batch; results keep the request order.
+    matrix = np.array([build_features(data) for data in batch.students], dtype=float)
+    scores = model.predict(matrix)
+    return {
+        "predictions": [
+            to_result(data, float(matrix[i][1]), float(scores[i]))
+            for i, data in enumerate(batch.students)
+        ]
+    }
+
+
+def to_result(data: PredictionInput, average_marks: float, predicted_score: float):
     predicted_score = max(0.0, min(100.0, predicted_score))
     predicted_gpa = round(predicted_score / 10, 2)
 
@@ -0,0 +1,54 @@
+"""Export a fitted RandomForestRegressor to a portable JSON file for the Java evaluator.
+
+Usage: python export_trees.py [model.pkl] [model-trees.json]
+"""
+import json
+import sys
+
+import joblib
+import numpy as np
+
+FEATURES = ["attendance", "average_marks", "average_assignment", "previous_gpa", "submission_delay"]
+PARITY_SAMPLES = 200
+
+
+def export_forest(model, path, seed=7):
+    trees = []
+    for estimator in model.estimators_:
+        tree = estimator.tree_
+        trees.append({
+            "feature": [int(f) for f in tree.feature],
+            "threshold": [float(t) for t in tree.threshold],
+            "left": [int(c) for c in tree.children_left],
+            "right": [int(c) for c in tree.children_right],
+            "value": [float(v) for v in tree.value[:, 0, 0]],
+        })
+
+    # Reference predictions the Java side checks itself against when it loads the file.
+    rng = np.random.default_rng(seed)
+    samples = np.column_stack([
+        rng.uniform(0, 100, PARITY_SAMPLES),
+        rng.uniform(0, 100, PARITY_SAMPLES),
+        rng.uniform(0, 100, PARITY_SAMPLES),
+        rng.uniform(0, 10, PARITY_SAMPLES),
+        rng.integers(0, 8, PARITY_SAMPLES),
+    ])
+    predictions = model.predict(samples)
+
+    with open(path, "w") as out:
+        json.dump({
+            "format": "random-forest-regressor/v1",
+            "features": FEATURES,
+            "trees": trees,
+            "parity": [
+                {"features": [float(x) for x in row], "prediction": float(p)}
+                for row, p in zip(samples, predictions)
+            ],
+        }, out)
+
+
+if __name__ == "__main__":
+    model_path = sys.argv[1] if len(sys.argv) > 1 else "model.pkl"
+    export_path = sys.argv[2] if len(sys.argv) > 2 else "model-trees.json"
+    export_forest(joblib.load(model_path), export_path)
+    print(f"Exported {model_path} to {export_path}")
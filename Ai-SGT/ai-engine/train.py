@@ -2,6 +2,8 @@ import numpy as np
 from sklearn.ensemble import RandomForestRegressor
 import joblib
 
+from export_trees import export_forest
+
 X = []
 y = []
 
@@ -28,5 +30,6 @@ model = RandomForestRegressor(n_estimators=120, random_state=42)
 model.fit(np.array(X), np.array(y))
 
 joblib.dump(model, "model.pkl")
+export_forest(model, "model-trees.json")
 
-print("Random Forest model trained and saved as model.pkl")
+print("Random Forest model trained and saved as model.pkl and model-trees.json")
@@ -0,0 +1,53 @@
+package com.studenttracker.backend.config;
+
+import com.studenttracker.backend.service.AuthPrincipal;
+import com.studenttracker.backend.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Optional;
+
+/**
+ * Resolves the caller from the Authorization header once per request and stores it
+ * as a request attribute for {@link AuthPrincipalArgumentResolver}. Does not reject
+ * anything itself; controllers decide which endpoints need a login.
+ */
+@Component
+public class AuthInterceptor implements HandlerInterceptor {
+
+    static final String PRINCIPAL_ATTRIBUTE = AuthInterceptor.class.getName() + ".principal";
+
+    private final UserService userService;
+
+    public AuthInterceptor(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        resolve(request);
+        return true;
+    }
+
+    /**
+     * The principal for a request, resolving it on first use.
+     *
+     * @param request the current request
+     * @return the caller, empty if the request carries no valid token
+     */
+    @SuppressWarnings("unchecked")
+    Optional<AuthPrincipal> resolve(HttpServletRequest request) {
+        // Async dispatches (streamed exports) reuse the request, so this stays a single lookup.
+        Object resolved = request.getAttribute(PRINCIPAL_ATTRIBUTE);
+        if (resolved instanceof Optional<?>) {
+            return (Optional<AuthPrincipal>) resolved;
+        }
+        Optional<AuthPrincipal> principal =
+                userService.getPrincipalFromAuthorizationHeader(request.getHeader(HttpHeaders.AUTHORIZATION));
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+        return principal;
+    }
+}
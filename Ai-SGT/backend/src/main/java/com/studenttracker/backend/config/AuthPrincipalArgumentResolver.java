@@ -0,0 +1,39 @@
+package com.studenttracker.backend.config;
+
+import com.studenttracker.backend.service.AuthPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.Optional;
+
+/**
+ * Supplies {@code Optional<AuthPrincipal>} controller parameters from the principal
+ * resolved by {@link AuthInterceptor}.
+ */
+@Component
+public class AuthPrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final AuthInterceptor authInterceptor;
+
+    public AuthPrincipalArgumentResolver(AuthInterceptor authInterceptor) {
+        this.authInterceptor = authInterceptor;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType() == Optional.class
+                && parameter.nestedIfOptional().getNestedParameterType() == AuthPrincipal.class;
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        return request == null ? Optional.empty() : authInterceptor.resolve(request);
+    }
+}
@@ -0,0 +1,69 @@
+package com.studenttracker.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves each entity's ID sequence table past the rows that were created while the
+ * tables still used AUTO_INCREMENT. MySQL has no native sequences, so Hibernate keeps
+ * each pooled sequence in a one-row {@code <table>_seq} table; a fresh one starts at 1
+ * and would hand out IDs that already exist.
+ *
+ * Runs once at startup, after the schema update and before the web server accepts requests.
+ */
+@Component
+public class IdSequenceInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    /** Must match allocationSize on the entities' @SequenceGenerator. */
+    public static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> ID_COLUMNS = Map.ofEntries(
+            Map.entry("ai_prediction", "prediction_id"),
+            Map.entry("ai_prediction_history", "point_id"),
+            Map.entry("assignment", "assignment_id"),
+            Map.entry("attendance", "attendance_id"),
+            Map.entry("course", "course_id"),
+            Map.entry("grade", "grade_id"),
+            Map.entry("grading_policy", "policy_id"),
+            Map.entry("instructor", "instructor_id"),
+            Map.entry("notification", "notification_id"),
+            Map.entry("revoked_token", "revoked_token_id"),
+            Map.entry("student", "student_id"),
+            Map.entry("submission", "submission_id"),
+            Map.entry("users", "id"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory dependency makes sure the schema update has created the sequence tables.
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        ID_COLUMNS.forEach((table, idColumn) -> {
+            String sequenceTable = table + "_seq";
+            Long maxId = jdbcTemplate.queryForObject("select coalesce(max(" + idColumn + "), 0) from " + table, Long.class);
+            // The pooled optimizer hands out (next_val - allocationSize, next_val], so stay a full block above maxId.
+            long floor = (maxId == null ? 0 : maxId) + ALLOCATION_SIZE + 1;
+            Integer rows = jdbcTemplate.queryForObject("select count(*) from " + sequenceTable, Integer.class);
+            if (rows == null || rows == 0) {
+                jdbcTemplate.update("insert into " + sequenceTable + " (next_val) values (?)", floor);
+            } else {
+                int moved = jdbcTemplate.update(
+                        "update " + sequenceTable + " set next_val = ? where next_val < ?", floor, floor);
+                if (moved > 0) {
+                    log.info("Moved {} to {} past existing {} rows", sequenceTable, floor, table);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package com.studenttracker.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final AuthInterceptor authInterceptor;
+    private final AuthPrincipalArgumentResolver authPrincipalArgumentResolver;
+
+    public WebMvcConfig(AuthInterceptor authInterceptor, AuthPrincipalArgumentResolver authPrincipalArgumentResolver) {
+        this.authInterceptor = authInterceptor;
+        this.authPrincipalArgumentResolver = authPrincipalArgumentResolver;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(authInterceptor).addPathPatterns("/api/**");
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(authPrincipalArgumentResolver);
+    }
+}
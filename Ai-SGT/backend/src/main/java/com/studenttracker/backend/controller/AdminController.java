@@ -0,0 +1,93 @@
+package com.studenttracker.backend.controller;
+
+import com.studenttracker.backend.service.AuthPrincipal;
+import com.studenttracker.backend.service.GpaRecomputeService;
+import com.studenttracker.backend.service.JobProgress;
+import com.studenttracker.backend.service.RiskScanService;
+import com.studenttracker.backend.service.StudentFeatureService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maintenance jobs for teachers: start them and watch their progress.
+ */
+@RestController
+@RequestMapping("/api/v1/admin")
+@CrossOrigin("*")
+public class AdminController {
+
+    private final GpaRecomputeService gpaRecomputeService;
+    private final StudentFeatureService studentFeatureService;
+    private final RiskScanService riskScanService;
+
+    public AdminController(GpaRecomputeService gpaRecomputeService, StudentFeatureService studentFeatureService,
+            RiskScanService riskScanService) {
+        this.gpaRecomputeService = gpaRecomputeService;
+        this.studentFeatureService = studentFeatureService;
+        this.riskScanService = riskScanService;
+    }
+
+    @PostMapping("/gpa-recompute")
+    public ResponseEntity<?> startGpaRecompute(Optional<AuthPrincipal> principal,
+            @RequestParam(required = false) Long courseId) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can run maintenance jobs");
+        JobProgress progress = courseId == null
+                ? gpaRecomputeService.submitAll()
+                : gpaRecomputeService.submitForCourse(courseId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(progress.toMap());
+    }
+
+    @GetMapping("/gpa-recompute")
+    public ResponseEntity<?> gpaRecomputeStatus(Optional<AuthPrincipal> principal) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can view maintenance jobs");
+        JobProgress progress = gpaRecomputeService.getCurrent();
+        if (progress == null) return ResponseEntity.ok(Map.of("state", "IDLE"));
+        return ResponseEntity.ok(progress.toMap());
+    }
+
+    @PostMapping("/feature-rebuild")
+    public ResponseEntity<?> startFeatureRebuild(Optional<AuthPrincipal> principal) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can run maintenance jobs");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(studentFeatureService.submitRebuild().toMap());
+    }
+
+    @GetMapping("/feature-rebuild")
+    public ResponseEntity<?> featureRebuildStatus(Optional<AuthPrincipal> principal) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can view maintenance jobs");
+        JobProgress progress = studentFeatureService.getCurrent();
+        if (progress == null) return ResponseEntity.ok(Map.of("state", "IDLE"));
+        return ResponseEntity.ok(progress.toMap());
+    }
+
+    @PostMapping("/risk-scan")
+    public ResponseEntity<?> startRiskScan(Optional<AuthPrincipal> principal) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can run maintenance jobs");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(riskScanService.submit().toMap());
+    }
+
+    @GetMapping("/risk-scan")
+    public ResponseEntity<?> riskScanStatus(Optional<AuthPrincipal> principal) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can view maintenance jobs");
+        JobProgress progress = riskScanService.getCurrent();
+        if (progress == null) return ResponseEntity.ok(Map.of("state", "IDLE"));
+        return ResponseEntity.ok(progress.toMap());
+    }
+
+    private ResponseEntity<Map<String, String>> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Login required"));
+    }
+
+    private ResponseEntity<Map<String, String>> forbidden(String message) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", message));
+    }
+}
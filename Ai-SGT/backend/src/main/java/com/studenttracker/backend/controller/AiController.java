@@ -1,17 +1,20 @@
 package com.studenttracker.backend.controller;
 
 import com.studenttracker.backend.entity.AiPrediction;
-import com.studenttracker.backend.entity.Attendance;
-import com.studenttracker.backend.entity.Submission;
+import com.studenttracker.backend.entity.StudentFeatures;
 import com.studenttracker.backend.service.AiService;
-import com.studenttracker.backend.service.AttendanceService;
-import com.studenttracker.backend.service.GradeService;
-import com.studenttracker.backend.service.SubmissionService;
-import org.springframework.beans.factory.annotation.Value;
+import com.studenttracker.backend.service.AuthPrincipal;
+import com.studenttracker.backend.service.BatchPredictionService;
+import com.studenttracker.backend.service.MlEngineClient;
+import com.studenttracker.backend.service.PredictionCache;
+import com.studenttracker.backend.service.StudentFeatureService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 /**
@@ -22,24 +25,37 @@ import java.util.*;
 @CrossOrigin("*")
 public class AiController {
 
-    private final GradeService gradeService;
     private final AiService aiService;
-    private final AttendanceService attendanceService;
-    private final SubmissionService submissionService;
-
-    @Value("${ml.api.url}")
-    private String mlApiUrl;
+    private final StudentFeatureService studentFeatureService;
+    private final MlEngineClient mlEngineClient;
+    private final BatchPredictionService batchPredictionService;
+    private final PredictionCache predictionCache;
+    private final Timer predictFeaturesTimer;
+    private final Timer predictEngineTimer;
+    private final Timer predictSaveTimer;
+    private final Timer insightsFeaturesTimer;
 
     public AiController(
-            GradeService gradeService,
             AiService aiService,
-            AttendanceService attendanceService,
-            SubmissionService submissionService
+            StudentFeatureService studentFeatureService,
+            MlEngineClient mlEngineClient,
+            BatchPredictionService batchPredictionService,
+            PredictionCache predictionCache,
+            MeterRegistry meterRegistry
     ) {
-        this.gradeService = gradeService;
         this.aiService = aiService;
-        this.attendanceService = attendanceService;
-        this.submissionService = submissionService;
+        this.studentFeatureService = studentFeatureService;
+        this.mlEngineClient = mlEngineClient;
+        this.batchPredictionService = batchPredictionService;
+        this.predictionCache = predictionCache;
+        this.predictFeaturesTimer = stageTimer(meterRegistry, "predict", "features");
+        this.predictEngineTimer = stageTimer(meterRegistry, "predict", "engine");
+        this.predictSaveTimer = stageTimer(meterRegistry, "predict", "save");
+        this.insightsFeaturesTimer = stageTimer(meterRegistry, "insights", "features");
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String endpoint, String stage) {
+        return Timer.builder("ai.request.stage").tag("endpoint", endpoint).tag("stage", stage).register(meterRegistry);
     }
 
     /**
@@ -54,42 +70,21 @@ public class AiController {
             return ResponseEntity.badRequest().body(Map.of("error", "Student ID cannot be null"));
         }
 
-        List<Double> scores = gradeService.getByStudent(studentId).stream()
-                .map(g -> g.getMarks() != null ? g.getMarks() : g.getScore())
-                .filter(Objects::nonNull)
-                .toList();
-
-        List<Double> attendance = attendanceService.getByStudent(studentId).stream()
-                .map(Attendance::getPercentage)
-                .filter(Objects::nonNull)
-                .toList();
-
-        List<Submission> submissions = submissionService.getSubmissionsByStudentId(studentId);
-
-        if (scores.isEmpty()) {
+        StudentFeatures features = predictFeaturesTimer.record(() -> studentFeatureService.get(studentId));
+        if (features.getMarksCount() == 0) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", "No marks found for this student"));
         }
 
-        Map<String, Object> request = new HashMap<>();
-        request.put("studentId", studentId);
-        request.put("previousMarks", scores);
-        request.put(
-                "attendance",
-                attendance.isEmpty()
-                        ? 0
-                        : attendance.stream().mapToDouble(Double::doubleValue).average().orElse(0)
-        );
-        request.put("assignmentMarks", scores);
-        request.put("previousGpa", gradeService.calculateGpaSummary(studentId).get("gpa"));
-        request.put(
-                "submissionDelay",
-                submissions.stream()
-                        .filter(s -> "LATE".equalsIgnoreCase(s.getStatus()))
-                        .count()
-        );
+        Map<String, Object> request = StudentFeatureService.predictionRequest(features);
+
+        // Same inputs as last time: the stored prediction is still current.
+        Optional<Map<String, Object>> cached = predictionCache.get(studentId, request);
+        if (cached.isPresent()) {
+            return ResponseEntity.ok(cached.get());
+        }
 
-        Map<String, Object> result = callAiService(request);
+        Map<String, Object> result = predictEngineTimer.record(() -> mlEngineClient.predict(request));
 
         AiPrediction p = new AiPrediction();
         p.setStudentId(studentId);
@@ -101,11 +96,43 @@ public class AiController {
         p.setRiskLevel(result.get("risk").toString());
         p.setSuggestion(result.get("suggestion").toString());
 
-        aiService.savePrediction(p);
+        predictSaveTimer.record(() -> aiService.savePrediction(p));
+        if (!MlEngineClient.isFallback(result)) {
+            predictionCache.put(studentId, request, result);
+        }
 
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Predicts a whole course, or a list of students, in one batched ML round trip.
+     *
+     * @param request either {"courseId": ...} or {"studentIds": [...]}
+     * @return counts, skipped student IDs and one result per predicted student
+     */
+    @PostMapping("/predict/batch")
+    public ResponseEntity<?> predictBatch(Optional<AuthPrincipal> principal, @RequestBody BatchPredictionRequest request) {
+        if (principal.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Login required"));
+        }
+        if (!principal.get().isInstructor()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Only teachers can run batch predictions"));
+        }
+        if (request == null || (request.courseId() == null && (request.studentIds() == null || request.studentIds().isEmpty()))) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Provide a courseId or studentIds"));
+        }
+        if (request.courseId() != null) {
+            return ResponseEntity.ok(batchPredictionService.predictCourse(request.courseId()));
+        }
+        return ResponseEntity.ok(batchPredictionService.predictStudents(request.studentIds()));
+    }
+
+    /**
+     * Body of POST /ai/predict/batch.
+     */
+    public record BatchPredictionRequest(Long courseId, List<Long> studentIds) {
+    }
+
     /**
      * Gives simple performance insights for a student.
      *
@@ -116,26 +143,10 @@ public class AiController {
     public ResponseEntity<?> insights(@PathVariable Long studentId) {
         List<String> insights = new ArrayList<>();
 
-        double avgMarks = gradeService.getByStudent(studentId).stream()
-                .map(g -> g.getMarks() != null ? g.getMarks() : g.getScore())
-                .filter(Objects::nonNull)
-                .mapToDouble(Double::doubleValue)
-                .average()
-                .orElse(0);
-
-        double avgAttendance = attendanceService.getByStudent(studentId).stream()
-                .map(Attendance::getPercentage)
-                .filter(Objects::nonNull)
-                .mapToDouble(Double::doubleValue)
-                .average()
-                .orElse(0);
-
-        long missingAssignments = submissionService.getSubmissionsByStudentId(studentId).stream()
-                .filter(s ->
-                        "MISSING".equalsIgnoreCase(s.getStatus())
-                                || "LATE".equalsIgnoreCase(s.getStatus())
-                )
-                .count();
+        StudentFeatures features = insightsFeaturesTimer.record(() -> studentFeatureService.get(studentId));
+        double avgMarks = features.averageMarks();
+        double avgAttendance = features.averageAttendance();
+        long missingAssignments = features.getMissingCount() + features.getLateCount();
 
         if (avgAttendance > 0 && avgAttendance < 75) {
             insights.add("Attendance below safe level.");
@@ -161,72 +172,6 @@ public class AiController {
         ));
     }
 
-    /**
-     * Calls FastAPI ML engine.
-     * If ML engine is unavailable, fallback prediction logic will run.
-     *
-     * @param request student performance data
-     * @return prediction result
-     */
-    private Map<String, Object> callAiService(Map<String, Object> request) {
-        try {
-            RestTemplate restTemplate = new RestTemplate();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
-
-            ResponseEntity<Map> response =
-                    restTemplate.postForEntity(mlApiUrl + "/predict", entity, Map.class);
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> result = (Map<String, Object>) response.getBody();
-
-            if (result != null) {
-                return result;
-            }
-        } catch (Exception ignored) {
-            // If ML engine is down, fallback logic below will run.
-        }
-
-        @SuppressWarnings("unchecked")
-        List<Double> previousMarks = (List<Double>) request.get("previousMarks");
-
-        double avg = previousMarks.stream()
-                .mapToDouble(Double::doubleValue)
-                .average()
-                .orElse(0);
-
-        double attendance = Double.parseDouble(request.get("attendance").toString());
-        double gpa = Double.parseDouble(request.get("previousGpa").toString());
-
-        double predicted = Math.min(
-                100,
-                Math.max(
-                        0,
-                        (avg * 0.55) + (attendance * 0.25) + (gpa * 10 * 0.2)
-                )
-        );
-
-        String risk = predicted < 60 || attendance < 75
-                ? "High"
-                : predicted < 75 ? "Medium" : "Low";
-
-        String suggestion = attendance < 75
-                ? "Attendance below safe level. Attend more classes and revise missed topics."
-                : predicted < 70
-                        ? "Improve preparation in low-scoring subjects and submit assignments on time."
-                        : "Maintain consistency and keep assignment submissions current.";
-
-        return Map.of(
-                "studentId", request.get("studentId"),
-                "predictedScore", predicted,
-                "risk", risk,
-                "suggestion", suggestion
-        );
-    }
-
     /**
      * Retrieves saved prediction for a student.
      *
@@ -241,4 +186,25 @@ public class AiController {
 
         return aiService.getPrediction(studentId);
     }
+
+    /**
+     * A student's prediction history as a time series; points older than the raw window are daily averages.
+     *
+     * @param studentId the student ID
+     * @param from      inclusive start (ISO date-time), optional
+     * @param to        exclusive end (ISO date-time), optional
+     * @return the points in time order
+     */
+    @GetMapping("/prediction/{studentId}/history")
+    public ResponseEntity<?> getHistory(Optional<AuthPrincipal> principal, @PathVariable Long studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (principal.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Login required"));
+        }
+        if (!principal.get().canViewStudent(studentId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Students can only view their own prediction history"));
+        }
+        return ResponseEntity.ok(aiService.getHistory(studentId, from, to));
+    }
 }
\ No newline at end of file
@@ -1,10 +1,8 @@
 package com.studenttracker.backend.controller;
 
 import com.studenttracker.backend.entity.Assignment;
-import com.studenttracker.backend.entity.User;
-import com.studenttracker.backend.entity.UserRole;
 import com.studenttracker.backend.service.AssignmentService;
-import com.studenttracker.backend.service.UserService;
+import com.studenttracker.backend.service.AuthPrincipal;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,64 +17,56 @@ import java.util.Optional;
 public class AssignmentController {
 
     private final AssignmentService service;
-    private final UserService userService;
 
-    public AssignmentController(AssignmentService service, UserService userService) {
+    public AssignmentController(AssignmentService service) {
         this.service = service;
-        this.userService = userService;
     }
 
     @PostMapping
-    public ResponseEntity<?> add(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @RequestBody Assignment a) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> add(Optional<AuthPrincipal> principal, @RequestBody Assignment a) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (user.get().getRole() != UserRole.INSTRUCTOR) {
+        if (!principal.get().isInstructor()) {
             return forbidden("Only teachers can add assignments");
         }
         return ResponseEntity.ok(service.save(a));
     }
 
     @GetMapping
-    public ResponseEntity<?> all(@RequestHeader(value = "Authorization", required = false) String authorization) {
-        if (userService.getUserFromAuthorizationHeader(authorization).isEmpty()) {
+    public ResponseEntity<?> all(Optional<AuthPrincipal> principal) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
         return ResponseEntity.ok(service.getAll());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> get(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id) {
-        if (userService.getUserFromAuthorizationHeader(authorization).isEmpty()) {
+    public ResponseEntity<?> get(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
         return ResponseEntity.ok(service.getById(id));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@RequestHeader(value = "Authorization", required = false) String authorization,
+    public ResponseEntity<?> update(Optional<AuthPrincipal> principal,
             @PathVariable Long id, @RequestBody Assignment a) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (user.get().getRole() != UserRole.INSTRUCTOR) {
+        if (!principal.get().isInstructor()) {
             return forbidden("Only teachers can update assignments");
         }
         return ResponseEntity.ok(service.updateAssignment(id, a));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> delete(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (user.get().getRole() != UserRole.INSTRUCTOR) {
+        if (!principal.get().isInstructor()) {
             return forbidden("Only teachers can delete assignments");
         }
         service.deleteAssignment(id);
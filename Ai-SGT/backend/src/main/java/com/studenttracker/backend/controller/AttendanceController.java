@@ -1,12 +1,8 @@
 package com.studenttracker.backend.controller;
 
 import com.studenttracker.backend.entity.Attendance;
-import com.studenttracker.backend.entity.Student;
-import com.studenttracker.backend.entity.User;
-import com.studenttracker.backend.entity.UserRole;
 import com.studenttracker.backend.service.AttendanceService;
-import com.studenttracker.backend.service.StudentService;
-import com.studenttracker.backend.service.UserService;
+import com.studenttracker.backend.service.AuthPrincipal;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,79 +16,59 @@ import java.util.Optional;
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
-    private final StudentService studentService;
-    private final UserService userService;
 
-    public AttendanceController(AttendanceService attendanceService, StudentService studentService, UserService userService) {
+    public AttendanceController(AttendanceService attendanceService) {
         this.attendanceService = attendanceService;
-        this.studentService = studentService;
-        this.userService = userService;
     }
 
     @PostMapping
-    public ResponseEntity<?> mark(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @RequestBody Attendance attendance) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
-        if (user.get().getRole() != UserRole.INSTRUCTOR) return forbidden("Only teachers can mark attendance");
+    public ResponseEntity<?> mark(Optional<AuthPrincipal> principal, @RequestBody Attendance attendance) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can mark attendance");
         return ResponseEntity.ok(attendanceService.save(attendance));
     }
 
     @GetMapping
-    public ResponseEntity<?> all(@RequestHeader(value = "Authorization", required = false) String authorization) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
-        if (user.get().getRole() != UserRole.INSTRUCTOR) return forbidden("Only teachers can view all attendance");
+    public ResponseEntity<?> all(Optional<AuthPrincipal> principal) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can view all attendance");
         return ResponseEntity.ok(attendanceService.getAll());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> get(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
+    public ResponseEntity<?> get(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) return unauthorized();
         Optional<Attendance> attendance = attendanceService.getById(id);
         if (attendance.isEmpty()) return ResponseEntity.notFound().build();
-        if (!canViewStudent(user.get(), attendance.get().getStudentId())) {
+        if (!principal.get().canViewStudent(attendance.get().getStudentId())) {
             return forbidden("Students can only view their own attendance");
         }
         return ResponseEntity.ok(attendance.get());
     }
 
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<?> byStudent(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long studentId) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
-        if (!canViewStudent(user.get(), studentId)) return forbidden("Students can only view their own attendance");
+    public ResponseEntity<?> byStudent(Optional<AuthPrincipal> principal, @PathVariable Long studentId) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().canViewStudent(studentId)) return forbidden("Students can only view their own attendance");
         return ResponseEntity.ok(attendanceService.getByStudent(studentId));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@RequestHeader(value = "Authorization", required = false) String authorization,
+    public ResponseEntity<?> update(Optional<AuthPrincipal> principal,
             @PathVariable Long id, @RequestBody Attendance attendance) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
-        if (user.get().getRole() != UserRole.INSTRUCTOR) return forbidden("Only teachers can update attendance");
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can update attendance");
         return ResponseEntity.ok(attendanceService.update(id, attendance));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
-        if (user.get().getRole() != UserRole.INSTRUCTOR) return forbidden("Only teachers can delete attendance");
+    public ResponseEntity<?> delete(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can delete attendance");
         attendanceService.delete(id);
         return ResponseEntity.noContent().build();
     }
 
-    private boolean canViewStudent(User user, Long studentId) {
-        if (user.getRole() == UserRole.INSTRUCTOR) return true;
-        Optional<Student> student = studentService.getByUserId(user.getId());
-        return student.isPresent() && student.get().getStudentId().equals(studentId);
-    }
-
     private ResponseEntity<Map<String, String>> unauthorized() {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Login required"));
     }
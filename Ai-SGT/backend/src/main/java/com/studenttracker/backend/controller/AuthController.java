@@ -7,8 +7,13 @@ import com.studenttracker.backend.entity.Instructor;
 
 import com.studenttracker.backend.service.StudentService;
 import com.studenttracker.backend.service.InstructorService;
+import com.studenttracker.backend.service.AuthRateLimiter;
+import com.studenttracker.backend.service.PasswordHasher;
 import com.studenttracker.backend.service.UserService;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,25 +27,31 @@ import java.util.Optional;
 @CrossOrigin("*")
 public class AuthController {
 
+    private static final String RETRY_AFTER_SECONDS = "2";
+
     private final UserService userService;
     private final StudentService studentService;
     private final InstructorService instructorService;
+    private final AuthRateLimiter rateLimiter;
 
     public AuthController(
             UserService userService,
             StudentService studentService,
-            InstructorService instructorService
+            InstructorService instructorService,
+            AuthRateLimiter rateLimiter
     ) {
         this.userService = userService;
         this.studentService = studentService;
         this.instructorService = instructorService;
+        this.rateLimiter = rateLimiter;
     }
 
     // ================= SIGNUP =================
 
     @PostMapping("/signup")
     public ResponseEntity<?> signup(
-            @RequestBody Map<String, Object> request
+            @RequestBody Map<String, Object> request,
+            HttpServletRequest httpRequest
     ) {
 
         try {
@@ -69,6 +80,21 @@ public class AuthController {
 
             String department = (String) request.get("department");
 
+            // ================= RATE LIMIT =================
+
+            AuthRateLimiter.Decision decision =
+                    rateLimiter.tryAcquire(
+                            httpRequest.getRemoteAddr(),
+                            email != null && !email.isBlank()
+                                    ? email
+                                    : username
+                    );
+
+            if (!decision.allowed()) {
+
+                return tooManyRequests(decision);
+            }
+
             Object yearObj = request.get("year");
 
             // ================= REQUIRED FIELD CHECK =================
@@ -311,6 +337,10 @@ public class AuthController {
                     .status(HttpStatus.CREATED)
                     .body(response);
 
+        } catch (PasswordHasher.SaturatedException e) {
+
+            return busy(e);
+
         } catch (Exception e) {
 
             e.printStackTrace();
@@ -329,7 +359,8 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<?> login(
-            @RequestBody Map<String, Object> request
+            @RequestBody Map<String, Object> request,
+            HttpServletRequest httpRequest
     ) {
 
         try {
@@ -351,6 +382,17 @@ public class AuthController {
                             ? email
                             : username;
 
+            AuthRateLimiter.Decision decision =
+                    rateLimiter.tryAcquire(
+                            httpRequest.getRemoteAddr(),
+                            identifier
+                    );
+
+            if (!decision.allowed()) {
+
+                return tooManyRequests(decision);
+            }
+
             Optional<User> userOpt =
                     userService.authenticate(
                             identifier,
@@ -397,6 +439,10 @@ public class AuthController {
 
             return ResponseEntity.ok(response);
 
+        } catch (PasswordHasher.SaturatedException e) {
+
+            return busy(e);
+
         } catch (Exception e) {
 
             return ResponseEntity
@@ -408,4 +454,51 @@ public class AuthController {
                     ));
         }
     }
-}
\ No newline at end of file
+
+    // ================= LOGOUT =================
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(
+            @RequestHeader(value = "Authorization", required = false) String authorization
+    ) {
+
+        if (!userService.revokeToken(authorization)) {
+
+            return ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of(
+                            "message",
+                            "Login required"
+                    ));
+        }
+
+        return ResponseEntity.noContent().build();
+    }
+
+    // Password hashing pool is full: shed the request quickly instead of tying up a request thread.
+    private ResponseEntity<Map<String, String>> busy(
+            PasswordHasher.SaturatedException e
+    ) {
+
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(Map.of(
+                        "message",
+                        e.getMessage()
+                ));
+    }
+
+    private ResponseEntity<Map<String, String>> tooManyRequests(
+            AuthRateLimiter.Decision decision
+    ) {
+
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()))
+                .body(Map.of(
+                        "message",
+                        "Too many attempts, try again later"
+                ));
+    }
+}
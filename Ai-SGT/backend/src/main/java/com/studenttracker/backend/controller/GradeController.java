@@ -1,16 +1,26 @@
 package com.studenttracker.backend.controller;
 
 import com.studenttracker.backend.entity.Grade;
-import com.studenttracker.backend.entity.Student;
-import com.studenttracker.backend.entity.User;
-import com.studenttracker.backend.entity.UserRole;
+import com.studenttracker.backend.service.AuthPrincipal;
+import com.studenttracker.backend.service.BulkGradeResult;
+import com.studenttracker.backend.service.GradeCsvReader;
+import com.studenttracker.backend.service.GpaSimulationService;
+import com.studenttracker.backend.service.GradeExportService;
+import com.studenttracker.backend.service.GradeRankingService;
 import com.studenttracker.backend.service.GradeService;
-import com.studenttracker.backend.service.StudentService;
-import com.studenttracker.backend.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -20,46 +30,116 @@ import java.util.Optional;
 @CrossOrigin("*")
 public class GradeController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
     private final GradeService service;
-    private final StudentService studentService;
-    private final UserService userService;
+    private final GradeExportService exportService;
+    private final GradeRankingService rankingService;
+    private final GpaSimulationService simulationService;
+    private final long exportTimeoutMs;
 
-    public GradeController(GradeService service, StudentService studentService, UserService userService) {
+    public GradeController(GradeService service, GradeExportService exportService, GradeRankingService rankingService,
+            GpaSimulationService simulationService, @Value("${grades.export.timeout-ms:600000}") long exportTimeoutMs) {
         this.service = service;
-        this.studentService = studentService;
-        this.userService = userService;
+        this.exportService = exportService;
+        this.rankingService = rankingService;
+        this.simulationService = simulationService;
+        this.exportTimeoutMs = exportTimeoutMs;
     }
 
     @PostMapping
-    public ResponseEntity<?> add(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @RequestBody Grade g) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> add(Optional<AuthPrincipal> principal, @RequestBody Grade g) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (user.get().getRole() != UserRole.INSTRUCTOR) {
+        if (!principal.get().isInstructor()) {
             return forbidden("Only teachers can upload marks");
         }
         return ResponseEntity.ok(service.save(g));
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> bulkAdd(Optional<AuthPrincipal> principal, @RequestBody List<Grade> grades) {
+        if (principal.isEmpty()) {
+            return unauthorized();
+        }
+        if (!principal.get().isInstructor()) {
+            return forbidden("Only teachers can upload marks");
+        }
+        if (grades.size() > service.getMaxBulkRows()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "Upload has more than " + service.getMaxBulkRows() + " rows"));
+        }
+        return ResponseEntity.ok(service.saveBatch(grades, principal.get().userId(), new BulkGradeResult()));
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<?> bulkAddCsv(Optional<AuthPrincipal> principal, InputStream body) {
+        if (principal.isEmpty()) {
+            return unauthorized();
+        }
+        if (!principal.get().isInstructor()) {
+            return forbidden("Only teachers can upload marks");
+        }
+        BulkGradeResult result = new BulkGradeResult();
+        List<Grade> grades;
+        try {
+            grades = GradeCsvReader.read(new InputStreamReader(body, StandardCharsets.UTF_8), result,
+                    service.getMaxBulkRows());
+        } catch (IOException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Could not read CSV upload"));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+        }
+        return ResponseEntity.ok(service.saveBatch(grades, principal.get().userId(), result));
+    }
+
     @GetMapping
-    public ResponseEntity<?> all(@RequestHeader(value = "Authorization", required = false) String authorization) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> all(Optional<AuthPrincipal> principal) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (user.get().getRole() != UserRole.INSTRUCTOR) {
+        if (!principal.get().isInstructor()) {
             return forbidden("Only teachers can view all grades");
         }
         return ResponseEntity.ok(service.getAll());
     }
 
+    /**
+     * Streams grades as NDJSON (default) or CSV without loading the table into memory. Only this
+     * request gets the long grades.export.timeout-ms; other async requests keep the default.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(Optional<AuthPrincipal> principal, WebRequest request,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long courseId,
+            @RequestParam(required = false) Integer semester,
+            @RequestParam(required = false) Long instructorId) {
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeoutMs);
+        if (principal.isEmpty()) {
+            return streamedMessage(HttpStatus.UNAUTHORIZED, "Login required");
+        }
+        if (!principal.get().isInstructor()) {
+            return streamedMessage(HttpStatus.FORBIDDEN, "Only teachers can export grades");
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(CSV)
+                    .header("Content-Disposition", "attachment; filename=grades.csv")
+                    .body(out -> exportService.writeCsv(courseId, semester, instructorId, out));
+        }
+        if (!"ndjson".equalsIgnoreCase(format)) {
+            return streamedMessage(HttpStatus.BAD_REQUEST, "format must be ndjson or csv");
+        }
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(out -> exportService.writeNdjson(courseId, semester, instructorId, out));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<?> get(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> get(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
 
@@ -67,86 +147,114 @@ public class GradeController {
         if (grade == null) {
             return ResponseEntity.notFound().build();
         }
-        if (!canViewStudent(user.get(), grade.getStudentId())) {
+        if (!principal.get().canViewStudent(grade.getStudentId())) {
             return forbidden("You can only view your own grades");
         }
         return ResponseEntity.ok(grade);
     }
 
     @GetMapping("/student/{id}")
-    public ResponseEntity<?> byStudent(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> byStudent(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (!canViewStudent(user.get(), id)) {
+        if (!principal.get().canViewStudent(id)) {
             return forbidden("You can only view your own grades");
         }
         return ResponseEntity.ok(service.getByStudent(id));
     }
 
     @GetMapping("/student/{id}/summary")
-    public ResponseEntity<?> gpaSummary(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> gpaSummary(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (!canViewStudent(user.get(), id)) {
+        if (!principal.get().canViewStudent(id)) {
             return forbidden("You can only view your own GPA summary");
         }
         return ResponseEntity.ok(service.calculateGpaSummary(id));
     }
 
+    @PostMapping("/student/{id}/simulate")
+    public ResponseEntity<?> simulate(Optional<AuthPrincipal> principal,
+            @PathVariable Long id, @RequestBody GpaSimulationService.SimulationRequest request) {
+        if (principal.isEmpty()) {
+            return unauthorized();
+        }
+        if (!principal.get().canViewStudent(id)) {
+            return forbidden("You can only simulate your own GPA");
+        }
+        if (simulationService.exceedsLimits(request)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Simulation allows at most "
+                    + simulationService.getMaxScenarios() + " scenarios and " + simulationService.getMaxGrades()
+                    + " grades per scenario or remaining courses"));
+        }
+        return ResponseEntity.ok(simulationService.simulate(id, request));
+    }
+
+    @GetMapping("/ranking/course/{courseId}/student/{studentId}")
+    public ResponseEntity<?> rank(Optional<AuthPrincipal> principal,
+            @PathVariable Long courseId, @PathVariable Long studentId,
+            @RequestParam(required = false) Integer semester) {
+        if (principal.isEmpty()) {
+            return unauthorized();
+        }
+        if (!principal.get().canViewStudent(studentId)) {
+            return forbidden("You can only view your own rank");
+        }
+        return rankingService.rankOf(courseId, semester, studentId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/ranking/course/{courseId}/top")
+    public ResponseEntity<?> top(Optional<AuthPrincipal> principal,
+            @PathVariable Long courseId,
+            @RequestParam(required = false) Integer semester,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (principal.isEmpty()) {
+            return unauthorized();
+        }
+        if (!principal.get().isInstructor()) {
+            return forbidden("Only teachers can view course rankings");
+        }
+        return ResponseEntity.ok(rankingService.top(courseId, semester, Math.min(limit, 500)));
+    }
+
     @GetMapping("/assignment/{id}")
-    public ResponseEntity<?> byAssignment(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> byAssignment(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (user.get().getRole() != UserRole.INSTRUCTOR) {
+        if (!principal.get().isInstructor()) {
             return forbidden("Only teachers can view assignment grade lists");
         }
         return ResponseEntity.ok(service.getByAssignment(id));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id, @RequestBody Grade g) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> update(Optional<AuthPrincipal> principal, @PathVariable Long id, @RequestBody Grade g) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (user.get().getRole() != UserRole.INSTRUCTOR) {
+        if (!principal.get().isInstructor()) {
             return forbidden("Only teachers can edit grades");
         }
         return ResponseEntity.ok(service.updateGrade(id, g));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> delete(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (user.get().getRole() != UserRole.INSTRUCTOR) {
+        if (!principal.get().isInstructor()) {
             return forbidden("Only teachers can delete grades");
         }
         service.deleteGrade(id);
         return ResponseEntity.noContent().build();
     }
 
-    private boolean canViewStudent(User user, Long studentId) {
-        if (user.getRole() == UserRole.INSTRUCTOR) {
-            return true;
-        }
-        Optional<Student> student = studentService.getByUserId(user.getId());
-        return student.isPresent() && student.get().getStudentId().equals(studentId);
-    }
-
     private ResponseEntity<Map<String, String>> unauthorized() {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Login required"));
     }
@@ -154,4 +262,11 @@ public class GradeController {
     private ResponseEntity<Map<String, String>> forbidden(String message) {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", message));
     }
+
+    private ResponseEntity<StreamingResponseBody> streamedMessage(HttpStatus status, String message) {
+        String body = "{\"message\":\"" + message + "\"}";
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> out.write(body.getBytes(StandardCharsets.UTF_8)));
+    }
 }
@@ -0,0 +1,75 @@
+package com.studenttracker.backend.controller;
+
+import com.studenttracker.backend.entity.GradingPolicy;
+import com.studenttracker.backend.service.AuthPrincipal;
+import com.studenttracker.backend.service.GradingPolicyService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/v1/grading-policies")
+@CrossOrigin("*")
+public class GradingPolicyController {
+
+    private final GradingPolicyService policyService;
+
+    public GradingPolicyController(GradingPolicyService policyService) {
+        this.policyService = policyService;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> all(Optional<AuthPrincipal> principal) {
+        if (principal.isEmpty()) return unauthorized();
+        return ResponseEntity.ok(policyService.getAll());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> get(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) return unauthorized();
+        Optional<GradingPolicy> policy = policyService.getById(id);
+        return policy.<ResponseEntity<?>>map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(Optional<AuthPrincipal> principal, @RequestBody GradingPolicy policy) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can manage grading policies");
+        try {
+            return ResponseEntity.ok(policyService.save(policy));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> update(Optional<AuthPrincipal> principal,
+            @PathVariable Long id, @RequestBody GradingPolicy policy) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can manage grading policies");
+        try {
+            return ResponseEntity.ok(policyService.update(id, policy));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", ex.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> delete(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can manage grading policies");
+        policyService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<Map<String, String>> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Login required"));
+    }
+
+    private ResponseEntity<Map<String, String>> forbidden(String message) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", message));
+    }
+}
@@ -1,10 +1,8 @@
 package com.studenttracker.backend.controller;
 
 import com.studenttracker.backend.entity.Student;
-import com.studenttracker.backend.entity.User;
-import com.studenttracker.backend.entity.UserRole;
+import com.studenttracker.backend.service.AuthPrincipal;
 import com.studenttracker.backend.service.StudentService;
-import com.studenttracker.backend.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,43 +17,36 @@ import java.util.Optional;
 public class StudentController {
 
     private final StudentService service;
-    private final UserService userService;
 
-    public StudentController(StudentService service, UserService userService) {
+    public StudentController(StudentService service) {
         this.service = service;
-        this.userService = userService;
     }
 
     @PostMapping
-    public ResponseEntity<?> add(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @RequestBody Student s) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> add(Optional<AuthPrincipal> principal, @RequestBody Student s) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (user.get().getRole() != UserRole.INSTRUCTOR) {
+        if (!principal.get().isInstructor()) {
             return forbidden("Only teachers can manage students");
         }
         return ResponseEntity.ok(service.save(s));
     }
 
     @GetMapping
-    public ResponseEntity<?> all(@RequestHeader(value = "Authorization", required = false) String authorization) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> all(Optional<AuthPrincipal> principal) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (user.get().getRole() != UserRole.INSTRUCTOR) {
+        if (!principal.get().isInstructor()) {
             return forbidden("Only teachers can view all students");
         }
         return ResponseEntity.ok(service.getAll());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> get(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> get(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
 
@@ -63,20 +54,18 @@ public class StudentController {
         if (student == null) {
             return ResponseEntity.notFound().build();
         }
-        if (!canViewStudent(user.get(), student)) {
+        if (!principal.get().canViewStudent(student.getStudentId())) {
             return forbidden("Students can only view their own data");
         }
         return ResponseEntity.ok(student);
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getByUserId(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long userId) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> getByUserId(Optional<AuthPrincipal> principal, @PathVariable Long userId) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (user.get().getRole() != UserRole.INSTRUCTOR && !user.get().getId().equals(userId)) {
+        if (!principal.get().isInstructor() && !principal.get().userId().equals(userId)) {
             return forbidden("Students can only view their own data");
         }
         Optional<Student> student = service.getByUserId(userId);
@@ -84,36 +73,28 @@ public class StudentController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id, @RequestBody Student s) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> update(Optional<AuthPrincipal> principal, @PathVariable Long id, @RequestBody Student s) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (user.get().getRole() != UserRole.INSTRUCTOR) {
+        if (!principal.get().isInstructor()) {
             return forbidden("Only teachers can manage students");
         }
         return ResponseEntity.ok(service.update(id, s));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> delete(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) {
+    public ResponseEntity<?> delete(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) {
             return unauthorized();
         }
-        if (user.get().getRole() != UserRole.INSTRUCTOR) {
+        if (!principal.get().isInstructor()) {
             return forbidden("Only teachers can manage students");
         }
         service.delete(id);
         return ResponseEntity.noContent().build();
     }
 
-    private boolean canViewStudent(User user, Student student) {
-        return user.getRole() == UserRole.INSTRUCTOR || user.getId().equals(student.getUserId());
-    }
-
     private ResponseEntity<Map<String, String>> unauthorized() {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Login required"));
     }
@@ -1,12 +1,8 @@
 package com.studenttracker.backend.controller;
 
 import com.studenttracker.backend.entity.Submission;
-import com.studenttracker.backend.entity.Student;
-import com.studenttracker.backend.entity.User;
-import com.studenttracker.backend.entity.UserRole;
-import com.studenttracker.backend.service.StudentService;
+import com.studenttracker.backend.service.AuthPrincipal;
 import com.studenttracker.backend.service.SubmissionService;
-import com.studenttracker.backend.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,21 +16,15 @@ import java.util.Optional;
 public class SubmissionController {
 
     private final SubmissionService submissionService;
-    private final StudentService studentService;
-    private final UserService userService;
 
-    public SubmissionController(SubmissionService submissionService, StudentService studentService, UserService userService) {
+    public SubmissionController(SubmissionService submissionService) {
         this.submissionService = submissionService;
-        this.studentService = studentService;
-        this.userService = userService;
     }
 
     @PostMapping
-    public ResponseEntity<?> createSubmission(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @RequestBody Submission submission) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
-        if (user.get().getRole() == UserRole.STUDENT && !ownsStudent(user.get(), submission.getStudentId())) {
+    public ResponseEntity<?> createSubmission(Optional<AuthPrincipal> principal, @RequestBody Submission submission) {
+        if (principal.isEmpty()) return unauthorized();
+        if (principal.get().isStudent() && !principal.get().ownsStudent(submission.getStudentId())) {
             return forbidden("Students can only submit their own assignments");
         }
         Submission createdSubmission = submissionService.createSubmission(submission);
@@ -42,34 +32,30 @@ public class SubmissionController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getSubmissionById(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
+    public ResponseEntity<?> getSubmissionById(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) return unauthorized();
         Optional<Submission> submission = submissionService.getSubmissionById(id);
         if (submission.isEmpty()) return ResponseEntity.notFound().build();
-        if (user.get().getRole() == UserRole.STUDENT && !ownsStudent(user.get(), submission.get().getStudentId())) {
+        if (principal.get().isStudent() && !principal.get().ownsStudent(submission.get().getStudentId())) {
             return forbidden("Students can only view their own submissions");
         }
         return ResponseEntity.ok(submission.get());
     }
 
     @GetMapping
-    public ResponseEntity<?> getAllSubmissions(@RequestHeader(value = "Authorization", required = false) String authorization) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
-        if (user.get().getRole() != UserRole.INSTRUCTOR) return forbidden("Only teachers can view all submissions");
+    public ResponseEntity<?> getAllSubmissions(Optional<AuthPrincipal> principal) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can view all submissions");
         List<Submission> submissions = submissionService.getAllSubmissions();
         return ResponseEntity.ok(submissions);
     }
 
     @GetMapping("/student/{studentId}")
     public ResponseEntity<?> getSubmissionsByStudent(
-            @RequestHeader(value = "Authorization", required = false) String authorization,
+            Optional<AuthPrincipal> principal,
             @PathVariable Long studentId) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
-        if (user.get().getRole() == UserRole.STUDENT && !ownsStudent(user.get(), studentId)) {
+        if (principal.isEmpty()) return unauthorized();
+        if (principal.get().isStudent() && !principal.get().ownsStudent(studentId)) {
             return forbidden("Students can only view their own submissions");
         }
         List<Submission> submissions = submissionService.getSubmissionsByStudentId(studentId);
@@ -78,23 +64,21 @@ public class SubmissionController {
 
     @GetMapping("/assignment/{assignmentId}")
     public ResponseEntity<?> getSubmissionsByAssignment(
-            @RequestHeader(value = "Authorization", required = false) String authorization,
+            Optional<AuthPrincipal> principal,
             @PathVariable Long assignmentId) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
-        if (user.get().getRole() != UserRole.INSTRUCTOR) return forbidden("Only teachers can view assignment submissions");
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can view assignment submissions");
         List<Submission> submissions = submissionService.getSubmissionsByAssignmentId(assignmentId);
         return ResponseEntity.ok(submissions);
     }
 
     @GetMapping("/student/{studentId}/assignment/{assignmentId}")
     public ResponseEntity<?> getSubmissionByStudentAndAssignment(
-            @RequestHeader(value = "Authorization", required = false) String authorization,
+            Optional<AuthPrincipal> principal,
             @PathVariable Long studentId,
             @PathVariable Long assignmentId) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
-        if (user.get().getRole() == UserRole.STUDENT && !ownsStudent(user.get(), studentId)) {
+        if (principal.isEmpty()) return unauthorized();
+        if (principal.get().isStudent() && !principal.get().ownsStudent(studentId)) {
             return forbidden("Students can only view their own submissions");
         }
         Optional<Submission> submission = submissionService.getSubmissionByStudentAndAssignment(studentId,
@@ -103,17 +87,16 @@ public class SubmissionController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateSubmission(@RequestHeader(value = "Authorization", required = false) String authorization,
+    public ResponseEntity<?> updateSubmission(Optional<AuthPrincipal> principal,
             @PathVariable Long id,
             @RequestBody Submission submissionDetails) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
+        if (principal.isEmpty()) return unauthorized();
         Optional<Submission> existing = submissionService.getSubmissionById(id);
         if (existing.isEmpty()) return ResponseEntity.notFound().build();
-        if (user.get().getRole() == UserRole.STUDENT && !ownsStudent(user.get(), existing.get().getStudentId())) {
+        if (principal.get().isStudent() && !principal.get().ownsStudent(existing.get().getStudentId())) {
             return forbidden("Students can only update their own submissions");
         }
-        if (user.get().getRole() == UserRole.STUDENT) {
+        if (principal.get().isStudent()) {
             submissionDetails.setMarks(null);
             submissionDetails.setStatus("SUBMITTED");
         }
@@ -122,20 +105,13 @@ public class SubmissionController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteSubmission(@RequestHeader(value = "Authorization", required = false) String authorization,
-            @PathVariable Long id) {
-        Optional<User> user = userService.getUserFromAuthorizationHeader(authorization);
-        if (user.isEmpty()) return unauthorized();
-        if (user.get().getRole() != UserRole.INSTRUCTOR) return forbidden("Only teachers can remove submissions");
+    public ResponseEntity<?> deleteSubmission(Optional<AuthPrincipal> principal, @PathVariable Long id) {
+        if (principal.isEmpty()) return unauthorized();
+        if (!principal.get().isInstructor()) return forbidden("Only teachers can remove submissions");
         submissionService.deleteSubmission(id);
         return ResponseEntity.noContent().build();
     }
 
-    private boolean ownsStudent(User user, Long studentId) {
-        Optional<Student> student = studentService.getByUserId(user.getId());
-        return student.isPresent() && student.get().getStudentId().equals(studentId);
-    }
-
     private ResponseEntity<Map<String, String>> unauthorized() {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Login required"));
     }
@@ -13,11 +13,13 @@ import java.time.LocalDateTime;
 public class AiPrediction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ai_prediction_seq")
+    @SequenceGenerator(name = "ai_prediction_seq", sequenceName = "ai_prediction_seq", allocationSize = 50)
     @Column(name = "prediction_id")
     private Long predictionId;
 
-    @Column(name = "student_id")
+    /** One row per student, updated in place; earlier predictions live in ai_prediction_history. */
+    @Column(name = "student_id", unique = true)
     private Long studentId;
 
     @Column(name = "predicted_score")
@@ -35,8 +37,17 @@ public class AiPrediction {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 }
\ No newline at end of file
@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
 public class Grade {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grade_seq")
+    @SequenceGenerator(name = "grade_seq", sequenceName = "grade_seq", allocationSize = 50)
     @Column(name = "grade_id")
     private Long gradeId;
 
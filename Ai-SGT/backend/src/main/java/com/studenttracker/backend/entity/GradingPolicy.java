@@ -0,0 +1,53 @@
+package com.studenttracker.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "grading_policy")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradingPolicy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grading_policy_seq")
+    @SequenceGenerator(name = "grading_policy_seq", sequenceName = "grading_policy_seq", allocationSize = 50)
+    @Column(name = "policy_id")
+    private Long policyId;
+
+    private String name;
+
+    /** Applies to one course; takes precedence over a department policy. */
+    @Column(name = "course_id", unique = true)
+    private Long courseId;
+
+    /** Applies to courses taught by instructors of this department. */
+    private String department;
+
+    /**
+     * Grade bands as "minMarks:letter:points" separated by ';', e.g. "90:O:10;80:A+:9;0:F:0".
+     */
+    @Column(nullable = false, length = 1000)
+    private String bands;
+
+    @Column(name = "internal_weight")
+    private Double internalWeight = 0.3;
+
+    @Column(name = "semester_weight")
+    private Double semesterWeight = 0.5;
+
+    @Column(name = "assignment_weight")
+    private Double assignmentWeight = 0.2;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
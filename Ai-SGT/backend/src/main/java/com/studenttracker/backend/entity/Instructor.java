@@ -9,7 +9,8 @@ import lombok.*;
 public class Instructor {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "instructor_seq")
+    @SequenceGenerator(name = "instructor_seq", sequenceName = "instructor_seq", allocationSize = 50)
     @Column(name = "instructor_id")
     private Long instructorId;
 
@@ -0,0 +1,53 @@
+package com.studenttracker.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * How far a restartable background job got; a job that stops while RUNNING resumes after
+ * lastStudentId on its next run. A RUNNING job is owned by one node until leaseUntil; the
+ * owner renews the lease with every chunk, and other nodes may only take it over once it lapses.
+ */
+@Entity
+@Table(name = "job_checkpoint")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    @Column(name = "last_student_id")
+    private Long lastStudentId = 0L;
+
+    @Column(length = 16)
+    private String state;
+
+    private Integer processed = 0;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(length = 64)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public JobCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,51 @@
+package com.studenttracker.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * One point of a student's prediction history: score and risk only, without the suggestion
+ * text. Old raw points are merged into one downsampled point per student and day.
+ */
+@Entity
+@Table(name = "ai_prediction_history",
+        indexes = @Index(name = "idx_prediction_history_student_time", columnList = "student_id, recorded_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PredictionPoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ai_prediction_history_seq")
+    @SequenceGenerator(name = "ai_prediction_history_seq", sequenceName = "ai_prediction_history_seq", allocationSize = 50)
+    @Column(name = "point_id")
+    private Long pointId;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    @Column(name = "predicted_score")
+    private Double predictedScore;
+
+    @Column(name = "risk_level", length = 16)
+    private String riskLevel;
+
+    /** Raw predictions this point stands for; 1 until it is downsampled. */
+    @Column(nullable = false)
+    private Integer samples = 1;
+
+    @Column(nullable = false)
+    private Boolean downsampled = false;
+
+    public PredictionPoint(Long studentId, LocalDateTime recordedAt, Double predictedScore, String riskLevel) {
+        this.studentId = studentId;
+        this.recordedAt = recordedAt;
+        this.predictedScore = predictedScore;
+        this.riskLevel = riskLevel;
+    }
+}
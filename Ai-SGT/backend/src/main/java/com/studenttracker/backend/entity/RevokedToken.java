@@ -0,0 +1,41 @@
+package com.studenttracker.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "revoked_token", indexes = @Index(name = "idx_revoked_token_revoked_at", columnList = "revoked_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "revoked_token_seq")
+    @SequenceGenerator(name = "revoked_token_seq", sequenceName = "revoked_token_seq", allocationSize = 50)
+    @Column(name = "revoked_token_id")
+    private Long revokedTokenId;
+
+    /** The token's signature segment; unique per issued token. */
+    @Column(nullable = false, unique = true, length = 64)
+    private String signature;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    /** The token's exp; the row can be purged after this. */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (revokedAt == null) {
+            revokedAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.studenttracker.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * The last time a user's role changed or the user was deleted. Principals cached on any
+ * node before this time are no longer trusted.
+ */
+@Entity
+@Table(name = "revoked_user", indexes = @Index(name = "idx_revoked_user_revoked_at", columnList = "revoked_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedUser {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+}
@@ -1,5 +1,6 @@
 package com.studenttracker.backend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
@@ -13,7 +14,8 @@ import java.time.LocalDateTime;
 public class Student {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @SequenceGenerator(name = "student_seq", sequenceName = "student_seq", allocationSize = 50)
     @Column(name = "student_id")
     private Long studentId;
 
@@ -40,6 +42,22 @@ public class Student {
     @Column(name = "subject_attendance", length = 2000)
     private String subjectAttendance;
 
+    @JsonIgnore
+    @Column(name = "gpa_weighted_points")
+    private Double gpaWeightedPoints = 0.0;
+
+    @JsonIgnore
+    @Column(name = "gpa_credits")
+    private Double gpaCredits = 0.0;
+
+    @JsonIgnore
+    @Column(name = "semester_gpa_totals", length = 2000)
+    private String semesterGpaTotals;
+
+    @JsonIgnore
+    @Column(name = "gpa_snapshot_at")
+    private LocalDateTime gpaSnapshotAt;
+
     @PrePersist
     protected void onCreate() {
         enrollmentDate = LocalDateTime.now();
@@ -0,0 +1,63 @@
+package com.studenttracker.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * The prediction inputs of one student, kept as running sums and counts so the AI
+ * endpoints read one row instead of every grade, attendance and submission row.
+ */
+@Entity
+@Table(name = "student_features")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentFeatures {
+
+    @Id
+    @Column(name = "student_id")
+    private Long studentId;
+
+    @Column(name = "marks_total")
+    private Double marksTotal = 0.0;
+
+    @Column(name = "marks_count")
+    private Long marksCount = 0L;
+
+    @Column(name = "attendance_total")
+    private Double attendanceTotal = 0.0;
+
+    @Column(name = "attendance_count")
+    private Long attendanceCount = 0L;
+
+    @Column(name = "late_count")
+    private Long lateCount = 0L;
+
+    @Column(name = "missing_count")
+    private Long missingCount = 0L;
+
+    private Double gpa = 0.0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public StudentFeatures(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public double averageMarks() {
+        return marksCount == null || marksCount == 0 ? 0.0 : marksTotal / marksCount;
+    }
+
+    public double averageAttendance() {
+        return attendanceCount == null || attendanceCount == 0 ? 0.0 : attendanceTotal / attendanceCount;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,268 @@
+package com.studenttracker.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.studenttracker.backend.entity.Attendance;
+import com.studenttracker.backend.entity.Grade;
+import com.studenttracker.backend.entity.Student;
+import com.studenttracker.backend.repository.StudentRepository;
+import com.studenttracker.backend.service.AttendanceService;
+import com.studenttracker.backend.service.GradeService;
+import com.studenttracker.backend.service.StudentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives GET /ai/predict/{id} and /ai/insights/{id} on this server at a fixed request rate and
+ * reports latency percentiles, status codes, the share of heuristic fallback predictions and
+ * JDBC statements per request. Requests are sent on an open schedule and latency is measured
+ * from each request's intended send time, so a stalled server shows up as queueing delay
+ * instead of silently lowering the rate. Only active in the loadtest profile, where the ML
+ * engine is {@link MlEngineStandIn}.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+    private final WebServerApplicationContext context;
+    private final StudentRepository studentRepository;
+    private final StudentService studentService;
+    private final GradeService gradeService;
+    private final AttendanceService attendanceService;
+    private final Statistics statistics;
+    private final ObjectMapper objectMapper;
+    private final double rps;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final int studentLimit;
+    private final int seedStudents;
+    private final int requestTimeoutMs;
+    private final String reportPath;
+    private final boolean exitWhenDone;
+
+    public LoadTestRunner(WebServerApplicationContext context, StudentRepository studentRepository,
+            StudentService studentService, GradeService gradeService, AttendanceService attendanceService,
+            EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper,
+            @Value("${loadtest.rps:200}") double rps,
+            @Value("${loadtest.warmup-seconds:10}") int warmupSeconds,
+            @Value("${loadtest.duration-seconds:60}") int durationSeconds,
+            @Value("${loadtest.students:1000}") int studentLimit,
+            @Value("${loadtest.seed-students:0}") int seedStudents,
+            @Value("${loadtest.request-timeout-ms:30000}") int requestTimeoutMs,
+            @Value("${loadtest.report-path:}") String reportPath,
+            @Value("${loadtest.exit-when-done:true}") boolean exitWhenDone) {
+        this.context = context;
+        this.studentRepository = studentRepository;
+        this.studentService = studentService;
+        this.gradeService = gradeService;
+        this.attendanceService = attendanceService;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.objectMapper = objectMapper;
+        this.rps = rps;
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+        this.studentLimit = studentLimit;
+        this.seedStudents = seedStudents;
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.reportPath = reportPath;
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (seedStudents > 0) {
+            seed(seedStudents);
+        }
+        List<Long> studentIds = studentRepository.findAllIds();
+        if (studentIds.size() > studentLimit) {
+            studentIds = studentIds.subList(0, studentLimit);
+        }
+        if (studentIds.isEmpty()) {
+            log.warn("Load test skipped: no students (set loadtest.seed-students to create some)");
+            exit(1);
+            return;
+        }
+        statistics.setStatisticsEnabled(true);
+
+        String baseUrl = "http://localhost:" + context.getWebServer().getPort();
+        ExecutorService callbacks = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(callbacks)
+                .build();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", LocalDateTime.now().toString());
+        report.put("rps", rps);
+        report.put("durationSeconds", durationSeconds);
+        report.put("students", studentIds.size());
+        try {
+            for (String endpoint : List.of("predict", "insights")) {
+                String prefix = baseUrl + "/ai/" + endpoint + "/";
+                log.info("Load test /ai/{}: {} s warm-up, then {} s at {} req/s over {} students",
+                        endpoint, warmupSeconds, durationSeconds, rps, studentIds.size());
+                runPhase(client, prefix, studentIds, warmupSeconds);
+                Map<String, Object> result = runPhase(client, prefix, studentIds, durationSeconds);
+                log.info("Load test /ai/{}: {}", endpoint, result);
+                report.put(endpoint, result);
+            }
+        } finally {
+            callbacks.shutdownNow();
+        }
+        if (!reportPath.isBlank()) {
+            objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(new File(reportPath), report);
+            log.info("Load test report written to {}", reportPath);
+        }
+        exit(0);
+    }
+
+    private Map<String, Object> runPhase(HttpClient client, String prefix, List<Long> studentIds, int seconds)
+            throws InterruptedException {
+        int total = (int) Math.max(0, Math.round(rps * seconds));
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rps);
+        long[] latencies = new long[total];
+        AtomicInteger completed = new AtomicInteger();
+        LongAdder fallbacks = new LongAdder();
+        Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(total);
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long queriesBefore = statistics.getQueryExecutionCount();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Long studentId = studentIds.get(ThreadLocalRandom.current().nextInt(studentIds.size()));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(prefix + studentId))
+                    .timeout(Duration.ofMillis(requestTimeoutMs))
+                    .GET()
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+                latencies[completed.getAndIncrement()] = System.nanoTime() - intended;
+                String status = failure == null ? String.valueOf(response.statusCode())
+                        : failure.getClass().getSimpleName();
+                statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+                if (failure == null && response.body().contains("\"fallback\":true")) {
+                    fallbacks.increment();
+                }
+                done.countDown();
+            });
+        }
+        long sendNanos = System.nanoTime() - start;
+        done.await(requestTimeoutMs + 5000L, TimeUnit.MILLISECONDS);
+
+        int count = completed.get();
+        long[] sorted = Arrays.copyOf(latencies, Math.min(count, total));
+        Arrays.sort(sorted);
+        long statements = statistics.getPrepareStatementCount() - statementsBefore;
+        long queries = statistics.getQueryExecutionCount() - queriesBefore;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", count);
+        result.put("achievedRps", round(total / (sendNanos / 1e9)));
+        Map<String, Double> latencyMs = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            latencyMs.put("p" + (p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p)),
+                    percentileMs(sorted, p));
+        }
+        latencyMs.put("max", sorted.length == 0 ? 0.0 : round(sorted[sorted.length - 1] / 1e6));
+        result.put("latencyMs", latencyMs);
+        Map<String, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, adder) -> statusCounts.put(status, adder.sum()));
+        result.put("statuses", statusCounts);
+        result.put("fallbackRatio", count == 0 ? 0.0 : round((double) fallbacks.sum() / count));
+        result.put("jdbcStatementsPerRequest", count == 0 ? 0.0 : round((double) statements / count));
+        result.put("queriesPerRequest", count == 0 ? 0.0 : round((double) queries / count));
+        return result;
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return round(sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6);
+    }
+
+    /**
+     * Creates students with a few grades and an attendance row each, through the services so the
+     * GPA snapshot and feature rows are maintained as in production.
+     */
+    private void seed(int students) {
+        log.info("Seeding {} load-test students", students);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < students; i++) {
+            Student student = new Student();
+            student.setName("Load Test " + i);
+            student.setEmail("loadtest" + i + "-" + System.nanoTime() + "@example.invalid");
+            student.setDepartment("Load Test");
+            student.setYear(1 + random.nextInt(4));
+            Long studentId = studentService.createStudent(student).getStudentId();
+
+            int grades = 3 + random.nextInt(6);
+            for (int g = 0; g < grades; g++) {
+                Grade grade = new Grade();
+                grade.setStudentId(studentId);
+                grade.setSemester(1 + g % 2);
+                grade.setMarks((double) Math.round(35 + random.nextDouble() * 65));
+                grade.setAssignmentMarks((double) Math.round(30 + random.nextDouble() * 70));
+                gradeService.save(grade);
+            }
+
+            Attendance attendance = new Attendance();
+            attendance.setStudentId(studentId);
+            attendance.setTotalClasses(40);
+            attendance.setAttendedClasses(20 + random.nextInt(21));
+            attendance.setPercentage(attendance.getAttendedClasses() * 100.0 / attendance.getTotalClasses());
+            attendanceService.save(attendance);
+        }
+    }
+
+    private void exit(int code) {
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> code));
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
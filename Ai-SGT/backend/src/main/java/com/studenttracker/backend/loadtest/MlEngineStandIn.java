@@ -0,0 +1,165 @@
+package com.studenttracker.backend.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studenttracker.backend.service.LocalPredictionEngine;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for ai-engine/app.py, serving POST /predict and /predict/batch on
+ * loopback with the same request and response shapes. Scores with a fixed linear formula
+ * and the engine's risk rules, and injects latency, HTTP 500 errors and hangs longer than
+ * the client's read timeout at configurable rates. Only active in the loadtest profile.
+ */
+@Component
+@Profile("loadtest")
+public class MlEngineStandIn {
+
+    private static final Logger log = LoggerFactory.getLogger(MlEngineStandIn.class);
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final double timeoutRate;
+    private final long timeoutSleepMs;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public MlEngineStandIn(ObjectMapper objectMapper,
+            @Value("${ml.stand-in.port:8001}") int port,
+            @Value("${ml.stand-in.threads:64}") int threads,
+            @Value("${ml.stand-in.latency-ms:40}") long latencyMs,
+            @Value("${ml.stand-in.jitter-ms:20}") long jitterMs,
+            @Value("${ml.stand-in.error-rate:0.0}") double errorRate,
+            @Value("${ml.stand-in.timeout-rate:0.0}") double timeoutRate,
+            @Value("${ml.stand-in.timeout-sleep-ms:10000}") long timeoutSleepMs) throws IOException {
+        this.objectMapper = objectMapper;
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.timeoutRate = timeoutRate;
+        this.timeoutSleepMs = timeoutSleepMs;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads,
+                runnable -> new Thread(runnable, "ml-stand-in-" + threadIds.incrementAndGet()));
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 128);
+        server.setExecutor(executor);
+        server.createContext("/predict", this::handle);
+        server.start();
+        log.info("ML engine stand-in on port {}: latency {} ms + up to {} ms, error rate {}, timeout rate {}",
+                port, latencyMs, jitterMs, errorRate, timeoutRate);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, Map.of("detail", "Method Not Allowed"));
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            Map<String, Object> body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = objectMapper.readValue(in, JSON_OBJECT);
+            } catch (JsonProcessingException ex) {
+                send(exchange, 422, Map.of("detail", "Invalid JSON body"));
+                return;
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            double roll = random.nextDouble();
+            if (roll < timeoutRate) {
+                sleep(timeoutSleepMs);
+            } else {
+                sleep(latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0));
+            }
+            if (roll >= timeoutRate && roll < timeoutRate + errorRate) {
+                send(exchange, 500, Map.of("detail", "Injected failure"));
+                return;
+            }
+            Object response;
+            try {
+                response = respond(path, body);
+            } catch (RuntimeException ex) {
+                send(exchange, 500, Map.of("detail", String.valueOf(ex.getMessage())));
+                return;
+            }
+            if (response == null) {
+                send(exchange, 404, Map.of("detail", "Not Found"));
+            } else {
+                send(exchange, 200, response);
+            }
+        }
+    }
+
+    private static Object respond(String path, Map<String, Object> body) {
+        if ("/predict".equals(path)) {
+            return score(body);
+        }
+        if (!"/predict/batch".equals(path)) {
+            return null;
+        }
+        List<Map<String, Object>> predictions = new ArrayList<>();
+        if (body.get("students") instanceof List<?> students) {
+            for (Object student : students) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> request = (Map<String, Object>) student;
+                predictions.add(score(request));
+            }
+        }
+        return Map.of("predictions", predictions);
+    }
+
+    // Deterministic stand-in for the forest: rises with marks, attendance and GPA, falls with late work.
+    private static Map<String, Object> score(Map<String, Object> request) {
+        double[] x = new double[5];
+        LocalPredictionEngine.fillFeatures(request, x);
+        double score = 0.45 * x[1] + 0.2 * x[2] + 0.25 * x[0] + 1.0 * x[3] - 2.0 * x[4];
+        return LocalPredictionEngine.toResult(request, x, score);
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
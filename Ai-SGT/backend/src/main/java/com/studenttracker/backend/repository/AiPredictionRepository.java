@@ -1,10 +1,24 @@
 package com.studenttracker.backend.repository;
 
 import com.studenttracker.backend.entity.AiPrediction;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface AiPredictionRepository extends JpaRepository<AiPrediction, Long> {
-    Optional<AiPrediction> findByStudentId(Long studentId);
+    /** The newest row; tolerates the duplicates left from before predictions were upserted. */
+    Optional<AiPrediction> findFirstByStudentIdOrderByPredictionIdDesc(Long studentId);
+
+    List<AiPrediction> findByStudentIdIn(Collection<Long> studentIds);
+
+    /** Locks the rows so concurrent saves see each other's risk level before deciding to notify. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from AiPrediction p where p.studentId in :studentIds order by p.studentId")
+    List<AiPrediction> findByStudentIdInForUpdate(@Param("studentIds") Collection<Long> studentIds);
 }
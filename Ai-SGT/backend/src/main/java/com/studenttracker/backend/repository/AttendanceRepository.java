@@ -2,7 +2,10 @@ package com.studenttracker.backend.repository;
 
 import com.studenttracker.backend.entity.Attendance;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +13,8 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     List<Attendance> findByStudentId(Long studentId);
     List<Attendance> findByCourseId(Long courseId);
     Optional<Attendance> findByStudentIdAndCourseId(Long studentId, Long courseId);
+
+    @Query("select a.studentId as studentId, sum(a.percentage) as total, count(a) as count from Attendance a "
+            + "where a.studentId in :studentIds and a.percentage is not null group by a.studentId")
+    List<StudentTotal> sumPercentageByStudentIds(@Param("studentIds") Collection<Long> studentIds);
 }
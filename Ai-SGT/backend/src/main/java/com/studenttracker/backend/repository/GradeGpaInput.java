@@ -0,0 +1,12 @@
+package com.studenttracker.backend.repository;
+
+/**
+ * The grade fields that feed a GPA calculation.
+ */
+public interface GradeGpaInput {
+    Long getCourseId();
+
+    Integer getSemester();
+
+    Double getGradePoints();
+}
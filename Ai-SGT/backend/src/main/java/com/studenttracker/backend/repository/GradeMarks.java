@@ -0,0 +1,12 @@
+package com.studenttracker.backend.repository;
+
+/**
+ * The fields needed to rank a grade, without loading the whole row.
+ */
+public interface GradeMarks {
+    Long getGradeId();
+
+    Long getStudentId();
+
+    Double getMarks();
+}
@@ -1,12 +1,69 @@
 package com.studenttracker.backend.repository;
 
 import com.studenttracker.backend.entity.Grade;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface GradeRepository extends JpaRepository<Grade, Long> {
     List<Grade> findByStudentId(Long studentId);
     List<Grade> findByAssignmentId(Long assignmentId);
     List<Grade> findByStudentIdAndSemester(Long studentId, Integer semester);
+
+    /**
+     * Sums gradePoints * credits and credits, and counts grades, per semester in the database,
+     * without loading grade rows. Missing courses and credits count as one credit.
+     */
+    @Query("select g.semester as semester, "
+            + "sum(coalesce(g.gradePoints, 0) * coalesce(c.credits, 1)) as weightedPoints, "
+            + "sum(coalesce(c.credits, 1)) as credits, count(g) as grades "
+            + "from Grade g left join Course c on c.courseId = g.courseId "
+            + "where g.studentId = :studentId group by g.semester")
+    List<SemesterGpaTotals> sumGpaTotalsBySemester(@Param("studentId") Long studentId);
+
+    @Query("select g.studentId as studentId, g.semester as semester, "
+            + "sum(coalesce(g.gradePoints, 0) * coalesce(c.credits, 1)) as weightedPoints, "
+            + "sum(coalesce(c.credits, 1)) as credits, count(g) as grades "
+            + "from Grade g left join Course c on c.courseId = g.courseId "
+            + "where g.studentId in :studentIds group by g.studentId, g.semester")
+    List<StudentSemesterGpaTotals> sumGpaTotalsByStudentAndSemester(@Param("studentIds") Collection<Long> studentIds);
+
+    @Query("select distinct g.studentId from Grade g where g.courseId = :courseId and g.studentId is not null")
+    List<Long> findStudentIdsByCourseId(@Param("courseId") Long courseId);
+
+    @Query("select g.courseId as courseId, g.semester as semester, g.gradePoints as gradePoints "
+            + "from Grade g where g.studentId = :studentId")
+    List<GradeGpaInput> findGpaInputsByStudentId(@Param("studentId") Long studentId);
+
+    @Query("select g.gradeId as gradeId, g.studentId as studentId, coalesce(g.marks, g.score) as marks "
+            + "from Grade g where g.courseId = :courseId and (:semester is null or g.semester = :semester)")
+    List<GradeMarks> findMarksByCourse(@Param("courseId") Long courseId, @Param("semester") Integer semester);
+
+    @Query("select g.studentId as studentId, sum(coalesce(g.marks, g.score)) as total, count(g) as count "
+            + "from Grade g where g.studentId in :studentIds and coalesce(g.marks, g.score) is not null "
+            + "group by g.studentId")
+    List<StudentTotal> sumMarksByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+
+    /**
+     * Streams grades for export. Integer.MIN_VALUE makes MySQL Connector/J send rows one
+     * at a time instead of buffering the whole result; the caller must hold a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false") })
+    @Query("select g from Grade g where (:courseId is null or g.courseId = :courseId) "
+            + "and (:semester is null or g.semester = :semester) "
+            + "and (:instructorId is null or g.courseId in "
+            + "(select c.courseId from Course c where c.instructorId = :instructorId)) "
+            + "order by g.gradeId")
+    Stream<Grade> streamForExport(@Param("courseId") Long courseId, @Param("semester") Integer semester,
+            @Param("instructorId") Long instructorId);
 }
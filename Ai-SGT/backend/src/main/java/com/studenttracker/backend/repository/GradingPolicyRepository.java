@@ -0,0 +1,7 @@
+package com.studenttracker.backend.repository;
+
+import com.studenttracker.backend.entity.GradingPolicy;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface GradingPolicyRepository extends JpaRepository<GradingPolicy, Long> {
+}
@@ -0,0 +1,16 @@
+package com.studenttracker.backend.repository;
+
+import com.studenttracker.backend.entity.JobCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from JobCheckpoint c where c.jobName = :jobName")
+    Optional<JobCheckpoint> findByIdForUpdate(@Param("jobName") String jobName);
+}
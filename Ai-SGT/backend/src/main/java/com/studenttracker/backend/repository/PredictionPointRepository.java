@@ -0,0 +1,35 @@
+package com.studenttracker.backend.repository;
+
+import com.studenttracker.backend.entity.PredictionPoint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface PredictionPointRepository extends JpaRepository<PredictionPoint, Long> {
+
+    @Query("select p from PredictionPoint p where p.studentId = :studentId "
+            + "and p.recordedAt >= :from and p.recordedAt < :to order by p.recordedAt")
+    List<PredictionPoint> findSeries(@Param("studentId") Long studentId, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("select distinct p.studentId from PredictionPoint p "
+            + "where p.downsampled = false and p.recordedAt < :before and p.studentId > :afterStudentId "
+            + "order by p.studentId")
+    List<Long> findStudentsWithRawPointsBefore(@Param("before") LocalDateTime before,
+            @Param("afterStudentId") Long afterStudentId, Pageable page);
+
+    @Query("select p from PredictionPoint p where p.studentId in :studentIds "
+            + "and p.downsampled = false and p.recordedAt < :before order by p.studentId, p.recordedAt")
+    List<PredictionPoint> findRawPointsBefore(@Param("studentIds") Collection<Long> studentIds,
+            @Param("before") LocalDateTime before);
+
+    @Query("select p.pointId from PredictionPoint p where p.recordedAt < :before and p.pointId > :afterPointId "
+            + "order by p.pointId")
+    List<Long> findIdsOlderThan(@Param("before") LocalDateTime before, @Param("afterPointId") Long afterPointId,
+            Pageable page);
+}
@@ -0,0 +1,27 @@
+package com.studenttracker.backend.repository;
+
+import com.studenttracker.backend.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    boolean existsBySignature(String signature);
+
+    @Query("select r.signature from RevokedToken r where r.expiresAt >= :now")
+    List<String> findActiveSignatures(@Param("now") LocalDateTime now);
+
+    @Query("select r.signature from RevokedToken r where r.revokedAt >= :since and r.expiresAt >= :now")
+    List<String> findSignaturesRevokedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,22 @@
+package com.studenttracker.backend.repository;
+
+import com.studenttracker.backend.entity.RevokedUser;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedUserRepository extends JpaRepository<RevokedUser, Long> {
+
+    @Query("select r from RevokedUser r where r.revokedAt >= :since")
+    List<RevokedUser> findRevokedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedUser r where r.revokedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
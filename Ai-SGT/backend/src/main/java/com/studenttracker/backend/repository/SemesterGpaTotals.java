@@ -0,0 +1,14 @@
+package com.studenttracker.backend.repository;
+
+/**
+ * Credit-weighted grade point sums and the grade count for one student and semester (semester may be null).
+ */
+public interface SemesterGpaTotals {
+    Integer getSemester();
+
+    Double getWeightedPoints();
+
+    Double getCredits();
+
+    Long getGrades();
+}
@@ -0,0 +1,22 @@
+package com.studenttracker.backend.repository;
+
+import com.studenttracker.backend.entity.StudentFeatures;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface StudentFeaturesRepository extends JpaRepository<StudentFeatures, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from StudentFeatures f where f.studentId = :studentId")
+    Optional<StudentFeatures> findByIdForUpdate(@Param("studentId") Long studentId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from StudentFeatures f where f.studentId in :ids order by f.studentId")
+    List<StudentFeatures> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+}
@@ -1,10 +1,36 @@
 package com.studenttracker.backend.repository;
 
 import com.studenttracker.backend.entity.Student;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface StudentRepository extends JpaRepository<Student, Long> {
     Optional<Student> findByUserId(Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Student s where s.studentId = :studentId")
+    Optional<Student> findByIdForUpdate(@Param("studentId") Long studentId);
+
+    @Query("select s.studentId from Student s where s.studentId in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select s.studentId from Student s order by s.studentId")
+    List<Long> findAllIds();
+
+    @Query("select s.studentId from Student s where s.studentId > :afterId order by s.studentId")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable page);
+
+    long countByStudentIdGreaterThan(Long studentId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Student s where s.studentId in :ids order by s.studentId")
+    List<Student> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
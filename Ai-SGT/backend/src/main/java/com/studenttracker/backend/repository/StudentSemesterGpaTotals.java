@@ -0,0 +1,8 @@
+package com.studenttracker.backend.repository;
+
+/**
+ * Per-semester GPA sums tagged with the student they belong to.
+ */
+public interface StudentSemesterGpaTotals extends SemesterGpaTotals {
+    Long getStudentId();
+}
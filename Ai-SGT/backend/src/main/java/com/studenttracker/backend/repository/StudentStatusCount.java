@@ -0,0 +1,12 @@
+package com.studenttracker.backend.repository;
+
+/**
+ * A per-student, per-status row count from a grouped query.
+ */
+public interface StudentStatusCount {
+    Long getStudentId();
+
+    String getStatus();
+
+    Long getTotal();
+}
@@ -0,0 +1,12 @@
+package com.studenttracker.backend.repository;
+
+/**
+ * A per-student sum and row count from a grouped query.
+ */
+public interface StudentTotal {
+    Long getStudentId();
+
+    Double getTotal();
+
+    Long getCount();
+}
@@ -2,6 +2,10 @@ package com.studenttracker.backend.repository;
 
 import com.studenttracker.backend.entity.Submission;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,4 +13,9 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
     List<Submission> findByStudentId(Long studentId);
     List<Submission> findByAssignmentId(Long assignmentId);
     Optional<Submission> findByStudentIdAndAssignmentId(Long studentId, Long assignmentId);
+
+    @Query("select s.studentId as studentId, upper(s.status) as status, count(s) as total from Submission s "
+            + "where s.studentId in :studentIds and upper(s.status) in :statuses group by s.studentId, upper(s.status)")
+    List<StudentStatusCount> countByStudentIdsAndStatuses(@Param("studentIds") Collection<Long> studentIds,
+            @Param("statuses") Collection<String> statuses);
 }
@@ -1,20 +1,47 @@
 package com.studenttracker.backend.service;
 
 import com.studenttracker.backend.entity.AiPrediction;
+import com.studenttracker.backend.entity.Notification;
+import com.studenttracker.backend.entity.PredictionPoint;
 import com.studenttracker.backend.repository.AiPredictionRepository;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps one latest prediction row per student, updated in place, and appends every
+ * prediction to the history. Whichever path saves a prediction (a request, a batch or the
+ * nightly scan), a student whose latest risk becomes High is notified in the same transaction.
+ */
 @Service
 public class AiService {
 
+    private static final String HIGH = "High";
+
     private final AiPredictionRepository repo;
+    private final PredictionHistoryService historyService;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
 
-    public AiService(AiPredictionRepository repo) {
+    public AiService(AiPredictionRepository repo, PredictionHistoryService historyService,
+            NotificationService notificationService, PlatformTransactionManager transactionManager) {
         this.repo = repo;
+        this.historyService = historyService;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
-     * Saves an AI prediction.
+     * Saves an AI prediction as the student's latest one.
      * 
      * @param p the prediction to save
      */
@@ -22,11 +49,77 @@ public class AiService {
         if (p == null) {
             throw new IllegalArgumentException("Prediction cannot be null");
         }
-        repo.save(p);
+        savePredictions(List.of(p));
     }
 
     /**
-     * Retrieves a prediction by student ID.
+     * Saves many predictions in one transaction: existing latest rows are updated, missing
+     * ones inserted, one history point is appended per prediction, and students whose risk
+     * became High are notified.
+     *
+     * @param predictions the predictions to save
+     */
+    public void savePredictions(List<AiPrediction> predictions) {
+        if (predictions == null || predictions.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> upsert(predictions));
+        } catch (DataIntegrityViolationException ex) {
+            // A concurrent save inserted a first row for one of these students; it is updated this time.
+            transactionTemplate.executeWithoutResult(status -> upsert(predictions));
+        }
+    }
+
+    /**
+     * The body of {@link #savePredictions}, run in the caller's transaction, so a batch job can
+     * commit predictions together with its own rows. The caller retries on
+     * DataIntegrityViolationException.
+     *
+     * @param predictions the predictions to save
+     * @return the RISK notifications created for students whose risk became High
+     */
+    List<Notification> upsert(List<AiPrediction> predictions) {
+        Set<Long> studentIds = new LinkedHashSet<>();
+        predictions.forEach(p -> studentIds.add(p.getStudentId()));
+        Map<Long, AiPrediction> latest = new HashMap<>();
+        // Locked, so two saves for the same student cannot both see the old risk and both notify.
+        for (AiPrediction row : repo.findByStudentIdInForUpdate(studentIds)) {
+            latest.merge(row.getStudentId(), row,
+                    (a, b) -> a.getPredictionId() > b.getPredictionId() ? a : b);
+        }
+        List<AiPrediction> inserts = new ArrayList<>();
+        List<Notification> notifications = new ArrayList<>();
+        for (AiPrediction p : predictions) {
+            AiPrediction row = latest.get(p.getStudentId());
+            if (row == null) {
+                row = new AiPrediction();
+                row.setStudentId(p.getStudentId());
+                latest.put(p.getStudentId(), row);
+                inserts.add(row);
+            }
+            if (HIGH.equalsIgnoreCase(p.getRiskLevel()) && !HIGH.equalsIgnoreCase(row.getRiskLevel())) {
+                Notification notification = new Notification();
+                notification.setStudentId(p.getStudentId());
+                notification.setType("RISK");
+                notification.setMessage("Your predicted risk level is now High. " + p.getSuggestion());
+                notifications.add(notification);
+            }
+            row.setPredictedScore(p.getPredictedScore());
+            row.setRiskLevel(p.getRiskLevel());
+            row.setSuggestion(p.getSuggestion());
+            row.setConfidenceLevel(p.getConfidenceLevel());
+        }
+        // Existing rows are managed and flush on commit; only new ones need saving.
+        repo.saveAll(inserts);
+        repo.flush();
+        historyService.append(predictions, LocalDateTime.now());
+        notificationService.saveAll(notifications);
+        return notifications;
+    }
+
+    /**
+     * Retrieves a student's latest prediction.
      * 
      * @param studentId the student ID
      * @return the prediction if found, null otherwise
@@ -35,6 +128,21 @@ public class AiService {
         if (studentId == null) {
             return null;
         }
-        return repo.findByStudentId(studentId).orElse(null);
+        return repo.findFirstByStudentIdOrderByPredictionIdDesc(studentId).orElse(null);
+    }
+
+    /**
+     * A student's prediction history in time order.
+     *
+     * @param studentId the student ID
+     * @param from      inclusive start, may be null
+     * @param to        exclusive end, may be null
+     * @return the history points
+     */
+    public List<PredictionPoint> getHistory(Long studentId, LocalDateTime from, LocalDateTime to) {
+        if (studentId == null) {
+            return List.of();
+        }
+        return historyService.series(studentId, from, to);
     }
 }
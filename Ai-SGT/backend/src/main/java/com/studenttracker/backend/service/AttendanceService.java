@@ -3,6 +3,7 @@ package com.studenttracker.backend.service;
 import com.studenttracker.backend.entity.Attendance;
 import com.studenttracker.backend.repository.AttendanceRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,16 +12,24 @@ import java.util.Optional;
 public class AttendanceService {
 
     private final AttendanceRepository repository;
+    private final StudentFeatureService studentFeatureService;
 
-    public AttendanceService(AttendanceRepository repository) {
+    public AttendanceService(AttendanceRepository repository, StudentFeatureService studentFeatureService) {
         this.repository = repository;
+        this.studentFeatureService = studentFeatureService;
     }
 
+    @Transactional
     public Attendance save(Attendance attendance) {
         if (attendance == null) {
             throw new IllegalArgumentException("Attendance cannot be null");
         }
-        return repository.save(attendance);
+        Attendance previous = attendance.getAttendanceId() == null
+                ? null
+                : repository.findById(attendance.getAttendanceId()).map(this::snapshotOf).orElse(null);
+        Attendance saved = repository.saveAndFlush(attendance);
+        onChanged(previous, saved);
+        return saved;
     }
 
     public List<Attendance> getAll() {
@@ -42,17 +51,48 @@ public class AttendanceService {
         return repository.findByCourseId(courseId);
     }
 
+    @Transactional
     public Attendance update(Long id, Attendance details) {
         Attendance existing = repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Attendance not found"));
+        Attendance previous = snapshotOf(existing);
         if (details.getStudentId() != null) existing.setStudentId(details.getStudentId());
         if (details.getCourseId() != null) existing.setCourseId(details.getCourseId());
         if (details.getTotalClasses() != null) existing.setTotalClasses(details.getTotalClasses());
         if (details.getAttendedClasses() != null) existing.setAttendedClasses(details.getAttendedClasses());
-        return repository.save(existing);
+        // Flush so @PreUpdate has recalculated the percentage before the feature store reads it.
+        Attendance saved = repository.saveAndFlush(existing);
+        onChanged(previous, saved);
+        return saved;
     }
 
+    @Transactional
     public void delete(Long id) {
-        if (id != null) repository.deleteById(id);
+        if (id == null) return;
+        repository.findById(id).ifPresent(existing -> {
+            repository.delete(existing);
+            onChanged(existing, null);
+        });
+    }
+
+    /** Reports a row moving from {@code previous} to {@code current}; either may be null. */
+    private void onChanged(Attendance previous, Attendance current) {
+        Long previousStudent = previous == null ? null : previous.getStudentId();
+        Long currentStudent = current == null ? null : current.getStudentId();
+        if (previousStudent != null && !previousStudent.equals(currentStudent)) {
+            studentFeatureService.onAttendanceChanged(previousStudent, previous.getPercentage(), null);
+            previous = null;
+        }
+        if (currentStudent != null) {
+            studentFeatureService.onAttendanceChanged(currentStudent,
+                    previous == null ? null : previous.getPercentage(), current.getPercentage());
+        }
+    }
+
+    private Attendance snapshotOf(Attendance attendance) {
+        Attendance copy = new Attendance();
+        copy.setStudentId(attendance.getStudentId());
+        copy.setPercentage(attendance.getPercentage());
+        return copy;
     }
 }
@@ -0,0 +1,45 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.User;
+import com.studenttracker.backend.entity.UserRole;
+
+/**
+ * The caller behind a verified token, with the student or instructor record it owns.
+ * Resolved once per request; ownership checks read the IDs here instead of querying.
+ *
+ * @param user         the authenticated user
+ * @param studentId    the caller's student ID, null unless the user is a student
+ * @param instructorId the caller's instructor ID, null unless the user is an instructor
+ */
+public record AuthPrincipal(User user, Long studentId, Long instructorId) {
+
+    public Long userId() {
+        return user.getId();
+    }
+
+    public boolean isInstructor() {
+        return user.getRole() == UserRole.INSTRUCTOR;
+    }
+
+    public boolean isStudent() {
+        return user.getRole() == UserRole.STUDENT;
+    }
+
+    /**
+     * Instructors can view every student; students only themselves.
+     *
+     * @param studentId the student being accessed
+     * @return whether the caller may view that student's data
+     */
+    public boolean canViewStudent(Long studentId) {
+        return isInstructor() || ownsStudent(studentId);
+    }
+
+    /**
+     * @param studentId the student being accessed
+     * @return whether the caller is that student
+     */
+    public boolean ownsStudent(Long studentId) {
+        return this.studentId != null && this.studentId.equals(studentId);
+    }
+}
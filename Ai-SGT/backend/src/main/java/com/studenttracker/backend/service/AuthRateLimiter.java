@@ -0,0 +1,223 @@
+package com.studenttracker.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory token buckets for the login and signup endpoints, one per client IP and one
+ * per username/email. Buckets live in lock-striped maps, so callers only contend when
+ * their keys hash to the same stripe; a stripe drops buckets that have sat idle and full
+ * the next time it is touched after the idle timeout, and never holds more than its share of
+ * max-buckets, evicting the least recently used bucket to admit a new one. A request takes a
+ * token from both of its buckets or from neither, so a locked-out username does not drain the
+ * budget of everyone else behind the same IP.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private static final int STRIPES = 64;
+
+    /**
+     * Outcome of a check.
+     *
+     * @param allowed           whether the request may proceed
+     * @param retryAfterSeconds when a rejected caller should try again, 0 if allowed
+     */
+    public record Decision(boolean allowed, long retryAfterSeconds) {
+        static final Decision ALLOWED = new Decision(true, 0);
+    }
+
+    private final boolean enabled;
+    private final Limit ipLimit;
+    private final Limit identifierLimit;
+    private final long idleNanos;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Counter rejectedByIp;
+    private final Counter rejectedByIdentifier;
+    private final Counter evicted;
+
+    public AuthRateLimiter(@Value("${auth.rate-limit.enabled:true}") boolean enabled,
+            @Value("${auth.rate-limit.ip.capacity:20}") int ipCapacity,
+            @Value("${auth.rate-limit.ip.refill-per-minute:20}") int ipRefillPerMinute,
+            @Value("${auth.rate-limit.identifier.capacity:5}") int identifierCapacity,
+            @Value("${auth.rate-limit.identifier.refill-per-minute:5}") int identifierRefillPerMinute,
+            @Value("${auth.rate-limit.idle-seconds:600}") long idleSeconds,
+            @Value("${auth.rate-limit.max-buckets:100000}") int maxBuckets,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ipLimit = new Limit(ipCapacity, ipRefillPerMinute);
+        this.identifierLimit = new Limit(identifierCapacity, identifierRefillPerMinute);
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        this.evicted = Counter.builder("auth.rate.evicted").register(meterRegistry);
+        // At least two, so a request whose keys share a stripe never evicts its own other bucket.
+        int perStripe = Math.max(2, (maxBuckets + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(i, perStripe, evicted);
+        }
+        this.rejectedByIp = Counter.builder("auth.rate.limited").tag("key", "ip").register(meterRegistry);
+        this.rejectedByIdentifier = Counter.builder("auth.rate.limited").tag("key", "identifier").register(meterRegistry);
+    }
+
+    /**
+     * Takes one token from the caller's IP bucket and, if given, the identifier's bucket, but
+     * only if both have one; a rejected request consumes nothing.
+     *
+     * @param clientIp   the remote address
+     * @param identifier the username or email being used, may be null
+     * @return whether to proceed, and when to retry if not
+     */
+    public Decision tryAcquire(String clientIp, String identifier) {
+        if (!enabled) {
+            return Decision.ALLOWED;
+        }
+        long now = System.nanoTime();
+        String ipKey = clientIp == null ? null : "ip:" + clientIp;
+        String idKey = identifier == null || identifier.isBlank() ? null : "id:" + identifier.trim().toLowerCase(Locale.ROOT);
+        Stripe ipStripe = ipKey == null ? null : stripeFor(ipKey);
+        Stripe idStripe = idKey == null ? null : stripeFor(idKey);
+        if (ipStripe == null || idStripe == null || ipStripe == idStripe) {
+            Stripe stripe = ipStripe != null ? ipStripe : idStripe;
+            if (stripe == null) {
+                return Decision.ALLOWED;
+            }
+            synchronized (stripe) {
+                return acquire(bucket(ipStripe, ipKey, ipLimit, now), bucket(idStripe, idKey, identifierLimit, now), now);
+            }
+        }
+        // Both stripes are locked, lower index first, so checking and taking is one step.
+        Stripe first = ipStripe.index < idStripe.index ? ipStripe : idStripe;
+        Stripe second = first == ipStripe ? idStripe : ipStripe;
+        synchronized (first) {
+            synchronized (second) {
+                return acquire(bucket(ipStripe, ipKey, ipLimit, now), bucket(idStripe, idKey, identifierLimit, now), now);
+            }
+        }
+    }
+
+    // Caller holds the locks of both buckets' stripes; either bucket may be null.
+    private Decision acquire(Bucket ipBucket, Bucket idBucket, long now) {
+        long waitNanos = ipBucket == null ? 0 : ipBucket.waitNanos(now);
+        if (waitNanos > 0) {
+            rejectedByIp.increment();
+            return rejected(waitNanos);
+        }
+        waitNanos = idBucket == null ? 0 : idBucket.waitNanos(now);
+        if (waitNanos > 0) {
+            rejectedByIdentifier.increment();
+            return rejected(waitNanos);
+        }
+        if (ipBucket != null) {
+            ipBucket.take();
+        }
+        if (idBucket != null) {
+            idBucket.take();
+        }
+        return Decision.ALLOWED;
+    }
+
+    private Bucket bucket(Stripe stripe, String key, Limit limit, long now) {
+        return key == null ? null : stripe.bucket(key, limit, now, idleNanos);
+    }
+
+    private Stripe stripeFor(String key) {
+        return stripes[(key.hashCode() & Integer.MAX_VALUE) % STRIPES];
+    }
+
+    private static Decision rejected(long waitNanos) {
+        return new Decision(false, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+    }
+
+    private record Limit(double capacity, double tokensPerNano) {
+        Limit(int capacity, int refillPerMinute) {
+            this(capacity, refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1));
+        }
+    }
+
+    private static final class Stripe {
+        private final int index;
+        private final Map<String, Bucket> buckets;
+        private long lastSweep = System.nanoTime();
+
+        private Stripe(int index, int maxBuckets, Counter evicted) {
+            this.index = index;
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    if (size() > maxBuckets) {
+                        evicted.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private Bucket bucket(String key, Limit limit, long now, long idleNanos) {
+            evictIdle(now, idleNanos);
+            return buckets.computeIfAbsent(key, k -> new Bucket(limit, now));
+        }
+
+        private void evictIdle(long now, long idleNanos) {
+            if (now - lastSweep < idleNanos) {
+                return;
+            }
+            lastSweep = now;
+            for (Iterator<Bucket> it = buckets.values().iterator(); it.hasNext(); ) {
+                if (it.next().isIdle(now, idleNanos)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private final Limit limit;
+        private double tokens;
+        private long updatedAt;
+        private long lastUsed;
+
+        private Bucket(Limit limit, long now) {
+            this.limit = limit;
+            this.tokens = limit.capacity();
+            this.updatedAt = now;
+            this.lastUsed = now;
+        }
+
+        /** Returns 0 if a token is available, otherwise the nanoseconds until one is. Takes nothing. */
+        private long waitNanos(long now) {
+            refill(now);
+            lastUsed = now;
+            if (tokens >= 1.0) {
+                return 0;
+            }
+            return limit.tokensPerNano() <= 0 ? Long.MAX_VALUE / 2 : (long) Math.ceil((1.0 - tokens) / limit.tokensPerNano());
+        }
+
+        /** Takes the token {@link #waitNanos} found available. */
+        private void take() {
+            tokens -= 1.0;
+        }
+
+        // An unused bucket that has refilled carries no state worth keeping.
+        private boolean isIdle(long now, long idleNanos) {
+            refill(now);
+            return now - lastUsed >= idleNanos && tokens >= limit.capacity();
+        }
+
+        private void refill(long now) {
+            long elapsed = now - updatedAt;
+            if (elapsed > 0) {
+                tokens = Math.min(limit.capacity(), tokens + elapsed * limit.tokensPerNano());
+                updatedAt = now;
+            }
+        }
+    }
+}
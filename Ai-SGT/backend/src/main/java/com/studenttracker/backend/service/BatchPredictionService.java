@@ -0,0 +1,106 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.AiPrediction;
+import com.studenttracker.backend.entity.StudentFeatures;
+import com.studenttracker.backend.repository.GradeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Predicts a whole course or list of students at once. Per chunk of students this is one
+ * read of the stored features (building missing rows with grouped queries), one batched
+ * call to the ML engine and one batched save. The payload comes from
+ * StudentFeatureService.predictionRequest, as for /ai/predict/{studentId} and the risk scan.
+ */
+@Service
+public class BatchPredictionService {
+
+    private final GradeRepository gradeRepository;
+    private final StudentFeatureService studentFeatureService;
+    private final AiService aiService;
+    private final MlEngineClient mlEngineClient;
+    private final int batchSize;
+
+    public BatchPredictionService(GradeRepository gradeRepository, StudentFeatureService studentFeatureService,
+            AiService aiService, MlEngineClient mlEngineClient, @Value("${ml.client.batch-size:500}") int batchSize) {
+        this.gradeRepository = gradeRepository;
+        this.studentFeatureService = studentFeatureService;
+        this.aiService = aiService;
+        this.mlEngineClient = mlEngineClient;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Predicts every student with a grade in the course.
+     *
+     * @param courseId the course ID
+     * @return the batch result
+     */
+    public Map<String, Object> predictCourse(Long courseId) {
+        return predictStudents(gradeRepository.findStudentIdsByCourseId(courseId));
+    }
+
+    /**
+     * Predicts the given students and saves the predictions. Students without marks are skipped,
+     * as the single-student endpoint rejects them.
+     *
+     * @param studentIds the student IDs
+     * @return requested, predicted and skipped counts, skipped IDs and the per-student results
+     */
+    public Map<String, Object> predictStudents(List<Long> studentIds) {
+        List<Long> ids = studentIds.stream().filter(Objects::nonNull).distinct().toList();
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<Long> skipped = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            predictChunk(ids.subList(from, Math.min(from + batchSize, ids.size())), results, skipped);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("requested", ids.size());
+        response.put("predicted", results.size());
+        response.put("skipped", skipped);
+        response.put("results", results);
+        return response;
+    }
+
+    private void predictChunk(List<Long> studentIds, List<Map<String, Object>> results, List<Long> skipped) {
+        Map<Long, StudentFeatures> features = studentFeatureService.getAll(studentIds);
+        List<Long> predicted = new ArrayList<>();
+        List<Map<String, Object>> requests = new ArrayList<>();
+        for (Long studentId : studentIds) {
+            StudentFeatures row = features.get(studentId);
+            if (row != null && row.getMarksCount() > 0) {
+                predicted.add(studentId);
+                requests.add(StudentFeatureService.predictionRequest(row));
+            } else {
+                skipped.add(studentId);
+            }
+        }
+        if (predicted.isEmpty()) {
+            return;
+        }
+
+        List<Map<String, Object>> chunkResults = mlEngineClient.predictBatch(requests);
+        List<AiPrediction> predictions = new ArrayList<>(chunkResults.size());
+        for (int i = 0; i < chunkResults.size(); i++) {
+            Map<String, Object> result = chunkResults.get(i);
+            AiPrediction p = new AiPrediction();
+            p.setStudentId(predicted.get(i));
+            p.setPredictedScore(
+                    Double.parseDouble(
+                            result.getOrDefault("predictedScore", result.get("prediction")).toString()
+                    )
+            );
+            p.setRiskLevel(result.get("risk").toString());
+            p.setSuggestion(result.get("suggestion").toString());
+            predictions.add(p);
+        }
+        aiService.savePredictions(predictions);
+        results.addAll(chunkResults);
+    }
+}
@@ -0,0 +1,36 @@
+package com.studenttracker.backend.service;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk grade upload: how many rows were written and why the others were rejected.
+ */
+@Getter
+public class BulkGradeResult {
+
+    private int received;
+    private int inserted;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public void addError(int row, String message) {
+        errors.add(new RowError(row, message));
+    }
+
+    void setReceived(int received) {
+        this.received = received;
+    }
+
+    void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    public int getFailed() {
+        return errors.size();
+    }
+
+    public record RowError(int row, String message) {
+    }
+}
@@ -0,0 +1,69 @@
+package com.studenttracker.backend.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row it
+ * opens and rejects calls for {@code openNanos}; then one trial call is let through
+ * (half-open) and its outcome closes or re-opens the breaker.
+ */
+final class CircuitBreaker {
+
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile boolean open;
+
+    CircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = unit.toNanos(openDuration);
+    }
+
+    /**
+     * @return whether a call may go ahead now; callers that get true must report the outcome
+     */
+    boolean tryAcquire() {
+        if (!open) {
+            return true;
+        }
+        if (System.nanoTime() - openedAt.get() < openNanos) {
+            return false;
+        }
+        return trialInFlight.compareAndSet(false, true);
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        open = false;
+        trialInFlight.set(false);
+    }
+
+    void onFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold || trialInFlight.get()) {
+            openedAt.set(System.nanoTime());
+            open = true;
+        }
+        trialInFlight.set(false);
+    }
+
+    /**
+     * Gives back a half-open trial slot when the call was abandoned before reaching the engine.
+     */
+    void releaseTrial() {
+        trialInFlight.set(false);
+    }
+
+    State state() {
+        if (!open) {
+            return State.CLOSED;
+        }
+        return System.nanoTime() - openedAt.get() < openNanos ? State.OPEN : State.HALF_OPEN;
+    }
+}
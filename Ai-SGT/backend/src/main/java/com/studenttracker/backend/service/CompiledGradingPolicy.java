@@ -0,0 +1,116 @@
+package com.studenttracker.backend.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A grading policy flattened into lookup tables. Marks, and band minimums, are rounded half up
+ * to the nearest hundredth, so finding a band is one clamp and one array read, with no
+ * comparisons against band edges and no allocation. A mark of 89.995 therefore grades as 90.
+ */
+public final class CompiledGradingPolicy {
+
+    private static final int STEPS_PER_MARK = 100;
+    private static final int MAX_INDEX = 100 * STEPS_PER_MARK;
+
+    public static final String DEFAULT_BANDS = "90:O:10;80:A+:9;70:A:8;60:B+:7;50:B:6;40:C:5;0:F:0";
+    public static final CompiledGradingPolicy DEFAULT = compile(DEFAULT_BANDS, 0.3, 0.5, 0.2);
+
+    private record Band(double minMarks, String letter, double points) {
+    }
+
+    private final byte[] bandByIndex;
+    private final String[] letters;
+    private final double[] points;
+    private final double internalWeight;
+    private final double semesterWeight;
+    private final double assignmentWeight;
+
+    private CompiledGradingPolicy(byte[] bandByIndex, String[] letters, double[] points,
+            double internalWeight, double semesterWeight, double assignmentWeight) {
+        this.bandByIndex = bandByIndex;
+        this.letters = letters;
+        this.points = points;
+        this.internalWeight = internalWeight;
+        this.semesterWeight = semesterWeight;
+        this.assignmentWeight = assignmentWeight;
+    }
+
+    /**
+     * Compiles band and weight definitions.
+     *
+     * @param bands "minMarks:letter:points" entries separated by ';'
+     * @return the compiled policy
+     * @throws IllegalArgumentException if the bands or weights are invalid
+     */
+    public static CompiledGradingPolicy compile(String bands, double internalWeight, double semesterWeight,
+            double assignmentWeight) {
+        if (internalWeight < 0 || semesterWeight < 0 || assignmentWeight < 0) {
+            throw new IllegalArgumentException("Weights cannot be negative");
+        }
+        List<Band> parsed = new ArrayList<>();
+        if (bands == null || bands.isBlank()) {
+            throw new IllegalArgumentException("At least one grade band is required");
+        }
+        for (String entry : bands.split(";")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Band must be minMarks:letter:points, got '" + entry + "'");
+            }
+            double minMarks;
+            double bandPoints;
+            try {
+                minMarks = Double.parseDouble(parts[0].trim());
+                bandPoints = Double.parseDouble(parts[2].trim());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Band marks and points must be numbers, got '" + entry + "'");
+            }
+            if (minMarks < 0 || minMarks > 100) {
+                throw new IllegalArgumentException("Band minimum marks must be between 0 and 100");
+            }
+            parsed.add(new Band(minMarks, parts[1].trim(), bandPoints));
+        }
+        if (parsed.size() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many grade bands");
+        }
+        parsed.sort(Comparator.comparingDouble(Band::minMarks));
+
+        // Band 0 is the implicit failing band below the lowest defined minimum.
+        String[] letters = new String[parsed.size() + 1];
+        double[] points = new double[parsed.size() + 1];
+        letters[0] = "F";
+        points[0] = 0.0;
+        byte[] bandByIndex = new byte[MAX_INDEX + 1];
+        for (int band = 0; band < parsed.size(); band++) {
+            Band definition = parsed.get(band);
+            letters[band + 1] = definition.letter();
+            points[band + 1] = definition.points();
+            int from = toIndex(definition.minMarks());
+            for (int i = from; i <= MAX_INDEX; i++) {
+                bandByIndex[i] = (byte) (band + 1);
+            }
+        }
+        return new CompiledGradingPolicy(bandByIndex, letters, points, internalWeight, semesterWeight, assignmentWeight);
+    }
+
+    public String letterGrade(double marks) {
+        return letters[bandByIndex[toIndex(marks)]];
+    }
+
+    public double gradePoints(double marks) {
+        return points[bandByIndex[toIndex(marks)]];
+    }
+
+    /**
+     * Combines component marks with the policy weights, capped at 100.
+     */
+    public double weightedMarks(double internal, double semester, double assignment) {
+        return Math.min(100.0, internal * internalWeight + semester * semesterWeight + assignment * assignmentWeight);
+    }
+
+    // Rounding, not truncation, so that products like 0.29 * 100 = 28.999... land on 29.
+    private static int toIndex(double marks) {
+        return (int) Math.round(Math.min(Math.max(marks, 0.0), 100.0) * STEPS_PER_MARK);
+    }
+}
@@ -0,0 +1,9 @@
+package com.studenttracker.backend.service;
+
+/**
+ * The course fields grade calculations need, without the rest of the entity.
+ */
+public record CourseMetadata(Long courseId, int credits, Integer semester, Long instructorId) {
+
+    public static final int DEFAULT_CREDITS = 1;
+}
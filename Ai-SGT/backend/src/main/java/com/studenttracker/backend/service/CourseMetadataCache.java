@@ -0,0 +1,98 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.Course;
+import com.studenttracker.backend.repository.CourseRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared, lazily loaded view of course credits, semester and instructor.
+ * The whole course table is read once and kept until CourseService invalidates it.
+ */
+@Component
+public class CourseMetadataCache {
+
+    private final CourseRepository courseRepository;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile Map<Long, CourseMetadata> courses;
+
+    public CourseMetadataCache(CourseRepository courseRepository, MeterRegistry meterRegistry) {
+        this.courseRepository = courseRepository;
+        FunctionCounter.builder("course.metadata.cache.hits", hits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("course.metadata.cache.misses", misses, LongAdder::sum).register(meterRegistry);
+    }
+
+    /**
+     * Looks up metadata for a course.
+     *
+     * @param courseId the course ID
+     * @return the metadata if the course exists
+     */
+    public Optional<CourseMetadata> get(Long courseId) {
+        if (courseId == null) {
+            return Optional.empty();
+        }
+        Map<Long, CourseMetadata> loaded = courses;
+        if (loaded == null) {
+            misses.increment();
+            loaded = load();
+        } else {
+            hits.increment();
+        }
+        return Optional.ofNullable(loaded.get(courseId));
+    }
+
+    /**
+     * Credits for a course, defaulting to one when the course or its credits are unknown.
+     *
+     * @param courseId the course ID
+     * @return the course credits
+     */
+    public int creditsFor(Long courseId) {
+        return get(courseId).map(CourseMetadata::credits).orElse(CourseMetadata.DEFAULT_CREDITS);
+    }
+
+    /**
+     * Drops the cached table; the next lookup reloads it.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        courses = null;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private Map<Long, CourseMetadata> load() {
+        long loadedGeneration = generation.get();
+        Map<Long, CourseMetadata> loaded = new HashMap<>();
+        for (Course course : courseRepository.findAll()) {
+            if (course.getCourseId() == null) {
+                continue;
+            }
+            int credits = course.getCredits() == null ? CourseMetadata.DEFAULT_CREDITS : course.getCredits();
+            loaded.put(course.getCourseId(),
+                    new CourseMetadata(course.getCourseId(), credits, course.getSemester(), course.getInstructorId()));
+        }
+        Map<Long, CourseMetadata> snapshot = Map.copyOf(loaded);
+        // A concurrent invalidate() means this read may already be stale; serve it once but do not keep it.
+        if (generation.get() == loadedGeneration) {
+            courses = snapshot;
+        }
+        return snapshot;
+    }
+}
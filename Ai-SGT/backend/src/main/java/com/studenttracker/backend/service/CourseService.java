@@ -4,15 +4,23 @@ import com.studenttracker.backend.entity.Course;
 import com.studenttracker.backend.repository.CourseRepository;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 public class CourseService {
 
     private final CourseRepository courseRepository;
+    private final CourseMetadataCache courseMetadataCache;
+    private final GpaRecomputeService gpaRecomputeService;
+    private final GradingPolicyService gradingPolicyService;
 
-    public CourseService(CourseRepository courseRepository) {
+    public CourseService(CourseRepository courseRepository, CourseMetadataCache courseMetadataCache,
+            GpaRecomputeService gpaRecomputeService, GradingPolicyService gradingPolicyService) {
         this.courseRepository = courseRepository;
+        this.courseMetadataCache = courseMetadataCache;
+        this.gpaRecomputeService = gpaRecomputeService;
+        this.gradingPolicyService = gradingPolicyService;
     }
 
     /**
@@ -25,7 +33,10 @@ public class CourseService {
         if (course == null) {
             throw new IllegalArgumentException("Course cannot be null");
         }
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        courseMetadataCache.invalidate();
+        gradingPolicyService.invalidate();
+        return saved;
     }
 
     /**
@@ -77,6 +88,7 @@ public class CourseService {
         }
         Course course = courseRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Course not found"));
+        Integer previousCredits = course.getCredits();
 
         if (courseDetails.getCourseName() != null) {
             course.setCourseName(courseDetails.getCourseName());
@@ -97,7 +109,14 @@ public class CourseService {
             course.setInstructorId(courseDetails.getInstructorId());
         }
 
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        courseMetadataCache.invalidate();
+        gradingPolicyService.invalidate();
+        if (!Objects.equals(previousCredits, saved.getCredits())) {
+            // Every stored GPA that includes this course was weighted with the old credits.
+            gpaRecomputeService.submitForCourse(saved.getCourseId());
+        }
+        return saved;
     }
 
     /**
@@ -110,5 +129,7 @@ public class CourseService {
             return;
         }
         courseRepository.deleteById(id);
+        courseMetadataCache.invalidate();
+        gradingPolicyService.invalidate();
     }
 }
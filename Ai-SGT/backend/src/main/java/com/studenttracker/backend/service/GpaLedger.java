@@ -0,0 +1,204 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.Student;
+import com.studenttracker.backend.repository.StudentSemesterGpaTotals;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running credit-weighted grade point sums for one student.
+ * Kept on the student row so the GPA summary never has to reload grades.
+ * Each semester also counts its grades, so a semester whose courses carry no credits is still
+ * reported, with GPA 0, as GradeService.calculateGpaSummaryFromGrades reports it.
+ */
+public final class GpaLedger {
+
+    private static final double EPSILON = 1e-9;
+    private static final double UNKNOWN_COUNT = -1.0;
+
+    private double weightedPoints;
+    private double credits;
+    private final TreeMap<Integer, double[]> semesters = new TreeMap<>();
+
+    public static GpaLedger empty() {
+        return new GpaLedger();
+    }
+
+    /**
+     * Reads the ledger stored on a student row.
+     *
+     * @param student the student
+     * @return the ledger, empty if the student has no snapshot yet
+     */
+    public static GpaLedger of(Student student) {
+        GpaLedger ledger = new GpaLedger();
+        ledger.weightedPoints = numberOrZero(student.getGpaWeightedPoints());
+        ledger.credits = numberOrZero(student.getGpaCredits());
+        String encoded = student.getSemesterGpaTotals();
+        if (encoded == null || encoded.isBlank()) {
+            return ledger;
+        }
+        for (String entry : encoded.split(";")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 3 && parts.length != 4) {
+                continue;
+            }
+            // Entries written before grade counts were kept have no count; see apply().
+            double grades = parts.length == 4 ? Double.parseDouble(parts[3]) : UNKNOWN_COUNT;
+            ledger.semesters.put(Integer.valueOf(parts[0]),
+                    new double[] { Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), grades });
+        }
+        return ledger;
+    }
+
+    /**
+     * Groups the rows of the per-student, per-semester aggregate query into one ledger per student.
+     *
+     * @param rows the aggregate rows
+     * @return ledgers by student ID; students without rows are absent
+     */
+    public static Map<Long, GpaLedger> byStudent(Iterable<StudentSemesterGpaTotals> rows) {
+        Map<Long, GpaLedger> ledgers = new HashMap<>();
+        for (StudentSemesterGpaTotals totals : rows) {
+            ledgers.computeIfAbsent(totals.getStudentId(), id -> new GpaLedger())
+                    .addTotals(totals.getSemester(), numberOrZero(totals.getWeightedPoints()),
+                            numberOrZero(totals.getCredits()), countOrZero(totals.getGrades()));
+        }
+        return ledgers;
+    }
+
+    /**
+     * Adds (sign = 1) or removes (sign = -1) one grade's contribution.
+     *
+     * @param semester    the grade semester, may be null
+     * @param gradePoints the grade points
+     * @param credits     the course credits
+     * @param sign        1 to add, -1 to remove
+     */
+    public void apply(Integer semester, double gradePoints, double credits, int sign) {
+        weightedPoints += sign * gradePoints * credits;
+        this.credits += sign * credits;
+        if (this.credits < EPSILON) {
+            weightedPoints = 0.0;
+            this.credits = 0.0;
+        }
+        if (semester == null) {
+            return;
+        }
+        double[] totals = semesters.computeIfAbsent(semester, key -> new double[3]);
+        totals[0] += sign * gradePoints * credits;
+        totals[1] += sign * credits;
+        if (totals[2] != UNKNOWN_COUNT) {
+            totals[2] += sign;
+        }
+        // Without a count, the semester is gone once its credits are; a later recompute stores the count.
+        boolean empty = totals[2] == UNKNOWN_COUNT ? totals[1] < EPSILON : totals[2] < 1;
+        if (empty) {
+            semesters.remove(semester);
+        } else if (totals[1] < EPSILON) {
+            totals[0] = 0.0;
+            totals[1] = 0.0;
+        }
+    }
+
+    /**
+     * Adds pre-aggregated sums, as returned by the per-semester aggregate query.
+     *
+     * @param semester       the semester, may be null
+     * @param weightedPoints sum of grade points times credits
+     * @param credits        sum of credits
+     * @param grades         number of grades summed
+     */
+    public void addTotals(Integer semester, double weightedPoints, double credits, long grades) {
+        this.weightedPoints += weightedPoints;
+        this.credits += credits;
+        if (semester != null && grades > 0) {
+            double[] totals = semesters.computeIfAbsent(semester, key -> new double[3]);
+            totals[0] += weightedPoints;
+            totals[1] += credits;
+            totals[2] += grades;
+        }
+    }
+
+    /**
+     * The summary map returned by the GPA summary endpoint.
+     *
+     * @param studentId the student ID
+     * @return studentId, gpa, cgpa and semesterGpas
+     */
+    public Map<String, Object> toSummary(Long studentId) {
+        return Map.of(
+                "studentId", studentId,
+                "gpa", gpa(),
+                "cgpa", cgpa(),
+                "semesterGpas", semesterGpas());
+    }
+
+    public double gpa() {
+        return credits == 0 ? 0.0 : round(weightedPoints / credits);
+    }
+
+    public double cgpa() {
+        if (semesters.isEmpty()) {
+            return gpa();
+        }
+        // Summed like GradeService.calculateGpaSummaryFromGrades (compensated), so a total that
+        // lands on a half cent rounds the same way on both paths.
+        double total = semesters.values().stream().mapToDouble(GpaLedger::semesterGpa).sum();
+        return round(total / semesters.size());
+    }
+
+    public Map<Integer, Double> semesterGpas() {
+        Map<Integer, Double> result = new LinkedHashMap<>();
+        semesters.forEach((semester, totals) -> result.put(semester, semesterGpa(totals)));
+        return result;
+    }
+
+    /**
+     * Writes the sums and the derived GPA/CGPA back to the student row.
+     *
+     * @param student the student to update
+     */
+    public void writeTo(Student student) {
+        student.setGpaWeightedPoints(weightedPoints);
+        student.setGpaCredits(credits);
+        student.setSemesterGpaTotals(encodeSemesters());
+        student.setGpa(gpa());
+        student.setCgpa(cgpa());
+        student.setGpaSnapshotAt(LocalDateTime.now());
+    }
+
+    private String encodeSemesters() {
+        StringBuilder encoded = new StringBuilder();
+        semesters.forEach((semester, totals) -> {
+            if (encoded.length() > 0) {
+                encoded.append(';');
+            }
+            encoded.append(semester).append(':').append(totals[0]).append(':').append(totals[1]);
+            if (totals[2] != UNKNOWN_COUNT) {
+                encoded.append(':').append((long) totals[2]);
+            }
+        });
+        return encoded.toString();
+    }
+
+    private static double semesterGpa(double[] totals) {
+        return totals[1] == 0 ? 0.0 : round(totals[0] / totals[1]);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static double numberOrZero(Double value) {
+        return value == null ? 0.0 : value;
+    }
+
+    private static long countOrZero(Long value) {
+        return value == null ? 0L : value;
+    }
+}
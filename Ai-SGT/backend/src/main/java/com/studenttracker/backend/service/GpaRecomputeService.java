@@ -0,0 +1,137 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.Student;
+import com.studenttracker.backend.repository.GradeRepository;
+import com.studenttracker.backend.repository.StudentRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Rebuilds stored GPA snapshots in bulk, e.g. after a course's credits change.
+ * Students are split into chunks; each chunk is one aggregate query plus one batch of
+ * snapshot updates in its own transaction, and chunks run on a bounded worker pool.
+ * Jobs run one at a time in submission order.
+ */
+@Service
+public class GpaRecomputeService {
+
+    private static final Logger log = LoggerFactory.getLogger(GpaRecomputeService.class);
+
+    private final GradeRepository gradeRepository;
+    private final StudentRepository studentRepository;
+    private final StudentFeatureService studentFeatureService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "gpa-recompute"));
+    private final ExecutorService workers;
+    private final int chunkSize;
+    private volatile JobProgress current;
+
+    public GpaRecomputeService(GradeRepository gradeRepository, StudentRepository studentRepository,
+            StudentFeatureService studentFeatureService, PlatformTransactionManager transactionManager,
+            @Value("${grades.recompute.parallelism:4}") int parallelism,
+            @Value("${grades.recompute.chunk-size:500}") int chunkSize) {
+        this.gradeRepository = gradeRepository;
+        this.studentRepository = studentRepository;
+        this.studentFeatureService = studentFeatureService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism,
+                runnable -> new Thread(runnable, "gpa-recompute-" + threads.incrementAndGet()));
+    }
+
+    /**
+     * Queues a recompute for every student who has a grade in the course.
+     *
+     * @param courseId the course whose credits changed
+     * @return the queued job's progress
+     */
+    public JobProgress submitForCourse(Long courseId) {
+        return submit("course " + courseId, () -> gradeRepository.findStudentIdsByCourseId(courseId));
+    }
+
+    /**
+     * Queues a recompute for every student.
+     *
+     * @return the queued job's progress
+     */
+    public JobProgress submitAll() {
+        return submit("all students", studentRepository::findAllIds);
+    }
+
+    /**
+     * @return the running job, or the last finished one; null if none has run
+     */
+    public JobProgress getCurrent() {
+        return current;
+    }
+
+    private JobProgress submit(String scope, Supplier<List<Long>> studentIds) {
+        JobProgress progress = new JobProgress(scope);
+        coordinator.execute(() -> run(progress, studentIds));
+        return progress;
+    }
+
+    private void run(JobProgress progress, Supplier<List<Long>> studentIdSupplier) {
+        current = progress;
+        progress.start();
+        try {
+            List<Long> studentIds = studentIdSupplier.get();
+            progress.setTotal(studentIds.size());
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            for (int from = 0; from < studentIds.size(); from += chunkSize) {
+                List<Long> chunk = studentIds.subList(from, Math.min(from + chunkSize, studentIds.size()));
+                chunks.add(CompletableFuture.runAsync(() -> recomputeChunk(chunk, progress), workers));
+            }
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+            progress.finish("COMPLETED");
+        } catch (RuntimeException ex) {
+            log.error("GPA recompute for {} failed", progress.scope(), ex);
+            progress.finish("FAILED");
+        }
+        log.info("GPA recompute for {}: {}", progress.scope(), progress.toMap());
+    }
+
+    private void recomputeChunk(List<Long> studentIds, JobProgress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Lock first so concurrent grade writes apply their deltas on top of the rebuilt sums.
+                List<Student> students = studentRepository.findAllByIdForUpdate(studentIds);
+                Map<Long, GpaLedger> ledgers = GpaLedger.byStudent(gradeRepository.sumGpaTotalsByStudentAndSemester(studentIds));
+                Map<Long, Double> gpas = new HashMap<>();
+                for (Student student : students) {
+                    ledgers.getOrDefault(student.getStudentId(), GpaLedger.empty()).writeTo(student);
+                    gpas.put(student.getStudentId(), student.getGpa());
+                }
+                studentRepository.saveAll(students);
+                studentFeatureService.onGpaChanged(gpas);
+            });
+            progress.addProcessed(studentIds.size());
+        } catch (RuntimeException ex) {
+            log.warn("GPA recompute chunk of {} students failed", studentIds.size(), ex);
+            progress.addFailed(studentIds.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+}
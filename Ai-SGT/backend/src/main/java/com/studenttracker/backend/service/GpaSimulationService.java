@@ -0,0 +1,192 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.repository.GradeGpaInput;
+import com.studenttracker.backend.repository.GradeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers "what if" GPA questions for one student from a single grade read: many
+ * hypothetical scenarios per call, and the lowest mark needed to reach a target CGPA.
+ */
+@Service
+public class GpaSimulationService {
+
+    /** Highest mark, in hundredths, searched for a target CGPA. */
+    private static final int MAX_MARK_STEPS = 100 * 100;
+
+    /**
+     * One hypothetical grade: marks in a course, optionally in a given semester.
+     */
+    public record HypotheticalGrade(Long courseId, Integer semester, Double marks) {
+    }
+
+    /**
+     * Scenarios to evaluate and, optionally, a CGPA target for the remaining courses.
+     */
+    public record SimulationRequest(List<List<HypotheticalGrade>> scenarios, Double targetCgpa,
+            List<HypotheticalGrade> remainingCourses) {
+    }
+
+    private final GradeRepository gradeRepository;
+    private final CourseMetadataCache courseMetadataCache;
+    private final GradingPolicyService gradingPolicyService;
+
+    /** Most scenarios one request may carry; the controller rejects more with 400. */
+    @Value("${grades.simulate.max-scenarios:20}")
+    private int maxScenarios = 20;
+
+    /** Most hypothetical grades per scenario, and most remaining courses for a target. */
+    @Value("${grades.simulate.max-grades:50}")
+    private int maxGrades = 50;
+
+    public GpaSimulationService(GradeRepository gradeRepository, CourseMetadataCache courseMetadataCache,
+            GradingPolicyService gradingPolicyService) {
+        this.gradeRepository = gradeRepository;
+        this.courseMetadataCache = courseMetadataCache;
+        this.gradingPolicyService = gradingPolicyService;
+    }
+
+    /**
+     * Runs every scenario and the target search against one load of the student's grades.
+     *
+     * @param studentId the student ID
+     * @param request   the scenarios and target
+     * @return current, per-scenario and target results
+     */
+    public Map<String, Object> simulate(Long studentId, SimulationRequest request) {
+        GpaSimulator simulator = load(studentId);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("studentId", studentId);
+        response.put("current", toMap(simulator.evaluate(new long[0], new int[0], new double[0], new double[0])));
+
+        List<Map<String, Object>> scenarioResults = new ArrayList<>();
+        if (request != null && request.scenarios() != null) {
+            for (List<HypotheticalGrade> scenario : request.scenarios()) {
+                scenarioResults.add(toMap(evaluate(simulator, scenario == null ? List.of() : scenario, null)));
+            }
+        }
+        response.put("scenarios", scenarioResults);
+
+        if (request != null && request.targetCgpa() != null) {
+            List<HypotheticalGrade> remaining = request.remainingCourses() == null ? List.of() : request.remainingCourses();
+            response.put("target", minimumMarksFor(simulator, remaining, request.targetCgpa()));
+        }
+        return response;
+    }
+
+    /**
+     * Whether a request is over the configured caps. Each scenario costs a pass over the
+     * student's grades per hypothetical, and the target search repeats that per search step.
+     *
+     * @param request the request
+     * @return true if it has too many scenarios, or too many grades in a scenario or the remaining courses
+     */
+    public boolean exceedsLimits(SimulationRequest request) {
+        if (request == null) {
+            return false;
+        }
+        if (request.scenarios() != null) {
+            if (request.scenarios().size() > maxScenarios) {
+                return true;
+            }
+            for (List<HypotheticalGrade> scenario : request.scenarios()) {
+                if (scenario != null && scenario.size() > maxGrades) {
+                    return true;
+                }
+            }
+        }
+        return request.remainingCourses() != null && request.remainingCourses().size() > maxGrades;
+    }
+
+    public int getMaxScenarios() {
+        return maxScenarios;
+    }
+
+    public int getMaxGrades() {
+        return maxGrades;
+    }
+
+    private GpaSimulator load(Long studentId) {
+        List<GradeGpaInput> rows = gradeRepository.findGpaInputsByStudentId(studentId);
+        long[] courseIds = new long[rows.size()];
+        int[] semesters = new int[rows.size()];
+        double[] points = new double[rows.size()];
+        double[] credits = new double[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            GradeGpaInput row = rows.get(i);
+            courseIds[i] = row.getCourseId() == null ? GpaSimulator.NO_COURSE : row.getCourseId();
+            semesters[i] = row.getSemester() == null ? GpaSimulator.NO_SEMESTER : row.getSemester();
+            points[i] = row.getGradePoints() == null ? 0.0 : row.getGradePoints();
+            credits[i] = courseMetadataCache.creditsFor(row.getCourseId());
+        }
+        return new GpaSimulator(courseIds, semesters, points, credits);
+    }
+
+    /**
+     * Evaluates a scenario; when uniformMarks is set it replaces every hypothetical's marks.
+     */
+    private GpaSimulator.Result evaluate(GpaSimulator simulator, List<HypotheticalGrade> grades, Double uniformMarks) {
+        int size = grades.size();
+        long[] courseIds = new long[size];
+        int[] semesters = new int[size];
+        double[] points = new double[size];
+        double[] credits = new double[size];
+        for (int i = 0; i < size; i++) {
+            HypotheticalGrade grade = grades.get(i);
+            Long courseId = grade.courseId();
+            Integer semester = grade.semester() != null
+                    ? grade.semester()
+                    : courseMetadataCache.get(courseId).map(CourseMetadata::semester).orElse(null);
+            double marks = uniformMarks != null ? uniformMarks : grade.marks() == null ? 0.0 : grade.marks();
+            courseIds[i] = courseId == null ? GpaSimulator.NO_COURSE : courseId;
+            semesters[i] = semester == null ? GpaSimulator.NO_SEMESTER : semester;
+            points[i] = gradingPolicyService.forCourse(courseId).gradePoints(marks);
+            credits[i] = courseMetadataCache.creditsFor(courseId);
+        }
+        return simulator.evaluate(courseIds, semesters, points, credits);
+    }
+
+    /**
+     * Binary-searches the lowest mark (to 0.01) that, scored in every remaining course,
+     * brings CGPA to the target. Grade points never decrease with marks, so the search is valid.
+     */
+    private Map<String, Object> minimumMarksFor(GpaSimulator simulator, List<HypotheticalGrade> remaining, double target) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("targetCgpa", target);
+        GpaSimulator.Result best = evaluate(simulator, remaining, 100.0);
+        if (best.cgpa() < target) {
+            result.put("reachable", false);
+            result.put("bestCgpa", best.cgpa());
+            return result;
+        }
+        int low = 0;
+        int high = MAX_MARK_STEPS;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (evaluate(simulator, remaining, mid / 100.0).cgpa() >= target) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        double marks = low / 100.0;
+        result.put("reachable", true);
+        result.put("minimumMarks", marks);
+        result.put("cgpaAtMinimum", evaluate(simulator, remaining, marks).cgpa());
+        return result;
+    }
+
+    private Map<String, Object> toMap(GpaSimulator.Result result) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("gpa", result.gpa());
+        map.put("cgpa", result.cgpa());
+        map.put("semesterGpas", result.semesterGpas());
+        return map;
+    }
+}
@@ -0,0 +1,126 @@
+package com.studenttracker.backend.service;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.Map;
+
+/**
+ * A student's grades held as parallel primitive arrays, so hypothetical GPAs can be
+ * evaluated repeatedly without touching the database or boxing per grade.
+ * Uses the same rules as GpaLedger: GPA is credit-weighted over all grades, CGPA is the
+ * mean of the (rounded) semester GPAs.
+ */
+public final class GpaSimulator {
+
+    /** Marks a grade or hypothetical without a course. */
+    public static final long NO_COURSE = Long.MIN_VALUE;
+    /** Marks a grade or hypothetical without a semester. */
+    public static final int NO_SEMESTER = Integer.MIN_VALUE;
+
+    private final long[] courseIds;
+    private final int[] slots;
+    private final double[] points;
+    private final double[] credits;
+    private final int[] slotSemesters;
+
+    /**
+     * @param courseIds   course per grade, NO_COURSE when absent
+     * @param semesters   semester per grade, NO_SEMESTER when absent
+     * @param points      grade points per grade
+     * @param credits     credits per grade
+     */
+    public GpaSimulator(long[] courseIds, int[] semesters, double[] points, double[] credits) {
+        this.courseIds = courseIds;
+        this.points = points;
+        this.credits = credits;
+        this.slotSemesters = Arrays.stream(semesters).filter(s -> s != NO_SEMESTER).distinct().sorted().toArray();
+        this.slots = new int[semesters.length];
+        for (int i = 0; i < semesters.length; i++) {
+            slots[i] = semesters[i] == NO_SEMESTER ? -1 : Arrays.binarySearch(slotSemesters, semesters[i]);
+        }
+    }
+
+    public record Result(double gpa, double cgpa, Map<Integer, Double> semesterGpas) {
+    }
+
+    /**
+     * Evaluates GPA with hypothetical grades. A hypothetical for a course the student already
+     * has replaces that course's grade points; any other hypothetical is added as a new grade.
+     * The four arrays are parallel, one entry per hypothetical.
+     */
+    public Result evaluate(long[] hypotheticalCourses, int[] hypotheticalSemesters, double[] hypotheticalPoints,
+            double[] hypotheticalCredits) {
+        int extra = hypotheticalCourses.length;
+        int[] extraSemesters = new int[extra];
+        int extraCount = 0;
+        double[] semesterPoints = new double[slotSemesters.length + extra];
+        double[] semesterCredits = new double[slotSemesters.length + extra];
+        boolean[] applied = new boolean[extra];
+        double totalPoints = 0.0;
+        double totalCredits = 0.0;
+
+        for (int i = 0; i < courseIds.length; i++) {
+            double gradePoints = points[i];
+            if (courseIds[i] != NO_COURSE) {
+                for (int h = 0; h < extra; h++) {
+                    if (hypotheticalCourses[h] == courseIds[i]) {
+                        gradePoints = hypotheticalPoints[h];
+                        applied[h] = true;
+                        break;
+                    }
+                }
+            }
+            totalPoints += gradePoints * credits[i];
+            totalCredits += credits[i];
+            if (slots[i] >= 0) {
+                semesterPoints[slots[i]] += gradePoints * credits[i];
+                semesterCredits[slots[i]] += credits[i];
+            }
+        }
+
+        for (int h = 0; h < extra; h++) {
+            if (applied[h]) {
+                continue;
+            }
+            totalPoints += hypotheticalPoints[h] * hypotheticalCredits[h];
+            totalCredits += hypotheticalCredits[h];
+            int semester = hypotheticalSemesters[h];
+            if (semester == NO_SEMESTER) {
+                continue;
+            }
+            int slot = Arrays.binarySearch(slotSemesters, semester);
+            if (slot < 0) {
+                slot = -1;
+                for (int e = 0; e < extraCount; e++) {
+                    if (extraSemesters[e] == semester) {
+                        slot = slotSemesters.length + e;
+                        break;
+                    }
+                }
+                if (slot < 0) {
+                    extraSemesters[extraCount] = semester;
+                    slot = slotSemesters.length + extraCount++;
+                }
+            }
+            semesterPoints[slot] += hypotheticalPoints[h] * hypotheticalCredits[h];
+            semesterCredits[slot] += hypotheticalCredits[h];
+        }
+
+        Map<Integer, Double> semesterGpas = new TreeMap<>();
+        for (int slot = 0; slot < slotSemesters.length + extraCount; slot++) {
+            // Every slot holds at least one grade; one with no credits has GPA 0, as in GpaLedger.
+            double gpa = semesterCredits[slot] <= 0 ? 0.0 : round(semesterPoints[slot] / semesterCredits[slot]);
+            int semester = slot < slotSemesters.length ? slotSemesters[slot] : extraSemesters[slot - slotSemesters.length];
+            semesterGpas.put(semester, gpa);
+        }
+        // Compensated sum, as GpaLedger and the Java summary use, so half cents round alike.
+        double semesterTotal = semesterGpas.values().stream().mapToDouble(Double::doubleValue).sum();
+        double gpa = totalCredits == 0 ? 0.0 : round(totalPoints / totalCredits);
+        double cgpa = semesterGpas.isEmpty() ? gpa : round(semesterTotal / semesterGpas.size());
+        return new Result(gpa, cgpa, semesterGpas);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,158 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.Grade;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads grade rows from CSV with a header line, e.g.
+ * {@code studentId,courseId,semester,internalMarks,semesterMarks,assignmentMarks,marks,feedback}.
+ * Header names match the Grade JSON properties; unknown columns are ignored, so files written
+ * by GradeExportService can be uploaded again. Quoted fields may contain commas, doubled
+ * quotes and line breaks.
+ */
+public final class GradeCsvReader {
+
+    private GradeCsvReader() {
+    }
+
+    /**
+     * Parses the CSV. Rows that cannot be parsed are returned as null and reported in the result.
+     *
+     * @param source  the CSV source
+     * @param result  collects per-row parse errors (rows are numbered from 1, excluding the header)
+     * @param maxRows the most data rows accepted
+     * @return one entry per data row
+     * @throws IllegalArgumentException if the file has more than {@code maxRows} data rows
+     */
+    public static List<Grade> read(Reader source, BulkGradeResult result, int maxRows) throws IOException {
+        List<Grade> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(source);
+        List<String> header = readRecord(reader);
+        if (header == null) {
+            return rows;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+
+        List<String> record;
+        while ((record = readRecord(reader)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            int row = rows.size() + 1;
+            if (row > maxRows) {
+                throw new IllegalArgumentException("Upload has more than " + maxRows + " rows");
+            }
+            try {
+                rows.add(toGrade(record, columns));
+            } catch (IllegalArgumentException ex) {
+                result.addError(row, ex.getMessage());
+                rows.add(null);
+            }
+        }
+        return rows;
+    }
+
+    private static Grade toGrade(List<String> values, Map<String, Integer> columns) {
+        Grade grade = new Grade();
+        grade.setStudentId(longValue(values, columns, "studentid"));
+        grade.setCourseId(longValue(values, columns, "courseid"));
+        grade.setAssignmentId(longValue(values, columns, "assignmentid"));
+        grade.setInternalMarks(doubleValue(values, columns, "internalmarks"));
+        grade.setSemesterMarks(doubleValue(values, columns, "semestermarks"));
+        grade.setAssignmentMarks(doubleValue(values, columns, "assignmentmarks"));
+        grade.setMarks(doubleValue(values, columns, "marks"));
+        grade.setScore(doubleValue(values, columns, "score"));
+        Long semester = longValue(values, columns, "semester");
+        grade.setSemester(semester == null ? null : semester.intValue());
+        grade.setFeedback(value(values, columns, "feedback"));
+        return grade;
+    }
+
+    private static String value(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Long longValue(List<String> values, Map<String, Integer> columns, String name) {
+        String value = value(values, columns, name);
+        try {
+            return value == null ? null : Long.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(name + " must be a whole number");
+        }
+    }
+
+    private static Double doubleValue(List<String> values, Map<String, Integer> columns, String name) {
+        String value = value(values, columns, name);
+        try {
+            return value == null ? null : Double.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+    }
+
+    /**
+     * Reads one CSV record, which may span several lines inside a quoted field.
+     *
+     * @return the record's fields, or null at end of input
+     */
+    private static List<String> readRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (; c >= 0; c = reader.read()) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        current.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    current.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                break;
+            } else {
+                current.append((char) c);
+            }
+        }
+        if (quoted) {
+            throw new IOException("Unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -0,0 +1,133 @@
+package com.studenttracker.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.studenttracker.backend.entity.Grade;
+import com.studenttracker.backend.repository.GradeRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Streams grades straight from the database to the response as NDJSON or CSV.
+ * Each row is detached once written, so memory use does not grow with the table.
+ */
+@Service
+public class GradeExportService {
+
+    private static final int FLUSH_EVERY = 500;
+    private static final String CSV_HEADER = "gradeId,studentId,assignmentId,courseId,semester,internalMarks,"
+            + "semesterMarks,assignmentMarks,marks,score,grade,gradePoints,gradedBy,gradedAt,feedback";
+
+    private final GradeRepository repo;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public GradeExportService(GradeRepository repo, ObjectMapper objectMapper) {
+        this.repo = repo;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes matching grades as newline-delimited JSON.
+     *
+     * @param courseId     optional course filter
+     * @param semester     optional semester filter
+     * @param instructorId optional filter on the course's instructor
+     * @param out          the response stream
+     */
+    @Transactional(readOnly = true)
+    public void writeNdjson(Long courseId, Integer semester, Long instructorId, OutputStream out) throws IOException {
+        try (Stream<Grade> grades = repo.streamForExport(courseId, semester, instructorId);
+                SequenceWriter writer = objectMapper.writer()
+                        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                        .withRootValueSeparator("\n")
+                        .writeValues(out)) {
+            int[] count = { 0 };
+            grades.forEach(grade -> {
+                try {
+                    writer.write(grade);
+                    entityManager.detach(grade);
+                    if (++count[0] % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            writer.flush();
+            if (count[0] > 0) {
+                out.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes matching grades as CSV with a header row.
+     *
+     * @param courseId     optional course filter
+     * @param semester     optional semester filter
+     * @param instructorId optional filter on the course's instructor
+     * @param out          the response stream
+     */
+    @Transactional(readOnly = true)
+    public void writeCsv(Long courseId, Integer semester, Long instructorId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        try (Stream<Grade> grades = repo.streamForExport(courseId, semester, instructorId)) {
+            int[] count = { 0 };
+            grades.forEach(grade -> {
+                try {
+                    writeCsvRow(writer, grade);
+                    entityManager.detach(grade);
+                    if (++count[0] % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+        writer.flush();
+    }
+
+    private void writeCsvRow(Writer writer, Grade grade) throws IOException {
+        Object[] values = {
+                grade.getGradeId(), grade.getStudentId(), grade.getAssignmentId(), grade.getCourseId(),
+                grade.getSemester(), grade.getInternalMarks(), grade.getSemesterMarks(), grade.getAssignmentMarks(),
+                grade.getMarks(), grade.getScore(), grade.getGrade(), grade.getGradePoints(), grade.getGradedBy(),
+                grade.getGradedAt() };
+        for (Object value : values) {
+            if (value != null) {
+                writer.write(value.toString());
+            }
+            writer.write(',');
+        }
+        writer.write(csvEscape(grade.getFeedback()));
+        writer.write('\n');
+    }
+
+    private String csvEscape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
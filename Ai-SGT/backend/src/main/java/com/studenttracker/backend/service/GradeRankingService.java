@@ -0,0 +1,238 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.Grade;
+import com.studenttracker.backend.repository.GradeMarks;
+import com.studenttracker.backend.repository.GradeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Keeps an order-statistic tree of students' best marks per course and semester (and per
+ * course across all semesters) to answer rank, percentile and top-N queries in logarithmic
+ * time. A bucket is loaded from the database on first query and then kept current by
+ * GradeService after each committed change. Buckets are only created for existing courses,
+ * and empty ones are not kept, so the map is bounded by the grades actually stored.
+ *
+ * Buckets are per node, and a node only applies the changes committed through it. Grades
+ * written on other nodes are picked up when the bucket is next reloaded, which happens on
+ * the first query after grades.ranking.max-age-seconds; until then this node may serve ranks
+ * that lag the other nodes by up to that long.
+ */
+@Service
+public class GradeRankingService {
+
+    private record BucketKey(Long courseId, Integer semester) {
+    }
+
+    private static final class Bucket {
+        RankingTree tree = new RankingTree();
+        boolean loaded;
+        long loadedAt;
+    }
+
+    private final GradeRepository repo;
+    private final CourseMetadataCache courseMetadataCache;
+    private final long maxAgeNanos;
+    private final Map<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public GradeRankingService(GradeRepository repo, CourseMetadataCache courseMetadataCache,
+            @Value("${grades.ranking.max-age-seconds:60}") long maxAgeSeconds) {
+        this.repo = repo;
+        this.courseMetadataCache = courseMetadataCache;
+        this.maxAgeNanos = TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+    }
+
+    /**
+     * Records a created or updated grade once the surrounding transaction commits.
+     *
+     * @param previous the grade's course, semester and ID before the change, or null for a new grade
+     * @param saved    the saved grade
+     */
+    public void onGradeSaved(Grade previous, Grade saved) {
+        Long gradeId = saved.getGradeId();
+        Long studentId = saved.getStudentId();
+        Long courseId = saved.getCourseId();
+        Integer semester = saved.getSemester();
+        Double marks = saved.getMarks() != null ? saved.getMarks() : saved.getScore();
+        Long previousCourseId = previous == null ? null : previous.getCourseId();
+        Integer previousSemester = previous == null ? null : previous.getSemester();
+        afterCommit(() -> {
+            if (previousCourseId != null) {
+                removeFrom(previousCourseId, previousSemester, gradeId);
+            }
+            if (courseId == null || studentId == null) {
+                return;
+            }
+            if (marks == null) {
+                removeFrom(courseId, semester, gradeId);
+                return;
+            }
+            applyIfLoaded(new BucketKey(courseId, null), tree -> tree.upsert(gradeId, studentId, marks));
+            if (semester != null) {
+                applyIfLoaded(new BucketKey(courseId, semester), tree -> tree.upsert(gradeId, studentId, marks));
+            }
+        });
+    }
+
+    /**
+     * Removes a deleted grade once the surrounding transaction commits.
+     *
+     * @param deleted the deleted grade
+     */
+    public void onGradeDeleted(Grade deleted) {
+        Long gradeId = deleted.getGradeId();
+        Long courseId = deleted.getCourseId();
+        Integer semester = deleted.getSemester();
+        if (gradeId == null || courseId == null) {
+            return;
+        }
+        afterCommit(() -> removeFrom(courseId, semester, gradeId));
+    }
+
+    /**
+     * Ranks a student's best grade within a course, optionally within one semester.
+     *
+     * @param courseId  the course ID
+     * @param semester  the semester, or null for all semesters
+     * @param studentId the student ID
+     * @return rank (1 = highest marks), total, percentile and marks, if the student has a grade there
+     */
+    public Optional<Map<String, Object>> rankOf(Long courseId, Integer semester, Long studentId) {
+        Bucket bucket = loadedBucket(new BucketKey(courseId, semester));
+        if (bucket == null) {
+            return Optional.empty();
+        }
+        synchronized (bucket) {
+            RankingTree.Node best = bucket.tree.bestFor(studentId);
+            if (best == null) {
+                return Optional.empty();
+            }
+            int total = bucket.tree.size();
+            int below = bucket.tree.countBelow(best.marks);
+            int above = bucket.tree.countAbove(best.marks);
+            int equal = total - below - above;
+            double percentile = Math.round(((below + 0.5 * equal) / total) * 10000.0) / 100.0;
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("courseId", courseId);
+            result.put("semester", semester);
+            result.put("studentId", studentId);
+            result.put("marks", best.marks);
+            result.put("rank", above + 1);
+            result.put("total", total);
+            result.put("percentile", percentile);
+            return Optional.of(result);
+        }
+    }
+
+    /**
+     * Lists the students with the highest marks in a course, optionally within one semester;
+     * each student appears once, with their best grade.
+     *
+     * @param courseId the course ID
+     * @param semester the semester, or null for all semesters
+     * @param limit    the maximum number of entries
+     * @return entries ordered from the highest marks down
+     */
+    public List<Map<String, Object>> top(Long courseId, Integer semester, int limit) {
+        Bucket bucket = loadedBucket(new BucketKey(courseId, semester));
+        if (bucket == null) {
+            return List.of();
+        }
+        synchronized (bucket) {
+            int total = bucket.tree.size();
+            int count = Math.min(Math.max(limit, 0), total);
+            List<Map<String, Object>> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                RankingTree.Node node = bucket.tree.select(total - 1 - i);
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("rank", bucket.tree.countAbove(node.marks) + 1);
+                entry.put("studentId", node.studentId);
+                entry.put("gradeId", node.gradeId);
+                entry.put("marks", node.marks);
+                result.add(entry);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The bucket for a key, loaded; null if the course does not exist. A bucket that loads
+     * empty is returned but not kept: later grades there are read from the database when it
+     * is next queried. A bucket older than the max age is rebuilt from the database, to pick
+     * up grades committed on other nodes.
+     */
+    private Bucket loadedBucket(BucketKey key) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (courseMetadataCache.get(key.courseId()).isEmpty()) {
+                return null;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+        }
+        synchronized (bucket) {
+            long now = System.nanoTime();
+            if (bucket.loaded && now - bucket.loadedAt > maxAgeNanos) {
+                bucket.tree = new RankingTree();
+                bucket.loaded = false;
+            }
+            if (!bucket.loaded) {
+                for (GradeMarks row : repo.findMarksByCourse(key.courseId(), key.semester())) {
+                    if (row.getMarks() != null && row.getStudentId() != null) {
+                        bucket.tree.upsert(row.getGradeId(), row.getStudentId(), row.getMarks());
+                    }
+                }
+                bucket.loaded = true;
+                bucket.loadedAt = now;
+                if (bucket.tree.size() == 0) {
+                    buckets.remove(key, bucket);
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private void removeFrom(Long courseId, Integer semester, Long gradeId) {
+        applyIfLoaded(new BucketKey(courseId, null), tree -> tree.remove(gradeId));
+        if (semester != null) {
+            applyIfLoaded(new BucketKey(courseId, semester), tree -> tree.remove(gradeId));
+        }
+    }
+
+    // Buckets nobody has queried yet are skipped; they read committed rows when first loaded.
+    private void applyIfLoaded(BucketKey key, Consumer<RankingTree> change) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        synchronized (bucket) {
+            if (bucket.loaded) {
+                change.accept(bucket.tree);
+            }
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
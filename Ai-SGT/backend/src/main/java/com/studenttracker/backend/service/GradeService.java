@@ -1,24 +1,59 @@
 package com.studenttracker.backend.service;
 
 import com.studenttracker.backend.entity.Grade;
-import com.studenttracker.backend.entity.Course;
+import com.studenttracker.backend.entity.Student;
 import com.studenttracker.backend.repository.GradeRepository;
-import com.studenttracker.backend.repository.CourseRepository;
+import com.studenttracker.backend.repository.SemesterGpaTotals;
+import com.studenttracker.backend.repository.StudentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 public class GradeService {
 
+    /** Matches hibernate.jdbc.batch_size so each flush sends full JDBC batches. */
+    private static final int BATCH_SIZE = 50;
+
     private final GradeRepository repo;
-    private final CourseRepository courseRepository;
+    private final CourseMetadataCache courseMetadataCache;
+    private final StudentRepository studentRepository;
+    private final GradeRankingService rankingService;
+    private final GradingPolicyService gradingPolicyService;
+    private final StudentFeatureService studentFeatureService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** "database" sums GPA totals with an aggregate query; "java" loads grades and sums them here. */
+    @Value("${grades.gpa.aggregation:database}")
+    private String gpaAggregation = "database";
 
-    public GradeService(GradeRepository repo, CourseRepository courseRepository) {
+    /** Largest bulk upload accepted; the controller rejects bigger ones with 400. */
+    @Value("${grades.bulk.max-rows:5000}")
+    private int maxBulkRows = 5000;
+
+    public GradeService(GradeRepository repo, CourseMetadataCache courseMetadataCache, StudentRepository studentRepository,
+            GradeRankingService rankingService, GradingPolicyService gradingPolicyService,
+            StudentFeatureService studentFeatureService) {
         this.repo = repo;
-        this.courseRepository = courseRepository;
+        this.courseMetadataCache = courseMetadataCache;
+        this.studentRepository = studentRepository;
+        this.rankingService = rankingService;
+        this.gradingPolicyService = gradingPolicyService;
+        this.studentFeatureService = studentFeatureService;
     }
 
     /**
@@ -27,16 +62,93 @@ public class GradeService {
      * @param g the grade to save
      * @return the saved grade
      */
+    @Transactional
     public Grade save(Grade g) {
         if (g == null) {
             throw new IllegalArgumentException("Grade cannot be null");
         }
         applyGradeCalculation(g);
         Grade saved = repo.save(g);
-        updateStudentGpaSnapshot(saved.getStudentId());
+        Double gpa = updateStudentGpaSnapshot(saved.getStudentId(), null, saved);
+        studentFeatureService.onMarksChanged(saved.getStudentId(), List.of(), marksOf(List.of(saved)), gpa);
+        rankingService.onGradeSaved(null, saved);
         return saved;
     }
 
+    /**
+     * Validates, grades and inserts a batch of rows in one transaction using Hibernate JDBC batching.
+     * Invalid rows are reported in the result and skipped; each affected student's GPA
+     * snapshot is updated once for the whole batch.
+     *
+     * @param rows      the uploaded rows, at most {@link #getMaxBulkRows()}; null entries were already
+     *                  rejected by the parser
+     * @param gradedBy  the uploading instructor's user ID, used when a row has none
+     * @param result    the result to record row errors and counts in
+     * @return the result
+     */
+    @Transactional
+    public BulkGradeResult saveBatch(List<Grade> rows, Long gradedBy, BulkGradeResult result) {
+        result.setReceived(rows.size());
+        Set<Long> studentIds = rows.stream()
+                .filter(Objects::nonNull)
+                .map(Grade::getStudentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> knownStudents = studentIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(studentRepository.findExistingIds(studentIds));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Grade> accepted = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Grade grade = rows.get(i);
+            if (grade == null) {
+                continue;
+            }
+            String error = validateBatchRow(grade, knownStudents);
+            if (error != null) {
+                result.addError(i + 1, error);
+                continue;
+            }
+            applyGradeCalculation(grade);
+            if (grade.getGradedBy() == null) {
+                grade.setGradedBy(gradedBy);
+            }
+            if (grade.getGradedAt() == null) {
+                grade.setGradedAt(now);
+            }
+            accepted.add(grade);
+        }
+
+        // Pooled IDs let Hibernate group these inserts into JDBC batches; clearing keeps the context small.
+        for (int i = 0; i < accepted.size(); i++) {
+            entityManager.persist(accepted.get(i));
+            if ((i + 1) % BATCH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        result.setInserted(accepted.size());
+        accepted.forEach(grade -> rankingService.onGradeSaved(null, grade));
+
+        Map<Long, List<Grade>> byStudent = accepted.stream()
+                .collect(Collectors.groupingBy(Grade::getStudentId, TreeMap::new, Collectors.toList()));
+        byStudent.forEach((studentId, added) -> {
+            Double gpa = updateStudentGpaSnapshot(studentId, List.of(), added);
+            studentFeatureService.onMarksChanged(studentId, List.of(), marksOf(added), gpa);
+        });
+        return result;
+    }
+
+    /**
+     * @return the most rows one bulk upload may contain
+     */
+    public int getMaxBulkRows() {
+        return maxBulkRows;
+    }
+
     /**
      * Retrieves grades by student ID.
      * 
@@ -109,6 +221,7 @@ public class GradeService {
      * @param grade the updated grade details
      * @return the updated grade, or null if not found
      */
+    @Transactional
     public Grade updateGrade(Long id, Grade grade) {
         if (id == null || grade == null) {
             return null;
@@ -117,6 +230,8 @@ public class GradeService {
         if (existing == null) {
             return null;
         }
+        Grade previous = contributionOf(existing);
+        List<Double> previousMarks = marksOf(List.of(existing));
         existing.setScore(grade.getScore());
         existing.setCourseId(grade.getCourseId());
         existing.setInternalMarks(grade.getInternalMarks());
@@ -131,7 +246,9 @@ public class GradeService {
         existing.setGradedAt(grade.getGradedAt());
         applyGradeCalculation(existing);
         Grade saved = repo.save(existing);
-        updateStudentGpaSnapshot(saved.getStudentId());
+        Double gpa = updateStudentGpaSnapshot(saved.getStudentId(), previous, saved);
+        studentFeatureService.onMarksChanged(saved.getStudentId(), previousMarks, marksOf(List.of(saved)), gpa);
+        rankingService.onGradeSaved(previous, saved);
         return saved;
     }
 
@@ -140,14 +257,101 @@ public class GradeService {
      * 
      * @param id the grade ID
      */
+    @Transactional
     public void deleteGrade(Long id) {
         if (id == null) {
             return;
         }
-        repo.deleteById(id);
+        Grade existing = getById(id);
+        if (existing == null) {
+            return;
+        }
+        repo.delete(existing);
+        Double gpa = updateStudentGpaSnapshot(existing.getStudentId(), existing, null);
+        studentFeatureService.onMarksChanged(existing.getStudentId(), marksOf(List.of(existing)), List.of(), gpa);
+        rankingService.onGradeDeleted(existing);
     }
 
+    /**
+     * Returns GPA, CGPA and per-semester GPA for a student.
+     * Served from the snapshot on the student row; the snapshot is built
+     * from the student's grades the first time it is requested.
+     * The student row is locked before anything else is read, so a rebuild sees every grade
+     * committed before it rather than the snapshot of an earlier read in this transaction.
+     *
+     * @param studentId the student ID
+     * @return the GPA summary
+     */
+    @Transactional
     public Map<String, Object> calculateGpaSummary(Long studentId) {
+        Student student = studentId == null ? null : studentRepository.findByIdForUpdate(studentId).orElse(null);
+        if (student == null) {
+            return useJavaAggregation()
+                    ? calculateGpaSummaryFromGrades(studentId)
+                    : aggregateGpaTotals(studentId).toSummary(studentId);
+        }
+        if (student.getGpaSnapshotAt() == null) {
+            student = rebuildGpaSnapshot(student);
+        }
+        return GpaLedger.of(student).toSummary(studentId);
+    }
+
+    /**
+     * Recomputes a student's GPA snapshot from all of their grades.
+     *
+     * @param studentId the student ID
+     * @return the updated student, or null if not found
+     */
+    @Transactional
+    public Student rebuildGpaSnapshot(Long studentId) {
+        Student student = studentRepository.findByIdForUpdate(studentId).orElse(null);
+        return student == null ? null : rebuildGpaSnapshot(student);
+    }
+
+    // The caller holds the lock on the student row.
+    private Student rebuildGpaSnapshot(Student student) {
+        Long studentId = student.getStudentId();
+        GpaLedger ledger;
+        if (useJavaAggregation()) {
+            ledger = GpaLedger.empty();
+            for (Grade grade : getByStudent(studentId)) {
+                ledger.apply(grade.getSemester(), NumberOrZero(grade.getGradePoints()), courseMetadataCache.creditsFor(grade.getCourseId()), 1);
+            }
+        } else {
+            ledger = aggregateGpaTotals(studentId);
+        }
+        ledger.writeTo(student);
+        Student saved = studentRepository.save(student);
+        studentFeatureService.onGpaChanged(Map.of(studentId, saved.getGpa()));
+        return saved;
+    }
+
+    /**
+     * Sums a student's credit-weighted grade points per semester in the database.
+     *
+     * @param studentId the student ID
+     * @return a ledger holding the totals
+     */
+    public GpaLedger aggregateGpaTotals(Long studentId) {
+        GpaLedger ledger = GpaLedger.empty();
+        if (studentId == null) {
+            return ledger;
+        }
+        for (SemesterGpaTotals totals : repo.sumGpaTotalsBySemester(studentId)) {
+            ledger.addTotals(totals.getSemester(), NumberOrZero(totals.getWeightedPoints()), NumberOrZero(totals.getCredits()),
+                    totals.getGrades() == null ? 0L : totals.getGrades());
+        }
+        return ledger;
+    }
+
+    /**
+     * Computes the GPA summary by loading every grade for the student and summing in Java.
+     * Slower than the aggregate query, but kept as the fallback and as the reference result.
+     *
+     * @param studentId the student ID
+     * @return the GPA summary
+     */
+    public Map<String, Object> calculateGpaSummaryFromGrades(Long studentId) {
         List<Grade> grades = getByStudent(studentId);
         double cgpa = calculateCgpa(grades);
         Map<Integer, Double> semesterGpas = grades.stream()
@@ -164,58 +368,34 @@ public class GradeService {
     }
 
     private void applyGradeCalculation(Grade grade) {
+        CompiledGradingPolicy policy = gradingPolicyService.forCourse(grade.getCourseId());
         Double marks = firstNonNull(grade.getMarks(), grade.getScore());
         if (marks == null) {
-            marks = weightedMarks(grade);
+            marks = weightedMarks(grade, policy);
         }
         grade.setMarks(marks);
         grade.setScore(firstNonNull(grade.getScore(), marks));
-        grade.setGrade(calculateLetterGrade(marks));
-        grade.setGradePoints(calculateGradePoints(marks));
+        grade.setGrade(policy.letterGrade(marks));
+        grade.setGradePoints(policy.gradePoints(marks));
     }
 
-    private Double weightedMarks(Grade grade) {
+    private Double weightedMarks(Grade grade, CompiledGradingPolicy policy) {
         double internal = NumberOrZero(grade.getInternalMarks());
         double semester = NumberOrZero(grade.getSemesterMarks());
         double assignment = NumberOrZero(grade.getAssignmentMarks());
         if (internal == 0 && semester == 0 && assignment == 0) {
             return 0.0;
         }
-        return Math.min(100.0, (internal * 0.3) + (semester * 0.5) + (assignment * 0.2));
-    }
-
-    private String calculateLetterGrade(Double marks) {
-        double value = NumberOrZero(marks);
-        if (value >= 90) return "O";
-        if (value >= 80) return "A+";
-        if (value >= 70) return "A";
-        if (value >= 60) return "B+";
-        if (value >= 50) return "B";
-        if (value >= 40) return "C";
-        return "F";
-    }
-
-    private Double calculateGradePoints(Double marks) {
-        double value = NumberOrZero(marks);
-        if (value >= 90) return 10.0;
-        if (value >= 80) return 9.0;
-        if (value >= 70) return 8.0;
-        if (value >= 60) return 7.0;
-        if (value >= 50) return 6.0;
-        if (value >= 40) return 5.0;
-        return 0.0;
+        return policy.weightedMarks(internal, semester, assignment);
     }
 
     private Double calculateGpa(List<Grade> grades) {
         if (grades == null || grades.isEmpty()) return 0.0;
-        Map<Long, Integer> creditsByCourse = courseRepository.findAll().stream()
-                .filter(course -> course.getCourseId() != null)
-                .collect(Collectors.toMap(Course::getCourseId, course -> course.getCredits() == null ? 1 : course.getCredits()));
 
         double weightedPoints = 0.0;
         double totalCredits = 0.0;
         for (Grade grade : grades) {
-            int credits = grade.getCourseId() == null ? 1 : creditsByCourse.getOrDefault(grade.getCourseId(), 1);
+            int credits = courseMetadataCache.creditsFor(grade.getCourseId());
             weightedPoints += NumberOrZero(grade.getGradePoints()) * credits;
             totalCredits += credits;
         }
@@ -231,8 +411,98 @@ public class GradeService {
         return Math.round((total / bySemester.size()) * 100.0) / 100.0;
     }
 
-    private void updateStudentGpaSnapshot(Long studentId) {
-        // StudentService owns student updates; GPA summary endpoint exposes the calculated values.
+    private String validateBatchRow(Grade grade, Set<Long> knownStudents) {
+        if (grade.getGradeId() != null) {
+            return "gradeId must not be set; bulk upload only adds new grades";
+        }
+        if (grade.getStudentId() == null) {
+            return "studentId is required";
+        }
+        if (!knownStudents.contains(grade.getStudentId())) {
+            return "Unknown student " + grade.getStudentId();
+        }
+        if (grade.getCourseId() != null && courseMetadataCache.get(grade.getCourseId()).isEmpty()) {
+            return "Unknown course " + grade.getCourseId();
+        }
+        if (grade.getMarks() == null && grade.getScore() == null && grade.getInternalMarks() == null
+                && grade.getSemesterMarks() == null && grade.getAssignmentMarks() == null) {
+            return "marks, score or component marks are required";
+        }
+        String range = checkRange("marks", grade.getMarks());
+        if (range == null) range = checkRange("score", grade.getScore());
+        if (range == null) range = checkRange("internalMarks", grade.getInternalMarks());
+        if (range == null) range = checkRange("semesterMarks", grade.getSemesterMarks());
+        if (range == null) range = checkRange("assignmentMarks", grade.getAssignmentMarks());
+        if (range != null) {
+            return range;
+        }
+        if (grade.getFeedback() != null && grade.getFeedback().length() > 1000) {
+            return "feedback must be at most 1000 characters";
+        }
+        return null;
+    }
+
+    private String checkRange(String field, Double value) {
+        if (value != null && (value < 0 || value > 100)) {
+            return field + " must be between 0 and 100";
+        }
+        return null;
+    }
+
+    private Double updateStudentGpaSnapshot(Long studentId, Grade removed, Grade added) {
+        return updateStudentGpaSnapshot(studentId,
+                removed == null ? List.of() : List.of(removed),
+                added == null ? List.of() : List.of(added));
+    }
+
+    /**
+     * Moves grade contributions in the student's running GPA sums.
+     * A student without a snapshot yet is left alone; the first summary read builds it.
+     *
+     * @return the updated GPA, or null if the student has no snapshot
+     */
+    private Double updateStudentGpaSnapshot(Long studentId, List<Grade> removed, List<Grade> added) {
+        if (studentId == null) {
+            return null;
+        }
+        Student student = studentRepository.findByIdForUpdate(studentId).orElse(null);
+        if (student == null || student.getGpaSnapshotAt() == null) {
+            return null;
+        }
+        GpaLedger ledger = GpaLedger.of(student);
+        for (Grade grade : removed) {
+            ledger.apply(grade.getSemester(), NumberOrZero(grade.getGradePoints()), courseMetadataCache.creditsFor(grade.getCourseId()), -1);
+        }
+        for (Grade grade : added) {
+            ledger.apply(grade.getSemester(), NumberOrZero(grade.getGradePoints()), courseMetadataCache.creditsFor(grade.getCourseId()), 1);
+        }
+        ledger.writeTo(student);
+        studentRepository.save(student);
+        return ledger.gpa();
+    }
+
+    private List<Double> marksOf(List<Grade> grades) {
+        List<Double> marks = new ArrayList<>(grades.size());
+        for (Grade grade : grades) {
+            Double value = firstNonNull(grade.getMarks(), grade.getScore());
+            if (value != null) {
+                marks.add(value);
+            }
+        }
+        return marks;
+    }
+
+    private Grade contributionOf(Grade grade) {
+        Grade copy = new Grade();
+        copy.setGradeId(grade.getGradeId());
+        copy.setCourseId(grade.getCourseId());
+        copy.setSemester(grade.getSemester());
+        copy.setGradePoints(grade.getGradePoints());
+        return copy;
+    }
+
+    private boolean useJavaAggregation() {
+        return "java".equalsIgnoreCase(gpaAggregation);
     }
 
     private Double firstNonNull(Double first, Double second) {
@@ -0,0 +1,188 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.GradingPolicy;
+import com.studenttracker.backend.entity.Instructor;
+import com.studenttracker.backend.repository.GradingPolicyRepository;
+import com.studenttracker.backend.repository.InstructorRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores grading policies and serves them compiled. A course uses its own policy, then its
+ * instructor's department policy, then the institution default (a policy with neither course
+ * nor department), then the built-in 10-point scale.
+ * Compiled policies are cached and rebuilt whenever a policy, course or instructor changes.
+ */
+@Service
+public class GradingPolicyService {
+
+    private record Compiled(Map<Long, CompiledGradingPolicy> byCourse,
+            Map<String, CompiledGradingPolicy> byDepartment,
+            CompiledGradingPolicy institutionDefault) {
+    }
+
+    private final GradingPolicyRepository repository;
+    private final InstructorRepository instructorRepository;
+    private final CourseMetadataCache courseMetadataCache;
+    private final Map<Long, CompiledGradingPolicy> resolvedByCourse = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Compiled compiled;
+
+    public GradingPolicyService(GradingPolicyRepository repository, InstructorRepository instructorRepository,
+            CourseMetadataCache courseMetadataCache) {
+        this.repository = repository;
+        this.instructorRepository = instructorRepository;
+        this.courseMetadataCache = courseMetadataCache;
+    }
+
+    /**
+     * Returns the compiled policy that grades a course.
+     *
+     * @param courseId the course ID, may be null
+     * @return the policy, never null
+     */
+    public CompiledGradingPolicy forCourse(Long courseId) {
+        if (courseId == null) {
+            return compiled().institutionDefault();
+        }
+        CompiledGradingPolicy policy = resolvedByCourse.get(courseId);
+        if (policy == null) {
+            long resolvedGeneration = generation.get();
+            policy = resolve(courseId, compiled());
+            // resolve() can read a course or instructor that invalidate() has since replaced, so the
+            // result is only cached if no invalidation happened between starting it and storing it.
+            if (generation.get() == resolvedGeneration) {
+                resolvedByCourse.put(courseId, policy);
+                if (generation.get() != resolvedGeneration) {
+                    resolvedByCourse.remove(courseId, policy);
+                }
+            }
+        }
+        return policy;
+    }
+
+    public List<GradingPolicy> getAll() {
+        return repository.findAll();
+    }
+
+    public Optional<GradingPolicy> getById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return repository.findById(id);
+    }
+
+    /**
+     * Validates and saves a policy, then reloads the cache.
+     *
+     * @param policy the policy to save
+     * @return the saved policy
+     * @throws IllegalArgumentException if the bands or weights are invalid
+     */
+    public GradingPolicy save(GradingPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("Grading policy cannot be null");
+        }
+        compile(policy);
+        GradingPolicy saved = repository.save(policy);
+        invalidate();
+        return saved;
+    }
+
+    public GradingPolicy update(Long id, GradingPolicy details) {
+        if (id == null || details == null) {
+            throw new IllegalArgumentException("ID and grading policy details cannot be null");
+        }
+        GradingPolicy policy = repository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Grading policy not found"));
+        policy.setName(details.getName());
+        policy.setCourseId(details.getCourseId());
+        policy.setDepartment(details.getDepartment());
+        policy.setBands(details.getBands());
+        policy.setInternalWeight(details.getInternalWeight());
+        policy.setSemesterWeight(details.getSemesterWeight());
+        policy.setAssignmentWeight(details.getAssignmentWeight());
+        return save(policy);
+    }
+
+    public void delete(Long id) {
+        if (id == null) {
+            return;
+        }
+        repository.deleteById(id);
+        invalidate();
+    }
+
+    /**
+     * Drops compiled policies; the next lookup reloads them.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        compiled = null;
+        resolvedByCourse.clear();
+    }
+
+    private CompiledGradingPolicy resolve(Long courseId, Compiled current) {
+        CompiledGradingPolicy policy = current.byCourse().get(courseId);
+        if (policy != null) {
+            return policy;
+        }
+        String department = courseMetadataCache.get(courseId)
+                .map(CourseMetadata::instructorId)
+                .flatMap(instructorRepository::findById)
+                .map(Instructor::getDepartment)
+                .orElse(null);
+        if (department != null) {
+            policy = current.byDepartment().get(department.trim().toUpperCase(Locale.ROOT));
+        }
+        return policy != null ? policy : current.institutionDefault();
+    }
+
+    private Compiled compiled() {
+        Compiled current = compiled;
+        if (current == null) {
+            long loadedGeneration = generation.get();
+            current = load();
+            // A policy saved while load() ran may be missing from it; keep it only if none was.
+            if (generation.get() == loadedGeneration) {
+                compiled = current;
+            }
+        }
+        return current;
+    }
+
+    private Compiled load() {
+        Map<Long, CompiledGradingPolicy> byCourse = new HashMap<>();
+        Map<String, CompiledGradingPolicy> byDepartment = new HashMap<>();
+        CompiledGradingPolicy institutionDefault = CompiledGradingPolicy.DEFAULT;
+        for (GradingPolicy policy : repository.findAll()) {
+            CompiledGradingPolicy compiledPolicy = compile(policy);
+            if (policy.getCourseId() != null) {
+                byCourse.put(policy.getCourseId(), compiledPolicy);
+            } else if (policy.getDepartment() != null && !policy.getDepartment().isBlank()) {
+                byDepartment.put(policy.getDepartment().trim().toUpperCase(Locale.ROOT), compiledPolicy);
+            } else {
+                institutionDefault = compiledPolicy;
+            }
+        }
+        return new Compiled(byCourse, byDepartment, institutionDefault);
+    }
+
+    private CompiledGradingPolicy compile(GradingPolicy policy) {
+        return CompiledGradingPolicy.compile(policy.getBands(),
+                weightOrDefault(policy.getInternalWeight(), 0.3),
+                weightOrDefault(policy.getSemesterWeight(), 0.5),
+                weightOrDefault(policy.getAssignmentWeight(), 0.2));
+    }
+
+    private double weightOrDefault(Double weight, double fallback) {
+        return weight == null ? fallback : weight;
+    }
+}
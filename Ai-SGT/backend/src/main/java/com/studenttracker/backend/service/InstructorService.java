@@ -10,9 +10,11 @@ import java.util.Optional;
 public class InstructorService {
 
     private final InstructorRepository instructorRepository;
+    private final GradingPolicyService gradingPolicyService;
 
-    public InstructorService(InstructorRepository instructorRepository) {
+    public InstructorService(InstructorRepository instructorRepository, GradingPolicyService gradingPolicyService) {
         this.instructorRepository = instructorRepository;
+        this.gradingPolicyService = gradingPolicyService;
     }
 
     /**
@@ -84,11 +86,18 @@ public class InstructorService {
         if (instructorDetails.getEmail() != null) {
             instructor.setEmail(instructorDetails.getEmail());
         }
+        boolean departmentChanged = instructorDetails.getDepartment() != null
+                && !instructorDetails.getDepartment().equals(instructor.getDepartment());
         if (instructorDetails.getDepartment() != null) {
             instructor.setDepartment(instructorDetails.getDepartment());
         }
 
-        return instructorRepository.save(instructor);
+        Instructor saved = instructorRepository.save(instructor);
+        if (departmentChanged) {
+            // Department policies are resolved through the course's instructor.
+            gradingPolicyService.invalidate();
+        }
+        return saved;
     }
 
     /**
@@ -0,0 +1,80 @@
+package com.studenttracker.backend.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and throughput of one chunked maintenance job.
+ */
+public final class JobProgress {
+
+    private static final AtomicLong JOB_IDS = new AtomicLong();
+
+    private final long jobId = JOB_IDS.incrementAndGet();
+    private final String scope;
+    private final Instant queuedAt = Instant.now();
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile int total;
+    private volatile String state = "QUEUED";
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    JobProgress(String scope) {
+        this.scope = scope;
+    }
+
+    String scope() {
+        return scope;
+    }
+
+    boolean isActive() {
+        return "QUEUED".equals(state) || "RUNNING".equals(state);
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        state = "RUNNING";
+    }
+
+    void setTotal(int total) {
+        this.total = total;
+    }
+
+    void addProcessed(int count) {
+        processed.addAndGet(count);
+    }
+
+    void addFailed(int count) {
+        failed.addAndGet(count);
+    }
+
+    void finish(String finalState) {
+        finishedAt = Instant.now();
+        state = finalState;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobId", jobId);
+        map.put("scope", scope);
+        map.put("state", state);
+        map.put("total", total);
+        map.put("processed", processed.get());
+        map.put("failed", failed.get());
+        map.put("queuedAt", queuedAt.toString());
+        map.put("startedAt", startedAt == null ? null : startedAt.toString());
+        map.put("finishedAt", finishedAt == null ? null : finishedAt.toString());
+        if (startedAt != null) {
+            Instant end = finishedAt == null ? Instant.now() : finishedAt;
+            double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+            map.put("elapsedSeconds", seconds);
+            map.put("studentsPerSecond", Math.round(processed.get() / seconds * 10.0) / 10.0);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,137 @@
+package com.studenttracker.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the exported random forest inside the JVM, with the same features, clamping and
+ * risk rules as the /predict route in ai-engine/app.py. Active when ml.engine.mode=local.
+ */
+@Component
+@ConditionalOnProperty(name = "ml.engine.mode", havingValue = "local")
+public class LocalPredictionEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalPredictionEngine.class);
+
+    private final RandomForestModel model;
+    private final Timer timer;
+    private final ThreadLocal<double[]> features;
+
+    public LocalPredictionEngine(@Value("${ml.local.model-path:../ai-engine/model-trees.json}") String modelPath,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) throws IOException {
+        try (InputStream in = Files.newInputStream(Path.of(modelPath))) {
+            this.model = RandomForestModel.load(in, objectMapper);
+        }
+        int featureCount = model.featureCount();
+        this.features = ThreadLocal.withInitial(() -> new double[featureCount]);
+        this.timer = Timer.builder("ml.local.predict").register(meterRegistry);
+        log.info("Loaded local model from {}: {} trees, {} nodes", modelPath, model.treeCount(), model.nodeCount());
+    }
+
+    /**
+     * Predicts one student from the payload that would be sent to POST /predict.
+     *
+     * @param request the feature payload
+     * @return the same fields the engine returns
+     */
+    public Map<String, Object> predict(Map<String, Object> request) {
+        long start = System.nanoTime();
+        double[] x = features.get();
+        fillFeatures(request, x);
+        double predictedScore = model.predict(x);
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return toResult(request, x, predictedScore);
+    }
+
+    /**
+     * Builds the engine's feature vector from a /predict payload, as build_features in app.py does:
+     * attendance, mean marks, mean assignment marks (or mean marks), previous GPA, submission delay.
+     *
+     * @param request the feature payload
+     * @param x       receives the five features
+     */
+    public static void fillFeatures(Map<String, Object> request, double[] x) {
+        List<?> marks = listOrEmpty(request.get("previousMarks"));
+        List<?> assignmentMarks = listOrEmpty(request.get("assignmentMarks"));
+        double averageMarks = mean(marks);
+        x[0] = number(request.get("attendance"));
+        x[1] = averageMarks;
+        x[2] = assignmentMarks.isEmpty() ? averageMarks : mean(assignmentMarks);
+        x[3] = number(request.get("previousGpa"));
+        x[4] = number(request.get("submissionDelay"));
+    }
+
+    /**
+     * Clamps a raw score and applies the risk rules of to_result in app.py.
+     *
+     * @param request        the feature payload
+     * @param x              the features from {@link #fillFeatures}
+     * @param predictedScore the raw model score
+     * @return studentId, average, predictedScore, predictedGpa, risk and suggestion
+     */
+    public static Map<String, Object> toResult(Map<String, Object> request, double[] x, double predictedScore) {
+        double attendance = x[0];
+        double submissionDelay = x[4];
+        double score = Math.max(0.0, Math.min(100.0, predictedScore));
+
+        String risk;
+        String suggestion;
+        if (attendance < 75 || score < 60) {
+            risk = "High";
+            suggestion = "Attendance below safe level or marks are low. Improve attendance and revise weak subjects.";
+        } else if (score < 75 || submissionDelay > 1) {
+            risk = "Medium";
+            suggestion = "Improve preparation and submit assignments on time.";
+        } else {
+            risk = "Low";
+            suggestion = "Performance is stable. Maintain consistent study and submission habits.";
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("studentId", request.get("studentId"));
+        result.put("average", x[1]);
+        result.put("predictedScore", round(score));
+        result.put("predictedGpa", round(score / 10));
+        result.put("risk", risk);
+        result.put("suggestion", suggestion);
+        return result;
+    }
+
+    private static List<?> listOrEmpty(Object value) {
+        return value instanceof List<?> list ? list : List.of();
+    }
+
+    private static double mean(List<?> values) {
+        if (values.isEmpty()) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (Object value : values) {
+            sum += number(value);
+        }
+        return sum / values.size();
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number number ? number.doubleValue() : value == null ? 0.0 : Double.parseDouble(value.toString());
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,237 @@
+package com.studenttracker.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Client for the FastAPI ML engine. One shared keep-alive HTTP client with connect and
+ * read timeouts, a cap on concurrent calls, and a circuit breaker; whenever the engine
+ * cannot answer in time the heuristic prediction is returned instead. With
+ * ml.engine.mode=local the exported model is evaluated in-process and no HTTP call is made.
+ */
+@Component
+public class MlEngineClient {
+
+    private static final Logger log = LoggerFactory.getLogger(MlEngineClient.class);
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_OBJECT = new ParameterizedTypeReference<>() {};
+
+    private final LocalPredictionEngine localEngine;
+    private final RestClient restClient;
+    private final RestClient batchRestClient;
+    private final Semaphore permits;
+    private final CircuitBreaker breaker;
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Counter breakerOpenFallbacks;
+    private final Counter saturatedFallbacks;
+    private final Counter errorFallbacks;
+
+    public MlEngineClient(@Value("${ml.api.url}") String mlApiUrl,
+            @Value("${ml.client.connect-timeout-ms:500}") long connectTimeoutMs,
+            @Value("${ml.client.read-timeout-ms:2000}") long readTimeoutMs,
+            @Value("${ml.client.batch-read-timeout-ms:10000}") long batchReadTimeoutMs,
+            @Value("${ml.client.max-concurrent:32}") int maxConcurrent,
+            @Value("${ml.client.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${ml.client.breaker.open-seconds:30}") long openSeconds,
+            ObjectProvider<LocalPredictionEngine> localEngine,
+            MeterRegistry meterRegistry) {
+        this.localEngine = localEngine.getIfAvailable();
+        // The JDK client keeps HTTP/1.1 connections alive and reuses them across calls.
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.restClient = RestClient.builder()
+                .baseUrl(mlApiUrl)
+                .requestFactory(requestFactory)
+                .build();
+        // Batches share the connection pool but may take longer to score.
+        JdkClientHttpRequestFactory batchRequestFactory = new JdkClientHttpRequestFactory(httpClient);
+        batchRequestFactory.setReadTimeout(Duration.ofMillis(batchReadTimeoutMs));
+        this.batchRestClient = RestClient.builder()
+                .baseUrl(mlApiUrl)
+                .requestFactory(batchRequestFactory)
+                .build();
+        this.permits = new Semaphore(maxConcurrent);
+        this.breaker = new CircuitBreaker(failureThreshold, openSeconds, TimeUnit.SECONDS);
+
+        this.successTimer = Timer.builder("ml.client.call").tag("outcome", "success").register(meterRegistry);
+        this.failureTimer = Timer.builder("ml.client.call").tag("outcome", "failure").register(meterRegistry);
+        this.breakerOpenFallbacks = fallbackCounter(meterRegistry, "breaker_open");
+        this.saturatedFallbacks = fallbackCounter(meterRegistry, "saturated");
+        this.errorFallbacks = fallbackCounter(meterRegistry, "error");
+        Gauge.builder("ml.client.breaker.state", breaker, b -> b.state().ordinal())
+                .description("0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+        Gauge.builder("ml.client.in.flight", permits, p -> maxConcurrent - p.availablePermits()).register(meterRegistry);
+    }
+
+    /**
+     * Asks the engine for a prediction, falling back to the heuristic when the breaker is
+     * open, too many calls are in flight, or the call fails or times out.
+     *
+     * @param request the feature payload for POST /predict
+     * @return studentId, predictedScore (or prediction), risk and suggestion
+     */
+    public Map<String, Object> predict(Map<String, Object> request) {
+        if (localEngine != null) {
+            return localEngine.predict(request);
+        }
+        return call(() -> {
+            Map<String, Object> result = restClient.post()
+                    .uri("/predict")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(request)
+                    .retrieve()
+                    .body(JSON_OBJECT);
+            requireComplete(result);
+            return result;
+        }, () -> fallbackPrediction(request));
+    }
+
+    /**
+     * Predicts many students in one round trip to POST /predict/batch, with the same
+     * breaker and fallback rules as {@link #predict}; on fallback every student gets the heuristic.
+     *
+     * @param requests one feature payload per student
+     * @return one result per request, in the same order
+     */
+    public List<Map<String, Object>> predictBatch(List<Map<String, Object>> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        if (localEngine != null) {
+            return requests.stream().map(localEngine::predict).toList();
+        }
+        return call(() -> {
+            Map<String, Object> response = batchRestClient.post()
+                    .uri("/predict/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("students", requests))
+                    .retrieve()
+                    .body(JSON_OBJECT);
+            Object predictions = response == null ? null : response.get("predictions");
+            if (!(predictions instanceof List<?> list) || list.size() != requests.size()) {
+                throw new IllegalStateException("ML engine returned a batch of the wrong size");
+            }
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> results = (List<Map<String, Object>>) list;
+            results.forEach(MlEngineClient::requireComplete);
+            return results;
+        }, () -> requests.stream().map(this::fallbackPrediction).toList());
+    }
+
+    private <T> T call(Supplier<T> remote, Supplier<T> fallback) {
+        if (!breaker.tryAcquire()) {
+            breakerOpenFallbacks.increment();
+            return fallback.get();
+        }
+        if (!permits.tryAcquire()) {
+            // Not the engine's fault; release the breaker's trial slot without counting a failure.
+            breaker.releaseTrial();
+            saturatedFallbacks.increment();
+            return fallback.get();
+        }
+        long start = System.nanoTime();
+        try {
+            T result = remote.get();
+            successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            breaker.onSuccess();
+            return result;
+        } catch (RuntimeException ex) {
+            failureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            breaker.onFailure();
+            errorFallbacks.increment();
+            log.debug("ML engine call failed, using fallback prediction", ex);
+            return fallback.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static void requireComplete(Map<String, Object> result) {
+        if (result == null || result.get("risk") == null || result.get("suggestion") == null) {
+            throw new IllegalStateException("ML engine returned an incomplete prediction");
+        }
+    }
+
+    /**
+     * Rule-based prediction used whenever the ML engine is unavailable.
+     *
+     * @param request the same payload sent to the engine
+     * @return studentId, predictedScore, risk, suggestion and fallback=true
+     */
+    public Map<String, Object> fallbackPrediction(Map<String, Object> request) {
+        @SuppressWarnings("unchecked")
+        List<Double> previousMarks = (List<Double>) request.get("previousMarks");
+
+        double avg = previousMarks.stream()
+                .mapToDouble(Double::doubleValue)
+                .average()
+                .orElse(0);
+
+        double attendance = Double.parseDouble(request.get("attendance").toString());
+        double gpa = Double.parseDouble(request.get("previousGpa").toString());
+
+        double predicted = Math.min(
+                100,
+                Math.max(
+                        0,
+                        (avg * 0.55) + (attendance * 0.25) + (gpa * 10 * 0.2)
+                )
+        );
+
+        String risk = predicted < 60 || attendance < 75
+                ? "High"
+                : predicted < 75 ? "Medium" : "Low";
+
+        String suggestion = attendance < 75
+                ? "Attendance below safe level. Attend more classes and revise missed topics."
+                : predicted < 70
+                        ? "Improve preparation in low-scoring subjects and submit assignments on time."
+                        : "Maintain consistency and keep assignment submissions current.";
+
+        return Map.of(
+                "studentId", request.get("studentId"),
+                "predictedScore", predicted,
+                "risk", risk,
+                "suggestion", suggestion,
+                "fallback", true
+        );
+    }
+
+    /**
+     * Whether a result came from the heuristic rather than the model.
+     *
+     * @param result a result returned by this client
+     * @return true for fallback predictions
+     */
+    public static boolean isFallback(Map<String, Object> result) {
+        return Boolean.TRUE.equals(result.get("fallback"));
+    }
+
+    private static Counter fallbackCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("ml.client.fallback").tag("reason", reason).register(meterRegistry);
+    }
+}
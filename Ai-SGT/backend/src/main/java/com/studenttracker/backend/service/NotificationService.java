@@ -3,6 +3,7 @@ package com.studenttracker.backend.service;
 import com.studenttracker.backend.entity.Notification;
 import com.studenttracker.backend.repository.NotificationRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -20,6 +21,17 @@ public class NotificationService {
         return repository.save(notification);
     }
 
+    /**
+     * Inserts many notifications; they go out as JDBC batches.
+     *
+     * @param notifications the notifications
+     */
+    @Transactional
+    public void saveAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) return;
+        repository.saveAll(notifications);
+    }
+
     public List<Notification> getAll() {
         return repository.findAll();
     }
@@ -0,0 +1,199 @@
+package com.studenttracker.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PBKDF2-SHA256 password hashing on a dedicated, bounded pool. Hashing is deliberately
+ * slow, so it never runs on request threads: when the pool and its queue are full,
+ * callers get a {@link SaturatedException} right away instead of waiting.
+ *
+ * Stored format: {@code pbkdf2$<iterations>$<salt>$<hash>}, base64 without padding.
+ * Anything else is treated as a legacy plaintext password.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final String PREFIX = "pbkdf2$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    /**
+     * Thrown when the hashing pool cannot take more work.
+     */
+    public static class SaturatedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public SaturatedException() {
+            super("Too many logins in progress, try again shortly");
+        }
+    }
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadPoolExecutor executor;
+    private final Timer hashTimer;
+    private final Counter rejected;
+    // Verified for unknown users so a miss costs as much as a wrong password.
+    private final String decoy;
+
+    public PasswordHasher(@Value("${auth.password.iterations:210000}") int iterations,
+            @Value("${auth.password.hash-threads:4}") int threads,
+            @Value("${auth.password.queue-capacity:64}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        this.iterations = iterations;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "password-hash-" + count.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.hashTimer = Timer.builder("auth.password.hash").register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.hash.rejected").register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue.size", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        this.decoy = encode(iterations, newSalt(), "decoy");
+    }
+
+    /**
+     * Hashes a new password with the configured cost.
+     *
+     * @param rawPassword the password
+     * @return the encoded hash
+     * @throws SaturatedException if the hashing pool is full
+     */
+    public String hash(String rawPassword) {
+        byte[] salt = newSalt();
+        return run(() -> encode(iterations, salt, rawPassword));
+    }
+
+    /**
+     * Checks a password against a stored value, which may still be legacy plaintext.
+     *
+     * @param rawPassword the presented password
+     * @param stored      the stored value, or null to run against a decoy
+     * @return whether they match
+     * @throws SaturatedException if the hashing pool is full
+     */
+    public boolean matches(String rawPassword, String stored) {
+        if (stored == null) {
+            run(() -> verify(rawPassword, decoy));
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        return run(() -> verify(rawPassword, stored));
+    }
+
+    /**
+     * @param stored the stored value
+     * @return true for plaintext, malformed hashes or hashes made with fewer iterations than configured
+     */
+    public boolean needsRehash(String stored) {
+        if (!isHashed(stored)) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        return parts.length != 4 || costOf(parts[1]) < iterations;
+    }
+
+    public boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.recordCallable(task));
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new SaturatedException();
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while hashing password", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Could not hash password", ex.getCause());
+        }
+    }
+
+    private boolean verify(String rawPassword, String stored) {
+        String[] parts = stored.split("\\$");
+        int cost = parts.length == 4 ? costOf(parts[1]) : -1;
+        if (cost <= 0) {
+            return false;
+        }
+        // A corrupted salt or hash segment is a non-match, like a wrong password.
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] expected = decoder.decode(parts[3]);
+            byte[] actual = derive(rawPassword, decoder.decode(parts[2]), cost);
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    // The iteration count segment, or -1 if it is not a number.
+    private static int costOf(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private String encode(int cost, byte[] salt, String rawPassword) {
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + cost + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(derive(rawPassword, salt, cost));
+    }
+
+    private byte[] derive(String rawPassword, byte[] salt, int cost) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, cost, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("PBKDF2 is unavailable", ex);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private byte[] newSalt() {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return salt;
+    }
+}
@@ -0,0 +1,162 @@
+package com.studenttracker.backend.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Last engine prediction per student, reused while the assembled feature vector is unchanged.
+ * Entries are matched on a 64-bit fingerprint of the features and then compared exactly, kept
+ * in least-recently-used order up to a fixed size, and dropped after a TTL so a retrained
+ * model is picked up.
+ */
+@Component
+public class PredictionCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Long, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PredictionCache(@Value("${ml.prediction-cache.max-size:10000}") int maxSize,
+            @Value("${ml.prediction-cache.ttl-seconds:3600}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > PredictionCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        FunctionCounter.builder("ml.prediction.cache.hits", hits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("ml.prediction.cache.misses", misses, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("ml.prediction.cache.evictions", evictions, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("ml.prediction.cache.hit.ratio", this, PredictionCache::getHitRatio).register(meterRegistry);
+        Gauge.builder("ml.prediction.cache.size", this, PredictionCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Looks up the prediction made for exactly this feature payload.
+     *
+     * @param studentId the student ID
+     * @param request   the payload that would be sent to the engine
+     * @return the cached result, empty if the features changed, the entry expired or there is none
+     */
+    public Optional<Map<String, Object>> get(Long studentId, Map<String, Object> request) {
+        double[] features = features(request);
+        long fingerprint = fingerprint(features);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(studentId);
+            if (entry != null && System.nanoTime() - entry.storedAt() > ttlNanos) {
+                entries.remove(studentId);
+                entry = null;
+            }
+        }
+        if (entry == null || entry.fingerprint() != fingerprint || !Arrays.equals(entry.features(), features)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.result());
+    }
+
+    /**
+     * Stores an engine prediction for the payload it was made from, replacing the student's previous entry.
+     *
+     * @param studentId the student ID
+     * @param request   the payload sent to the engine
+     * @param result    the engine's result
+     */
+    public void put(Long studentId, Map<String, Object> request, Map<String, Object> result) {
+        double[] features = features(request);
+        Entry entry = new Entry(fingerprint(features), features,
+                Collections.unmodifiableMap(new LinkedHashMap<>(result)), System.nanoTime());
+        synchronized (entries) {
+            entries.put(studentId, entry);
+        }
+    }
+
+    /**
+     * Drops a student's entry.
+     *
+     * @param studentId the student ID
+     */
+    public void invalidate(Long studentId) {
+        synchronized (entries) {
+            entries.remove(studentId);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    // Scalars first, then each list prefixed with its length so [1, 2] + [] and [1] + [2] differ.
+    private static double[] features(Map<String, Object> request) {
+        List<?> marks = listOrEmpty(request.get("previousMarks"));
+        List<?> assignmentMarks = listOrEmpty(request.get("assignmentMarks"));
+        double[] features = new double[6 + marks.size() + assignmentMarks.size()];
+        int i = 0;
+        features[i++] = number(request.get("attendance"));
+        features[i++] = number(request.get("previousGpa"));
+        features[i++] = number(request.get("submissionDelay"));
+        features[i++] = marks.size();
+        for (Object mark : marks) {
+            features[i++] = number(mark);
+        }
+        features[i++] = assignmentMarks.size();
+        for (Object mark : assignmentMarks) {
+            features[i++] = number(mark);
+        }
+        features[i] = number(request.get("studentId"));
+        return features;
+    }
+
+    private static long fingerprint(double[] features) {
+        long hash = 0xcbf29ce484222325L;
+        for (double feature : features) {
+            hash ^= Double.doubleToLongBits(feature);
+            hash *= 0x100000001b3L;
+            hash ^= hash >>> 29;
+        }
+        return hash;
+    }
+
+    private static List<?> listOrEmpty(Object value) {
+        return value instanceof List<?> list ? list : List.of();
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number number ? number.doubleValue() : value == null ? 0.0 : Double.parseDouble(value.toString());
+    }
+
+    private record Entry(long fingerprint, double[] features, Map<String, Object> result, long storedAt) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.AiPrediction;
+import com.studenttracker.backend.entity.PredictionPoint;
+import com.studenttracker.backend.repository.PredictionPointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only prediction history. Every saved prediction adds a small point; a nightly job
+ * merges raw points older than ml.history.raw-days into one point per student and day, and
+ * deletes points older than ml.history.retention-days.
+ */
+@Service
+public class PredictionHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(PredictionHistoryService.class);
+
+    private final PredictionPointRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final int rawDays;
+    private final int retentionDays;
+    private final int chunkSize;
+
+    public PredictionHistoryService(PredictionPointRepository repository, PlatformTransactionManager transactionManager,
+            @Value("${ml.history.raw-days:30}") int rawDays,
+            @Value("${ml.history.retention-days:730}") int retentionDays,
+            @Value("${ml.history.chunk-size:500}") int chunkSize) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rawDays = rawDays;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Appends one point per prediction; joins the caller's transaction.
+     *
+     * @param predictions the saved predictions
+     * @param recordedAt  the time to record them at
+     */
+    public void append(List<AiPrediction> predictions, LocalDateTime recordedAt) {
+        List<PredictionPoint> points = new ArrayList<>(predictions.size());
+        for (AiPrediction prediction : predictions) {
+            points.add(new PredictionPoint(prediction.getStudentId(), recordedAt, prediction.getPredictedScore(),
+                    prediction.getRiskLevel()));
+        }
+        repository.saveAll(points);
+    }
+
+    /**
+     * A student's points in time order.
+     *
+     * @param studentId the student ID
+     * @param from      inclusive start, or null for the start of retention
+     * @param to        exclusive end, or null for now
+     * @return the points
+     */
+    public List<PredictionPoint> series(Long studentId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from != null ? from : LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        LocalDateTime end = to != null ? to : LocalDateTime.now().plusSeconds(1);
+        return repository.findSeries(studentId, start, end);
+    }
+
+    @Scheduled(cron = "${ml.history.maintenance-cron:0 30 3 * * *}")
+    public void maintain() {
+        // Whole days only, so a day is never split between raw and downsampled points.
+        LocalDateTime rawCutoff = LocalDate.now().minusDays(rawDays).atStartOfDay();
+        int merged = downsample(rawCutoff);
+        int deleted = deleteOlderThan(LocalDate.now().minusDays(retentionDays).atStartOfDay());
+        log.info("Prediction history: merged {} raw points into daily points, deleted {} expired points", merged, deleted);
+    }
+
+    /**
+     * Replaces raw points before the cutoff with one point per student and day, a chunk of
+     * students per transaction.
+     *
+     * @param before the cutoff
+     * @return the number of raw points merged
+     */
+    int downsample(LocalDateTime before) {
+        int merged = 0;
+        long afterStudentId = Long.MIN_VALUE;
+        while (true) {
+            List<Long> studentIds = repository.findStudentsWithRawPointsBefore(before, afterStudentId,
+                    PageRequest.of(0, chunkSize));
+            if (studentIds.isEmpty()) {
+                return merged;
+            }
+            Integer count = transactionTemplate.execute(status -> downsampleChunk(studentIds, before));
+            merged += count == null ? 0 : count;
+            afterStudentId = studentIds.get(studentIds.size() - 1);
+        }
+    }
+
+    /**
+     * Deletes points recorded before the cutoff, a chunk per transaction so the purge never
+     * holds locks on the whole expired range at once.
+     *
+     * @param before the cutoff
+     * @return the number of points deleted
+     */
+    int deleteOlderThan(LocalDateTime before) {
+        int deleted = 0;
+        long afterPointId = Long.MIN_VALUE;
+        while (true) {
+            List<Long> pointIds = repository.findIdsOlderThan(before, afterPointId, PageRequest.of(0, chunkSize));
+            if (pointIds.isEmpty()) {
+                return deleted;
+            }
+            transactionTemplate.executeWithoutResult(status -> repository.deleteAllByIdInBatch(pointIds));
+            deleted += pointIds.size();
+            afterPointId = pointIds.get(pointIds.size() - 1);
+        }
+    }
+
+    private int downsampleChunk(List<Long> studentIds, LocalDateTime before) {
+        List<PredictionPoint> raw = repository.findRawPointsBefore(studentIds, before);
+        Map<String, DayBucket> buckets = new LinkedHashMap<>();
+        for (PredictionPoint point : raw) {
+            LocalDate day = point.getRecordedAt().toLocalDate();
+            buckets.computeIfAbsent(point.getStudentId() + "@" + day, key -> new DayBucket(point.getStudentId(), day))
+                    .add(point);
+        }
+        repository.deleteAllInBatch(raw);
+        repository.saveAll(buckets.values().stream().map(DayBucket::toPoint).toList());
+        return raw.size();
+    }
+
+    private static final class DayBucket {
+        private final Long studentId;
+        private final LocalDate day;
+        private int samples;
+        private int scoredSamples;
+        private double weightedScore;
+        private String riskLevel;
+
+        DayBucket(Long studentId, LocalDate day) {
+            this.studentId = studentId;
+            this.day = day;
+        }
+
+        void add(PredictionPoint point) {
+            int weight = point.getSamples() == null ? 1 : point.getSamples();
+            samples += weight;
+            if (point.getPredictedScore() != null) {
+                weightedScore += point.getPredictedScore() * weight;
+                scoredSamples += weight;
+            }
+            // Points arrive in time order, so the day keeps its last risk level.
+            riskLevel = point.getRiskLevel();
+        }
+
+        PredictionPoint toPoint() {
+            Double score = scoredSamples == 0 ? null : Math.round(weightedScore / scoredSamples * 100.0) / 100.0;
+            PredictionPoint point = new PredictionPoint(studentId, day.atStartOfDay(), score, riskLevel);
+            point.setSamples(samples);
+            point.setDownsampled(true);
+            return point;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.studenttracker.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A random forest regressor exported by ai-engine/export_trees.py, held as flat arrays.
+ * Node n of the forest splits on feature[n] at threshold[n] and continues at left[n] or
+ * right[n] (absolute node indexes); leaves have feature -1 and carry value[n]. Prediction
+ * walks each tree from roots[t] and averages the leaves, with no allocation.
+ */
+public final class RandomForestModel {
+
+    private static final String FORMAT = "random-forest-regressor/v1";
+    private static final double PARITY_TOLERANCE = 1e-6;
+
+    private final int featureCount;
+    private final int[] roots;
+    private final int[] feature;
+    private final double[] threshold;
+    private final int[] left;
+    private final int[] right;
+    private final double[] value;
+
+    private RandomForestModel(int featureCount, int[] roots, int[] feature, double[] threshold, int[] left, int[] right,
+            double[] value) {
+        this.featureCount = featureCount;
+        this.roots = roots;
+        this.feature = feature;
+        this.threshold = threshold;
+        this.left = left;
+        this.right = right;
+        this.value = value;
+    }
+
+    /**
+     * Reads an exported forest and checks it against the reference predictions stored with it.
+     *
+     * @param in           the JSON export
+     * @param objectMapper the mapper used to read it
+     * @return the model
+     * @throws IOException           if the file cannot be read
+     * @throws IllegalStateException if the file is malformed or fails the parity check
+     */
+    public static RandomForestModel load(InputStream in, ObjectMapper objectMapper) throws IOException {
+        JsonNode root = objectMapper.readTree(in);
+        if (!FORMAT.equals(root.path("format").asText())) {
+            throw new IllegalStateException("Unsupported model format: " + root.path("format").asText());
+        }
+        int featureCount = root.path("features").size();
+        JsonNode trees = root.path("trees");
+        if (featureCount == 0 || trees.isEmpty()) {
+            throw new IllegalStateException("Model has no features or no trees");
+        }
+
+        int total = 0;
+        for (JsonNode tree : trees) {
+            total += tree.path("feature").size();
+        }
+        int[] roots = new int[trees.size()];
+        int[] feature = new int[total];
+        double[] threshold = new double[total];
+        int[] left = new int[total];
+        int[] right = new int[total];
+        double[] value = new double[total];
+
+        int offset = 0;
+        for (int t = 0; t < trees.size(); t++) {
+            JsonNode tree = trees.get(t);
+            int size = tree.path("feature").size();
+            roots[t] = offset;
+            for (int i = 0; i < size; i++) {
+                int n = offset + i;
+                int leftChild = tree.path("left").get(i).asInt();
+                if (leftChild < 0) {
+                    feature[n] = -1;
+                } else {
+                    feature[n] = tree.path("feature").get(i).asInt();
+                    if (feature[n] >= featureCount) {
+                        throw new IllegalStateException("Tree " + t + " splits on unknown feature " + feature[n]);
+                    }
+                    left[n] = offset + leftChild;
+                    right[n] = offset + tree.path("right").get(i).asInt();
+                }
+                threshold[n] = tree.path("threshold").get(i).asDouble();
+                value[n] = tree.path("value").get(i).asDouble();
+            }
+            offset += size;
+        }
+
+        RandomForestModel model = new RandomForestModel(featureCount, roots, feature, threshold, left, right, value);
+        model.checkParity(root.path("parity"));
+        return model;
+    }
+
+    /**
+     * Predicts one row.
+     *
+     * @param x the features, in export order; only the first featureCount entries are read
+     * @return the mean of the trees' leaf values
+     */
+    public double predict(double[] x) {
+        double sum = 0.0;
+        for (int root : roots) {
+            int n = root;
+            while (feature[n] >= 0) {
+                // scikit-learn compares float32 inputs against float64 thresholds.
+                n = (float) x[feature[n]] <= threshold[n] ? left[n] : right[n];
+            }
+            sum += value[n];
+        }
+        return sum / roots.length;
+    }
+
+    public int featureCount() {
+        return featureCount;
+    }
+
+    public int treeCount() {
+        return roots.length;
+    }
+
+    public int nodeCount() {
+        return feature.length;
+    }
+
+    private void checkParity(JsonNode samples) {
+        // Without samples nothing shows the arrays were read the way scikit-learn walks them.
+        if (!samples.isArray() || samples.isEmpty()) {
+            throw new IllegalStateException("Model has no parity samples");
+        }
+        double[] x = new double[featureCount];
+        int index = 0;
+        for (JsonNode sample : samples) {
+            JsonNode features = sample.path("features");
+            for (int f = 0; f < featureCount; f++) {
+                x[f] = features.get(f).asDouble();
+            }
+            double expected = sample.path("prediction").asDouble();
+            double actual = predict(x);
+            if (Math.abs(actual - expected) > PARITY_TOLERANCE) {
+                throw new IllegalStateException("Parity check failed on sample " + index + ": expected " + expected
+                        + " but got " + actual);
+            }
+            index++;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.studenttracker.backend.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Order-statistic treap of students ranked by their best grade marks. Every grade is tracked,
+ * but the tree holds one node per student, ordered by marks, then student ID, and carries
+ * subtree sizes, so insert, delete, rank and k-th selection are all O(log n) in the number of
+ * students. Instances are not thread-safe; GradeRankingService synchronizes on them.
+ */
+final class RankingTree {
+
+    static final class Node {
+        final long studentId;
+        final long gradeId;
+        final double marks;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long studentId, long gradeId, double marks) {
+            this.studentId = studentId;
+            this.gradeId = gradeId;
+            this.marks = marks;
+            this.priority = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    private Node root;
+    private final Map<Long, Long> studentByGradeId = new HashMap<>();
+    private final Map<Long, Map<Long, Double>> marksByStudent = new HashMap<>();
+    private final Map<Long, Node> bestByStudent = new HashMap<>();
+
+    /** Number of ranked students. */
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Inserts or replaces the entry for a grade and re-ranks its student.
+     */
+    void upsert(long gradeId, long studentId, double marks) {
+        remove(gradeId);
+        studentByGradeId.put(gradeId, studentId);
+        marksByStudent.computeIfAbsent(studentId, key -> new HashMap<>()).put(gradeId, marks);
+        rerank(studentId);
+    }
+
+    void remove(long gradeId) {
+        Long studentId = studentByGradeId.remove(gradeId);
+        if (studentId == null) {
+            return;
+        }
+        Map<Long, Double> grades = marksByStudent.get(studentId);
+        grades.remove(gradeId);
+        if (grades.isEmpty()) {
+            marksByStudent.remove(studentId);
+        }
+        rerank(studentId);
+    }
+
+    /** The student's ranked entry (their highest-marked grade), or null if the student has none. */
+    Node bestFor(long studentId) {
+        return bestByStudent.get(studentId);
+    }
+
+    /** Number of students whose best marks are strictly below the given value. */
+    int countBelow(double marks) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.marks < marks) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /** Number of students whose best marks are strictly above the given value. */
+    int countAbove(double marks) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.marks > marks) {
+                count += size(node.right) + 1;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /** The entry at the given zero-based position in ascending order. */
+    Node select(int index) {
+        Node node = root;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    // Replaces the student's node if their best grade changed; a student has few grades per bucket.
+    private void rerank(long studentId) {
+        Map.Entry<Long, Double> best = null;
+        for (Map.Entry<Long, Double> grade : marksByStudent.getOrDefault(studentId, Map.of()).entrySet()) {
+            if (best == null || grade.getValue() > best.getValue()
+                    || (grade.getValue().equals(best.getValue()) && grade.getKey() < best.getKey())) {
+                best = grade;
+            }
+        }
+        Node current = bestByStudent.get(studentId);
+        if (current != null && best != null && current.gradeId == best.getKey() && current.marks == best.getValue()) {
+            return;
+        }
+        if (current != null) {
+            root = delete(root, current.marks, studentId);
+            bestByStudent.remove(studentId);
+        }
+        if (best != null) {
+            Node node = new Node(studentId, best.getKey(), best.getValue());
+            Node[] parts = split(root, node.marks, studentId);
+            root = merge(merge(parts[0], node), parts[1]);
+            bestByStudent.put(studentId, node);
+        }
+    }
+
+    private static boolean before(double marks, long studentId, Node node) {
+        return marks < node.marks || (marks == node.marks && studentId < node.studentId);
+    }
+
+    /** Splits into entries ordered before (marks, studentId) and the rest. */
+    private static Node[] split(Node node, double marks, long studentId) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (before(marks, studentId, node)) {
+            Node[] parts = split(node.left, marks, studentId);
+            node.left = parts[1];
+            update(node);
+            return new Node[] { parts[0], node };
+        }
+        Node[] parts = split(node.right, marks, studentId);
+        node.right = parts[0];
+        update(node);
+        return new Node[] { node, parts[1] };
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node delete(Node node, double marks, long studentId) {
+        if (node == null) {
+            return null;
+        }
+        if (node.studentId == studentId) {
+            return merge(node.left, node.right);
+        }
+        if (before(marks, studentId, node)) {
+            node.left = delete(node.left, marks, studentId);
+        } else {
+            node.right = delete(node.right, marks, studentId);
+        }
+        update(node);
+        return node;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
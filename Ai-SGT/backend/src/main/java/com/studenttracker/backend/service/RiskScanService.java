@@ -0,0 +1,301 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.AiPrediction;
+import com.studenttracker.backend.entity.JobCheckpoint;
+import com.studenttracker.backend.entity.Notification;
+import com.studenttracker.backend.entity.StudentFeatures;
+import com.studenttracker.backend.repository.JobCheckpointRepository;
+import com.studenttracker.backend.repository.StudentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scores every student on a schedule; AiService notifies students whose risk became High.
+ * Students are walked in ID order in chunks; each chunk reads the stored features, is
+ * scored in engine batches on a bounded pool, and saves its predictions, notifications and
+ * checkpoint in one transaction, so a scan that stops part way resumes after the last
+ * committed chunk without losing or repeating notifications. Every node runs the schedule,
+ * but only the node that claims the checkpoint row scans; see {@link JobCheckpoint}. Heuristic fallback results
+ * (engine down or breaker open) are neither stored nor notified; those students keep their
+ * previous prediction and are counted as failed.
+ */
+@Service
+public class RiskScanService {
+
+    private static final Logger log = LoggerFactory.getLogger(RiskScanService.class);
+    static final String JOB_NAME = "risk-scan";
+
+    private final StudentRepository studentRepository;
+    private final StudentFeatureService studentFeatureService;
+    private final MlEngineClient mlEngineClient;
+    private final AiService aiService;
+    private final JobCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "risk-scan"));
+    private final ExecutorService workers;
+    private final int chunkSize;
+    private final int engineBatchSize;
+    private final Duration lease;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Timer scanTimer;
+    private final Counter scannedStudents;
+    private final Counter flaggedStudents;
+    private final Counter skippedStudents;
+    private volatile JobProgress current;
+
+    public RiskScanService(StudentRepository studentRepository, StudentFeatureService studentFeatureService,
+            MlEngineClient mlEngineClient, AiService aiService, JobCheckpointRepository checkpointRepository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${ml.risk-scan.parallelism:4}") int parallelism,
+            @Value("${ml.risk-scan.chunk-size:500}") int chunkSize,
+            @Value("${ml.risk-scan.engine-batch-size:100}") int engineBatchSize,
+            @Value("${ml.risk-scan.lease-seconds:900}") long leaseSeconds) {
+        this.studentRepository = studentRepository;
+        this.studentFeatureService = studentFeatureService;
+        this.mlEngineClient = mlEngineClient;
+        this.aiService = aiService;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.engineBatchSize = engineBatchSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        // A fixed platform pool rather than virtual threads, which Java 17 does not have; the
+        // engine calls are few and bounded by parallelism, so the pool size is the real limit.
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism,
+                runnable -> new Thread(runnable, "risk-scan-" + threads.incrementAndGet()));
+        this.scanTimer = Timer.builder("ml.risk.scan").register(meterRegistry);
+        this.scannedStudents = Counter.builder("ml.risk.scan.students").register(meterRegistry);
+        this.flaggedStudents = Counter.builder("ml.risk.scan.flagged").register(meterRegistry);
+        this.skippedStudents = Counter.builder("ml.risk.scan.skipped").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${ml.risk-scan.cron:0 0 2 * * *}")
+    public void scheduledScan() {
+        submit();
+    }
+
+    /**
+     * Queues a scan unless one is already queued or running.
+     *
+     * @return the progress of the new or the already active scan
+     */
+    public synchronized JobProgress submit() {
+        JobProgress active = current;
+        if (active != null && active.isActive()) {
+            return active;
+        }
+        JobProgress progress = new JobProgress("all students");
+        current = progress;
+        coordinator.execute(() -> run(progress));
+        return progress;
+    }
+
+    /**
+     * @return the running scan, or the last finished one; null if none has run
+     */
+    public JobProgress getCurrent() {
+        return current;
+    }
+
+    private void run(JobProgress progress) {
+        progress.start();
+        long start = System.nanoTime();
+        try {
+            JobCheckpoint checkpoint = claim();
+            if (checkpoint == null) {
+                log.info("Risk scan skipped: another node holds the checkpoint lease");
+                progress.finish("SKIPPED");
+                return;
+            }
+            long afterStudentId = checkpoint.getLastStudentId();
+            if (afterStudentId > 0) {
+                log.info("Resuming risk scan after student {}", afterStudentId);
+            }
+            progress.setTotal((int) studentRepository.countByStudentIdGreaterThan(afterStudentId));
+
+            while (true) {
+                List<Long> studentIds = studentRepository.findIdsAfter(afterStudentId, PageRequest.of(0, chunkSize));
+                if (studentIds.isEmpty()) {
+                    break;
+                }
+                checkpoint = scanChunk(studentIds, progress);
+                afterStudentId = checkpoint.getLastStudentId();
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                JobCheckpoint owned = lockOwned();
+                owned.setState("COMPLETED");
+                owned.setOwner(null);
+                owned.setLeaseUntil(null);
+            });
+            progress.finish("COMPLETED");
+        } catch (RuntimeException ex) {
+            // The checkpoint stays RUNNING, so the next run picks up after the last saved chunk,
+            // here at once or on another node after the lease lapses.
+            log.error("Risk scan failed", ex);
+            progress.finish("FAILED");
+        } finally {
+            scanTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        log.info("Risk scan: {}", progress.toMap());
+    }
+
+    /**
+     * Takes the checkpoint row for this node under a row lock: a new scan if the last one
+     * finished, a resumed one if it stopped while RUNNING and its lease has lapsed or was ours.
+     *
+     * @return the claimed checkpoint, null if another node holds an unexpired lease
+     */
+    private JobCheckpoint claim() {
+        try {
+            return transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                JobCheckpoint checkpoint = checkpointRepository.findByIdForUpdate(JOB_NAME)
+                        .orElseGet(() -> new JobCheckpoint(JOB_NAME));
+                boolean running = "RUNNING".equals(checkpoint.getState());
+                if (running && !nodeId.equals(checkpoint.getOwner()) && checkpoint.getLeaseUntil() != null
+                        && checkpoint.getLeaseUntil().isAfter(now)) {
+                    return null;
+                }
+                if (!running) {
+                    checkpoint.setLastStudentId(0L);
+                    checkpoint.setProcessed(0);
+                    checkpoint.setStartedAt(now);
+                    checkpoint.setState("RUNNING");
+                }
+                checkpoint.setOwner(nodeId);
+                checkpoint.setLeaseUntil(now.plus(lease));
+                return checkpointRepository.save(checkpoint);
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // Another node inserted the first checkpoint row at the same moment and owns it.
+            return null;
+        }
+    }
+
+    /**
+     * Locks the checkpoint row inside the caller's transaction and checks this node still owns it.
+     *
+     * @throws IllegalStateException if another node took the scan over after our lease lapsed
+     */
+    private JobCheckpoint lockOwned() {
+        JobCheckpoint checkpoint = checkpointRepository.findByIdForUpdate(JOB_NAME)
+                .orElseThrow(() -> new IllegalStateException("Risk scan checkpoint is missing"));
+        if (!nodeId.equals(checkpoint.getOwner())) {
+            throw new IllegalStateException("Risk scan lease was taken over by node " + checkpoint.getOwner());
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Scores one chunk and commits its predictions, notifications and the advanced checkpoint together.
+     *
+     * @return the saved checkpoint
+     */
+    private JobCheckpoint scanChunk(List<Long> studentIds, JobProgress progress) {
+        Map<Long, StudentFeatures> features = studentFeatureService.getAll(studentIds);
+        List<Long> scored = new ArrayList<>();
+        List<Map<String, Object>> requests = new ArrayList<>();
+        for (Long studentId : studentIds) {
+            StudentFeatures row = features.get(studentId);
+            if (row != null && row.getMarksCount() > 0) {
+                scored.add(studentId);
+                requests.add(StudentFeatureService.predictionRequest(row));
+            }
+        }
+        List<Map<String, Object>> results = requests.isEmpty() ? List.of() : score(requests);
+
+        List<AiPrediction> predictions = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            Map<String, Object> result = results.get(i);
+            if (MlEngineClient.isFallback(result)) {
+                continue;
+            }
+            AiPrediction p = new AiPrediction();
+            p.setStudentId(scored.get(i));
+            p.setPredictedScore(Double.parseDouble(
+                    result.getOrDefault("predictedScore", result.get("prediction")).toString()));
+            p.setRiskLevel(result.get("risk").toString());
+            p.setSuggestion(result.get("suggestion").toString());
+            predictions.add(p);
+        }
+        int skipped = results.size() - predictions.size();
+
+        Long lastStudentId = studentIds.get(studentIds.size() - 1);
+        List<Notification> notifications = new ArrayList<>();
+        JobCheckpoint saved;
+        try {
+            saved = saveChunk(predictions, lastStudentId, studentIds.size(), notifications);
+        } catch (DataIntegrityViolationException ex) {
+            // A request inserted a first prediction for one of these students; it is updated this time.
+            saved = saveChunk(predictions, lastStudentId, studentIds.size(), notifications);
+        }
+        progress.addProcessed(studentIds.size() - skipped);
+        progress.addFailed(skipped);
+        scannedStudents.increment(predictions.size());
+        flaggedStudents.increment(notifications.size());
+        skippedStudents.increment(skipped);
+        if (skipped > 0) {
+            log.warn("Risk scan kept the previous prediction for {} students: the ML engine returned fallbacks", skipped);
+        }
+        return saved;
+    }
+
+    private JobCheckpoint saveChunk(List<AiPrediction> predictions, Long lastStudentId, int chunkStudents,
+            List<Notification> notifications) {
+        return transactionTemplate.execute(status -> {
+            // Locked first: a node that lost its lease must not write predictions or notify.
+            JobCheckpoint checkpoint = lockOwned();
+            notifications.clear();
+            if (!predictions.isEmpty()) {
+                notifications.addAll(aiService.upsert(predictions));
+            }
+            checkpoint.setLastStudentId(lastStudentId);
+            checkpoint.setProcessed(checkpoint.getProcessed() + chunkStudents);
+            checkpoint.setLeaseUntil(LocalDateTime.now().plus(lease));
+            return checkpointRepository.save(checkpoint);
+        });
+    }
+
+    private List<Map<String, Object>> score(List<Map<String, Object>> requests) {
+        // Engine batches run side by side; the pool size bounds the calls in flight.
+        List<CompletableFuture<List<Map<String, Object>>>> batches = new ArrayList<>();
+        for (int from = 0; from < requests.size(); from += engineBatchSize) {
+            List<Map<String, Object>> batch = requests.subList(from, Math.min(from + engineBatchSize, requests.size()));
+            batches.add(CompletableFuture.supplyAsync(() -> mlEngineClient.predictBatch(batch), workers));
+        }
+        List<Map<String, Object>> results = new ArrayList<>(requests.size());
+        batches.forEach(batch -> results.addAll(batch.join()));
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,431 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.Student;
+import com.studenttracker.backend.entity.StudentFeatures;
+import com.studenttracker.backend.repository.AttendanceRepository;
+import com.studenttracker.backend.repository.GradeRepository;
+import com.studenttracker.backend.repository.StudentStatusCount;
+import com.studenttracker.backend.repository.StudentFeaturesRepository;
+import com.studenttracker.backend.repository.StudentRepository;
+import com.studenttracker.backend.repository.StudentTotal;
+import com.studenttracker.backend.repository.SubmissionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Per-student prediction inputs, maintained incrementally. The grade, attendance and
+ * submission services report each change here in the same transaction as the write; a
+ * student without a row yet is left alone and gets one built on first read. The rebuild
+ * job recreates every row from the source tables. Rows are only built, and hooks only
+ * look for them, while holding the student row lock, so a build either sees a write or
+ * finishes before the write's hook runs. The rebuild job runs the grouped queries for
+ * marks, attendance, submissions and GPA side by side on a small pool; reads build on
+ * the caller's connection, which a web request already holds.
+ */
+@Service
+public class StudentFeatureService {
+
+    private static final Logger log = LoggerFactory.getLogger(StudentFeatureService.class);
+
+    private final StudentFeaturesRepository repository;
+    private final GradeRepository gradeRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final SubmissionRepository submissionRepository;
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "feature-rebuild"));
+    private final ExecutorService loader;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private volatile JobProgress current;
+
+    public StudentFeatureService(StudentFeaturesRepository repository, GradeRepository gradeRepository,
+            AttendanceRepository attendanceRepository, SubmissionRepository submissionRepository,
+            StudentRepository studentRepository, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${ml.features.rebuild-chunk-size:500}") int chunkSize,
+            @Value("${ml.features.load-threads:4}") int loadThreads) {
+        this.repository = repository;
+        this.gradeRepository = gradeRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.submissionRepository = submissionRepository;
+        this.studentRepository = studentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.meterRegistry = meterRegistry;
+        // Loader threads each hold a pooled connection while their caller holds one more.
+        AtomicInteger threads = new AtomicInteger();
+        this.loader = Executors.newFixedThreadPool(loadThreads,
+                runnable -> new Thread(runnable, "feature-load-" + threads.incrementAndGet()));
+    }
+
+    /**
+     * Returns a student's features, building the row from the source tables if it does not exist yet.
+     *
+     * @param studentId the student ID
+     * @return the features; all zero, and not stored, for an unknown student
+     */
+    public StudentFeatures get(Long studentId) {
+        StudentFeatures existing = repository.findById(studentId).orElse(null);
+        if (existing != null) {
+            return existing;
+        }
+        StudentFeatures built = transactionTemplate.execute(status -> {
+            if (studentRepository.findByIdForUpdate(studentId).isEmpty()) {
+                return null;
+            }
+            // Built by another request while this one waited for the lock.
+            StudentFeatures row = repository.findById(studentId).orElse(null);
+            return row != null ? row : repository.save(compute(List.of(studentId), Map.of(), false).get(0));
+        });
+        return built != null ? built : new StudentFeatures(studentId);
+    }
+
+    /**
+     * Returns many students' features; missing rows are built with one set of grouped queries.
+     *
+     * @param studentIds existing student IDs
+     * @return features by student ID
+     */
+    public Map<Long, StudentFeatures> getAll(List<Long> studentIds) {
+        Map<Long, StudentFeatures> features = new HashMap<>();
+        repository.findAllById(studentIds).forEach(row -> features.put(row.getStudentId(), row));
+        List<Long> missing = studentIds.stream().filter(id -> !features.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> locked = studentRepository.findAllByIdForUpdate(missing).stream()
+                        .map(Student::getStudentId)
+                        .toList();
+                repository.findAllById(locked).forEach(row -> features.put(row.getStudentId(), row));
+                List<Long> stillMissing = locked.stream().filter(id -> !features.containsKey(id)).toList();
+                if (!stillMissing.isEmpty()) {
+                    repository.saveAll(compute(stillMissing, Map.of(), false))
+                            .forEach(row -> features.put(row.getStudentId(), row));
+                }
+            });
+        }
+        return features;
+    }
+
+    /**
+     * The payload for the ML engine's /predict route. The engine only uses the mean of the
+     * marks lists, so the stored average stands in for them.
+     *
+     * @param features the student's features
+     * @return the request
+     */
+    public static Map<String, Object> predictionRequest(StudentFeatures features) {
+        List<Double> scores = List.of(features.averageMarks());
+        Map<String, Object> request = new HashMap<>();
+        request.put("studentId", features.getStudentId());
+        request.put("previousMarks", scores);
+        request.put("attendance", features.averageAttendance());
+        request.put("assignmentMarks", scores);
+        request.put("previousGpa", features.getGpa());
+        request.put("submissionDelay", features.getLateCount());
+        return request;
+    }
+
+    /**
+     * Moves grade marks in a student's running sums.
+     *
+     * @param studentId the student ID
+     * @param removed   marks of removed or replaced grades
+     * @param added     marks of added or updated grades
+     * @param gpa       the student's GPA after the change, or null to recompute it
+     */
+    @Transactional
+    public void onMarksChanged(Long studentId, List<Double> removed, List<Double> added, Double gpa) {
+        StudentFeatures features = lockedOrNull(studentId);
+        if (features == null) {
+            return;
+        }
+        for (Double marks : removed) {
+            if (marks != null) {
+                features.setMarksTotal(features.getMarksTotal() - marks);
+                features.setMarksCount(features.getMarksCount() - 1);
+            }
+        }
+        for (Double marks : added) {
+            if (marks != null) {
+                features.setMarksTotal(features.getMarksTotal() + marks);
+                features.setMarksCount(features.getMarksCount() + 1);
+            }
+        }
+        if (features.getMarksCount() <= 0) {
+            features.setMarksTotal(0.0);
+            features.setMarksCount(0L);
+        }
+        features.setGpa(gpa != null ? gpa : gpaByStudent(List.of(studentId)).getOrDefault(studentId, 0.0));
+        repository.save(features);
+    }
+
+    /**
+     * Moves one attendance percentage in a student's running sums.
+     *
+     * @param studentId the student ID
+     * @param removed   the percentage of the removed or replaced row, may be null
+     * @param added     the percentage of the added or updated row, may be null
+     */
+    @Transactional
+    public void onAttendanceChanged(Long studentId, Double removed, Double added) {
+        StudentFeatures features = lockedOrNull(studentId);
+        if (features == null) {
+            return;
+        }
+        if (removed != null) {
+            features.setAttendanceTotal(features.getAttendanceTotal() - removed);
+            features.setAttendanceCount(features.getAttendanceCount() - 1);
+        }
+        if (added != null) {
+            features.setAttendanceTotal(features.getAttendanceTotal() + added);
+            features.setAttendanceCount(features.getAttendanceCount() + 1);
+        }
+        if (features.getAttendanceCount() <= 0) {
+            features.setAttendanceTotal(0.0);
+            features.setAttendanceCount(0L);
+        }
+        repository.save(features);
+    }
+
+    /**
+     * Moves one submission between the late and missing counts.
+     *
+     * @param studentId     the student ID
+     * @param removedStatus the status before the change, null for a new submission
+     * @param addedStatus   the status after the change, null for a deleted submission
+     */
+    @Transactional
+    public void onSubmissionChanged(Long studentId, String removedStatus, String addedStatus) {
+        if (isLate(removedStatus) == isLate(addedStatus) && isMissing(removedStatus) == isMissing(addedStatus)) {
+            return;
+        }
+        StudentFeatures features = lockedOrNull(studentId);
+        if (features == null) {
+            return;
+        }
+        features.setLateCount(Math.max(0L, features.getLateCount() - flag(isLate(removedStatus)) + flag(isLate(addedStatus))));
+        features.setMissingCount(
+                Math.max(0L, features.getMissingCount() - flag(isMissing(removedStatus)) + flag(isMissing(addedStatus))));
+        repository.save(features);
+    }
+
+    /**
+     * Copies recomputed GPAs into the rows that exist.
+     *
+     * @param gpas GPA by student ID
+     */
+    @Transactional
+    public void onGpaChanged(Map<Long, Double> gpas) {
+        if (gpas.isEmpty()) {
+            return;
+        }
+        List<StudentFeatures> rows = repository.findAllByIdForUpdate(gpas.keySet());
+        rows.forEach(features -> features.setGpa(gpas.get(features.getStudentId())));
+        repository.saveAll(rows);
+    }
+
+    /**
+     * Queues a rebuild of every student's row from the source tables.
+     *
+     * @return the queued job's progress
+     */
+    public JobProgress submitRebuild() {
+        JobProgress progress = new JobProgress("all students");
+        coordinator.execute(() -> rebuild(progress));
+        return progress;
+    }
+
+    /**
+     * @return the running rebuild, or the last finished one; null if none has run
+     */
+    public JobProgress getCurrent() {
+        return current;
+    }
+
+    private void rebuild(JobProgress progress) {
+        current = progress;
+        progress.start();
+        try {
+            List<Long> studentIds = studentRepository.findAllIds();
+            progress.setTotal(studentIds.size());
+            for (int from = 0; from < studentIds.size(); from += chunkSize) {
+                rebuildChunk(studentIds.subList(from, Math.min(from + chunkSize, studentIds.size())), progress);
+            }
+            progress.finish("COMPLETED");
+        } catch (RuntimeException ex) {
+            log.error("Feature rebuild failed", ex);
+            progress.finish("FAILED");
+        }
+        log.info("Feature rebuild: {}", progress.toMap());
+    }
+
+    private void rebuildChunk(List<Long> studentIds, JobProgress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Hooks wait on these locks, then apply their deltas on top of the rebuilt sums.
+                studentRepository.findAllByIdForUpdate(studentIds);
+                Map<Long, StudentFeatures> existing = new HashMap<>();
+                repository.findAllByIdForUpdate(studentIds).forEach(row -> existing.put(row.getStudentId(), row));
+                repository.saveAll(compute(studentIds, existing, true));
+            });
+            progress.addProcessed(studentIds.size());
+        } catch (RuntimeException ex) {
+            log.warn("Feature rebuild chunk of {} students failed", studentIds.size(), ex);
+            progress.addFailed(studentIds.size());
+        }
+    }
+
+    /**
+     * Computes rows from the source tables with one grouped query per input. With
+     * {@code concurrent} the queries run on the loader pool, each on its own connection;
+     * callers that already hold a connection and can arrive many at once (web requests,
+     * with open-in-view) must pass false, or a burst of them can take the whole pool while
+     * their loads wait for more.
+     * Rows found in {@code existing} are overwritten in place; the others are new.
+     */
+    private List<StudentFeatures> compute(List<Long> studentIds, Map<Long, StudentFeatures> existing,
+            boolean concurrent) {
+        CompletableFuture<Map<Long, StudentTotal>> marksLoad = load("marks", concurrent,
+                () -> byStudent(gradeRepository.sumMarksByStudentIds(studentIds)));
+        CompletableFuture<Map<Long, StudentTotal>> attendanceLoad = load("attendance", concurrent,
+                () -> byStudent(attendanceRepository.sumPercentageByStudentIds(studentIds)));
+        CompletableFuture<List<StudentStatusCount>> submissionsLoad = load("submissions", concurrent,
+                () -> submissionRepository.countByStudentIdsAndStatuses(studentIds, List.of("LATE", "MISSING")));
+        CompletableFuture<Map<Long, Double>> gpaLoad = load("gpa", concurrent, () -> gpaByStudent(studentIds));
+
+        Map<Long, StudentTotal> marks = join(marksLoad);
+        Map<Long, StudentTotal> attendance = join(attendanceLoad);
+        Map<Long, Long> late = new HashMap<>();
+        Map<Long, Long> missing = new HashMap<>();
+        for (StudentStatusCount row : join(submissionsLoad)) {
+            (isLate(row.getStatus()) ? late : missing).put(row.getStudentId(), row.getTotal());
+        }
+        Map<Long, Double> gpas = join(gpaLoad);
+
+        List<StudentFeatures> rows = new ArrayList<>(studentIds.size());
+        for (Long studentId : studentIds) {
+            StudentFeatures features = existing.get(studentId);
+            if (features == null) {
+                features = new StudentFeatures(studentId);
+            }
+            StudentTotal marksTotal = marks.get(studentId);
+            features.setMarksTotal(marksTotal == null ? 0.0 : numberOrZero(marksTotal.getTotal()));
+            features.setMarksCount(marksTotal == null ? 0L : marksTotal.getCount());
+            StudentTotal attendanceTotal = attendance.get(studentId);
+            features.setAttendanceTotal(attendanceTotal == null ? 0.0 : numberOrZero(attendanceTotal.getTotal()));
+            features.setAttendanceCount(attendanceTotal == null ? 0L : attendanceTotal.getCount());
+            features.setLateCount(late.getOrDefault(studentId, 0L));
+            features.setMissingCount(missing.getOrDefault(studentId, 0L));
+            features.setGpa(gpas.getOrDefault(studentId, 0.0));
+            rows.add(features);
+        }
+        return rows;
+    }
+
+    // Same rule as the GPA summary: the stored snapshot if there is one, else the aggregate.
+    private Map<Long, Double> gpaByStudent(Collection<Long> studentIds) {
+        Map<Long, Double> gpas = new HashMap<>();
+        for (Student student : studentRepository.findAllById(studentIds)) {
+            if (student.getGpaSnapshotAt() != null) {
+                gpas.put(student.getStudentId(), GpaLedger.of(student).gpa());
+            }
+        }
+        List<Long> missing = studentIds.stream().filter(id -> !gpas.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            Map<Long, GpaLedger> ledgers = GpaLedger.byStudent(gradeRepository.sumGpaTotalsByStudentAndSemester(missing));
+            missing.forEach(id -> gpas.put(id, ledgers.getOrDefault(id, GpaLedger.empty()).gpa()));
+        }
+        return gpas;
+    }
+
+    // Takes the student lock first, as the builders do: a row being built is committed by the
+    // time this returns, and a row built later reads this transaction's write.
+    private StudentFeatures lockedOrNull(Long studentId) {
+        if (studentId == null || studentRepository.findByIdForUpdate(studentId).isEmpty()) {
+            return null;
+        }
+        return repository.findByIdForUpdate(studentId).orElse(null);
+    }
+
+    private static Map<Long, StudentTotal> byStudent(List<StudentTotal> rows) {
+        Map<Long, StudentTotal> map = new HashMap<>();
+        rows.forEach(row -> map.put(row.getStudentId(), row));
+        return map;
+    }
+
+    private <T> CompletableFuture<T> load(String stage, boolean concurrent, Supplier<T> query) {
+        Timer timer = Timer.builder("ml.features.load").tag("stage", stage).register(meterRegistry);
+        Supplier<T> timed = () -> {
+            long start = System.nanoTime();
+            try {
+                return query.get();
+            } finally {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+        if (!concurrent) {
+            try {
+                return CompletableFuture.completedFuture(timed.get());
+            } catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        }
+        return CompletableFuture.supplyAsync(timed, loader);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static boolean isLate(String status) {
+        return "LATE".equalsIgnoreCase(status);
+    }
+
+    private static boolean isMissing(String status) {
+        return "MISSING".equalsIgnoreCase(status);
+    }
+
+    private static long flag(boolean value) {
+        return value ? 1L : 0L;
+    }
+
+    private static double numberOrZero(Double value) {
+        return value == null ? 0.0 : value;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        loader.shutdownNow();
+    }
+}
@@ -3,6 +3,7 @@ package com.studenttracker.backend.service;
 import com.studenttracker.backend.entity.Submission;
 import com.studenttracker.backend.repository.SubmissionRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,9 +11,11 @@ import java.util.Optional;
 public class SubmissionService {
 
     private final SubmissionRepository submissionRepository;
+    private final StudentFeatureService studentFeatureService;
 
-    public SubmissionService(SubmissionRepository submissionRepository) {
+    public SubmissionService(SubmissionRepository submissionRepository, StudentFeatureService studentFeatureService) {
         this.submissionRepository = submissionRepository;
+        this.studentFeatureService = studentFeatureService;
     }
 
     /**
@@ -21,11 +24,17 @@ public class SubmissionService {
      * @param submission the submission to create
      * @return the saved submission
      */
+    @Transactional
     public Submission createSubmission(Submission submission) {
         if (submission == null) {
             throw new IllegalArgumentException("Submission cannot be null");
         }
-        return submissionRepository.save(submission);
+        Submission previous = submission.getSubmissionId() == null
+                ? null
+                : submissionRepository.findById(submission.getSubmissionId()).map(this::snapshotOf).orElse(null);
+        Submission saved = submissionRepository.save(submission);
+        onChanged(previous, saved);
+        return saved;
     }
 
     /**
@@ -98,12 +107,14 @@ public class SubmissionService {
      * @return the updated submission
      * @throws RuntimeException if submission not found
      */
+    @Transactional
     public Submission updateSubmission(Long id, Submission submissionDetails) {
         if (id == null || submissionDetails == null) {
             throw new IllegalArgumentException("ID and submission details cannot be null");
         }
         Submission submission = submissionRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Submission not found"));
+        Submission previous = snapshotOf(submission);
 
         if (submissionDetails.getFilePath() != null) {
             submission.setFilePath(submissionDetails.getFilePath());
@@ -118,7 +129,9 @@ public class SubmissionService {
             submission.setSubmittedDate(submissionDetails.getSubmittedDate());
         }
 
-        return submissionRepository.save(submission);
+        Submission saved = submissionRepository.save(submission);
+        onChanged(previous, saved);
+        return saved;
     }
 
     /**
@@ -126,10 +139,35 @@ public class SubmissionService {
      * 
      * @param id the submission ID
      */
+    @Transactional
     public void deleteSubmission(Long id) {
         if (id == null) {
             return;
         }
-        submissionRepository.deleteById(id);
+        submissionRepository.findById(id).ifPresent(existing -> {
+            submissionRepository.delete(existing);
+            onChanged(existing, null);
+        });
+    }
+
+    /** Reports a submission's status moving from {@code previous} to {@code current}; either may be null. */
+    private void onChanged(Submission previous, Submission current) {
+        Long previousStudent = previous == null ? null : previous.getStudentId();
+        Long currentStudent = current == null ? null : current.getStudentId();
+        if (previousStudent != null && !previousStudent.equals(currentStudent)) {
+            studentFeatureService.onSubmissionChanged(previousStudent, previous.getStatus(), null);
+            previous = null;
+        }
+        if (currentStudent != null) {
+            studentFeatureService.onSubmissionChanged(currentStudent,
+                    previous == null ? null : previous.getStatus(), current.getStatus());
+        }
+    }
+
+    private Submission snapshotOf(Submission submission) {
+        Submission copy = new Submission();
+        copy.setStudentId(submission.getStudentId());
+        copy.setStatus(submission.getStatus());
+        return copy;
     }
 }
@@ -0,0 +1,214 @@
+package com.studenttracker.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Signs and verifies the HS256 tokens issued by UserService.
+ * Verification works on bytes with a per-thread Mac and scratch buffers, and reads
+ * only the claims it needs from the payload.
+ */
+final class TokenCodec {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 32;
+    private static final int SIGNATURE_CHARS = 43;
+    private static final int MAX_TOKEN_CHARS = 8192;
+    private static final byte[] BASE64_URL_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(BASE64_URL_VALUES, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64_URL_VALUES[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    /**
+     * The claims verifyToken needs from a token payload. studentId and instructorId are
+     * null in tokens issued before those claims existed.
+     */
+    record Claims(long subject, String role, long expiresAt, Long studentId, Long instructorId) {
+    }
+
+    private final SecretKeySpec key;
+    private final JsonFactory jsonFactory;
+    private final ThreadLocal<Scratch> scratch;
+
+    TokenCodec(byte[] secret, JsonFactory jsonFactory) {
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.jsonFactory = jsonFactory;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(key));
+    }
+
+    /**
+     * Builds a signed token from JSON header and payload bytes.
+     *
+     * @param headerJson  the serialized header
+     * @param payloadJson the serialized payload
+     * @return header.payload.signature, each base64url without padding
+     */
+    String encode(byte[] headerJson, byte[] payloadJson) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String signingInput = encoder.encodeToString(headerJson) + "." + encoder.encodeToString(payloadJson);
+        byte[] signature = scratch.get().mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + "." + encoder.encodeToString(signature);
+    }
+
+    /**
+     * Checks the signature and reads sub, role, exp, studentId and instructorId. Expiry is left to the caller.
+     *
+     * @param token the compact token
+     * @return the claims, empty if the token is malformed or the signature does not match
+     */
+    Optional<Claims> decode(String token) {
+        int length = token.length();
+        if (length > MAX_TOKEN_CHARS) {
+            return Optional.empty();
+        }
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0 || length - secondDot - 1 != SIGNATURE_CHARS) {
+            return Optional.empty();
+        }
+
+        Scratch state = scratch.get();
+        byte[] ascii = state.ascii(length);
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c >= 128) {
+                return Optional.empty();
+            }
+            ascii[i] = (byte) c;
+        }
+
+        try {
+            state.mac.update(ascii, 0, secondDot);
+            state.mac.doFinal(state.expected, 0);
+        } catch (ShortBufferException ex) {
+            throw new IllegalStateException(ex);
+        }
+        if (decodeBase64Url(ascii, secondDot + 1, length, state.presented) != SIGNATURE_BYTES
+                || !constantTimeEquals(state.expected, state.presented)) {
+            return Optional.empty();
+        }
+
+        byte[] payload = state.payload(secondDot - firstDot - 1);
+        int payloadLength = decodeBase64Url(ascii, firstDot + 1, secondDot, payload);
+        if (payloadLength < 0) {
+            return Optional.empty();
+        }
+        return readClaims(payload, payloadLength);
+    }
+
+    private Optional<Claims> readClaims(byte[] payload, int payloadLength) {
+        Long subject = null;
+        Long expiresAt = null;
+        String role = null;
+        Long studentId = null;
+        Long instructorId = null;
+        try (JsonParser parser = jsonFactory.createParser(payload, 0, payloadLength)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return Optional.empty();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "sub" -> subject = value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                    case "exp" -> expiresAt = value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                    case "role" -> role = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "studentId" -> studentId = value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                    case "instructorId" -> instructorId = value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
+        if (subject == null || expiresAt == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Claims(subject, role, expiresAt, studentId, instructorId));
+    }
+
+    /**
+     * Decodes unpadded base64url from src[from, to) into dst. Rejects non-canonical trailing bits.
+     *
+     * @return the decoded length, or -1 if the input is invalid or dst is too small
+     */
+    static int decodeBase64Url(byte[] src, int from, int to, byte[] dst) {
+        int chars = to - from;
+        if (chars % 4 == 1 || chars * 3 / 4 > dst.length) {
+            return -1;
+        }
+        int out = 0;
+        int bits = 0;
+        int buffered = 0;
+        for (int i = from; i < to; i++) {
+            int value = src[i] < 0 ? -1 : BASE64_URL_VALUES[src[i]];
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            buffered += 6;
+            if (buffered >= 8) {
+                buffered -= 8;
+                dst[out++] = (byte) (bits >> buffered);
+                bits &= (1 << buffered) - 1;
+            }
+        }
+        return bits == 0 ? out : -1;
+    }
+
+    private static boolean constantTimeEquals(byte[] expected, byte[] presented) {
+        int difference = 0;
+        for (int i = 0; i < SIGNATURE_BYTES; i++) {
+            difference |= expected[i] ^ presented[i];
+        }
+        return difference == 0;
+    }
+
+    private static final class Scratch {
+        private final Mac mac;
+        private final byte[] expected = new byte[SIGNATURE_BYTES];
+        private final byte[] presented = new byte[SIGNATURE_BYTES];
+        private byte[] ascii = new byte[512];
+        private byte[] payload = new byte[384];
+
+        private Scratch(SecretKeySpec key) {
+            try {
+                mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(key);
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("HMAC is unavailable", ex);
+            }
+        }
+
+        private byte[] ascii(int length) {
+            if (ascii.length < length) {
+                ascii = new byte[length];
+            }
+            return ascii;
+        }
+
+        private byte[] payload(int encodedLength) {
+            int needed = encodedLength * 3 / 4 + 3;
+            if (payload.length < needed) {
+                payload = new byte[needed];
+            }
+            return payload;
+        }
+    }
+}
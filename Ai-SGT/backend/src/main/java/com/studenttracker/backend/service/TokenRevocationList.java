@@ -0,0 +1,198 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.RevokedToken;
+import com.studenttracker.backend.entity.RevokedUser;
+import com.studenttracker.backend.repository.RevokedTokenRepository;
+import com.studenttracker.backend.repository.RevokedUserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked tokens, persisted in revoked_token and mirrored on every node as a bloom
+ * filter plus an exact set. Checking a token that was never revoked costs a few bloom
+ * probes; only bloom hits consult the set. Each node pulls rows revoked since its last
+ * refresh every few seconds, and rebuilds from the table when expired rows are purged.
+ * Role changes and deletions are mirrored the same way from revoked_user, so every node
+ * stops trusting principals it cached for that user before the change.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final RevokedTokenRepository repository;
+    private final RevokedUserRepository userRepository;
+    private final int expectedTokens;
+    private final Duration refreshOverlap;
+    private final Duration userRetention;
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot;
+    private LocalDateTime lastRefresh;
+
+    public TokenRevocationList(RevokedTokenRepository repository, RevokedUserRepository userRepository,
+            @Value("${auth.revocation.expected-tokens:100000}") int expectedTokens,
+            @Value("${auth.revocation.refresh-overlap-seconds:60}") long refreshOverlapSeconds,
+            @Value("${auth.revocation.user-retention-seconds:28800}") long userRetentionSeconds,
+            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.userRepository = userRepository;
+        this.expectedTokens = expectedTokens;
+        this.refreshOverlap = Duration.ofSeconds(refreshOverlapSeconds);
+        this.userRetention = Duration.ofSeconds(userRetentionSeconds);
+        this.snapshot = new Snapshot(new BloomFilter(expectedTokens, FALSE_POSITIVE_RATE), ConcurrentHashMap.newKeySet(),
+                new ConcurrentHashMap<>());
+        Gauge.builder("auth.revocation.size", this, list -> list.snapshot.signatures().size()).register(meterRegistry);
+    }
+
+    /**
+     * @param signature the token signature segment
+     * @return whether the token has been revoked
+     */
+    public boolean isRevoked(String signature) {
+        Snapshot current = snapshot;
+        return current.bloom().mightContain(signature) && current.signatures().contains(signature);
+    }
+
+    /**
+     * Persists a revocation and applies it locally at once; other nodes pick it up on their next refresh.
+     *
+     * @param signature the token signature segment
+     * @param userId    the token's user
+     * @param expiresAt the token's expiry
+     */
+    public void revoke(String signature, Long userId, LocalDateTime expiresAt) {
+        if (!repository.existsBySignature(signature)) {
+            try {
+                repository.save(new RevokedToken(null, signature, userId, expiresAt, null));
+            } catch (DataIntegrityViolationException ex) {
+                // Revoked concurrently, e.g. a double logout; the row exists either way.
+            }
+        }
+        synchronized (writeLock) {
+            add(snapshot, signature);
+        }
+    }
+
+    /**
+     * Whether a principal loaded at {@code loadedAtMillis} may predate the user's last role
+     * change or deletion. Loads within the refresh overlap after it also count, to allow for
+     * clock skew between nodes.
+     *
+     * @param userId         the principal's user
+     * @param loadedAtMillis when the principal was read from the database, epoch milliseconds
+     * @return true if the principal must be loaded again
+     */
+    public boolean isUserRevokedSince(Long userId, long loadedAtMillis) {
+        Long revokedAt = snapshot.users().get(userId);
+        return revokedAt != null && loadedAtMillis < revokedAt + refreshOverlap.toMillis();
+    }
+
+    /**
+     * Records that a user's role changed or the user was deleted, and applies it locally at
+     * once; other nodes pick it up on their next refresh. Call it after the change has
+     * committed, so a principal loaded after the recorded time already sees the change.
+     *
+     * @param userId the user
+     */
+    public void revokeUser(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        RevokedUser row = userRepository.findById(userId).orElseGet(() -> new RevokedUser(userId, now));
+        row.setRevokedAt(now);
+        try {
+            userRepository.save(row);
+        } catch (DataIntegrityViolationException ex) {
+            // Inserted concurrently by another change to the same user; move it to our time.
+            RevokedUser existing = userRepository.findById(userId).orElseThrow(() -> ex);
+            existing.setRevokedAt(now);
+            userRepository.save(existing);
+        }
+        synchronized (writeLock) {
+            addUser(snapshot, userId, now);
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        refresh();
+    }
+
+    /**
+     * Pulls revocations made on any node since the last refresh. The window overlaps the
+     * previous one to tolerate commit delays and clock skew; re-adding a signature is harmless.
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.refresh-ms:2000}", initialDelayString = "${auth.revocation.refresh-ms:2000}")
+    public void refresh() {
+        synchronized (writeLock) {
+            LocalDateTime now = LocalDateTime.now();
+            if (lastRefresh == null) {
+                rebuild(now);
+                return;
+            }
+            List<String> recent = repository.findSignaturesRevokedSince(lastRefresh.minus(refreshOverlap), now);
+            Snapshot current = snapshot;
+            recent.forEach(signature -> add(current, signature));
+            userRepository.findRevokedSince(lastRefresh.minus(refreshOverlap))
+                    .forEach(user -> addUser(current, user.getUserId(), user.getRevokedAt()));
+            lastRefresh = now;
+        }
+    }
+
+    /**
+     * Deletes expired rows and rebuilds the filter without them; bloom filters cannot drop entries.
+     * User revocations are kept for the token lifetime, after which no principal cached before them remains.
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.purge-ms:3600000}", initialDelayString = "${auth.revocation.purge-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = repository.deleteExpired(now);
+        userRepository.deleteOlderThan(now.minus(userRetention));
+        synchronized (writeLock) {
+            rebuild(now);
+        }
+        if (deleted > 0) {
+            log.info("Purged {} expired token revocations", deleted);
+        }
+    }
+
+    private void rebuild(LocalDateTime now) {
+        List<String> active = repository.findActiveSignatures(now);
+        int size = Math.max(expectedTokens, active.size() * 2);
+        Snapshot rebuilt = new Snapshot(new BloomFilter(size, FALSE_POSITIVE_RATE), ConcurrentHashMap.newKeySet(size),
+                new ConcurrentHashMap<>());
+        active.forEach(signature -> add(rebuilt, signature));
+        userRepository.findRevokedSince(now.minus(userRetention))
+                .forEach(user -> addUser(rebuilt, user.getUserId(), user.getRevokedAt()));
+        snapshot = rebuilt;
+        lastRefresh = now;
+    }
+
+    // Set first, then bloom: a reader that sees the bloom bit is guaranteed to find the signature.
+    private static void add(Snapshot target, String signature) {
+        target.signatures().add(signature);
+        target.bloom().add(signature);
+    }
+
+    private static void addUser(Snapshot target, Long userId, LocalDateTime revokedAt) {
+        long millis = revokedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        target.users().merge(userId, millis, Math::max);
+    }
+
+    private record Snapshot(BloomFilter bloom, Set<String> signatures, Map<Long, Long> users) {
+    }
+}
@@ -1,18 +1,19 @@
 package com.studenttracker.backend.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studenttracker.backend.entity.Instructor;
+import com.studenttracker.backend.entity.Student;
 import com.studenttracker.backend.entity.User;
 import com.studenttracker.backend.entity.UserRole;
+import com.studenttracker.backend.repository.InstructorRepository;
+import com.studenttracker.backend.repository.StudentRepository;
 import com.studenttracker.backend.repository.UserRepository;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.time.Instant;
-import java.util.Base64;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,29 +22,46 @@ import java.util.Optional;
 @Service
 public class UserService {
 
-    private static final String HMAC_ALGORITHM = "HmacSHA256";
     private static final String TOKEN_PREFIX = "Bearer ";
     private static final long TOKEN_TTL_SECONDS = 60L * 60L * 8L;
     private static final String SECRET = "ai-sgt-local-development-secret-change-before-production";
 
     private final UserRepository userRepository;
+    private final StudentRepository studentRepository;
+    private final InstructorRepository instructorRepository;
     private final ObjectMapper objectMapper;
+    private final VerifiedPrincipalCache principalCache;
+    private final PasswordHasher passwordHasher;
+    private final TokenRevocationList revocationList;
+    private final TokenCodec tokenCodec;
 
-    public UserService(UserRepository userRepository, ObjectMapper objectMapper) {
+    public UserService(UserRepository userRepository, StudentRepository studentRepository,
+            InstructorRepository instructorRepository, ObjectMapper objectMapper, VerifiedPrincipalCache principalCache,
+            PasswordHasher passwordHasher, TokenRevocationList revocationList) {
         this.userRepository = userRepository;
+        this.studentRepository = studentRepository;
+        this.instructorRepository = instructorRepository;
         this.objectMapper = objectMapper;
+        this.principalCache = principalCache;
+        this.passwordHasher = passwordHasher;
+        this.revocationList = revocationList;
+        this.tokenCodec = new TokenCodec(SECRET.getBytes(StandardCharsets.UTF_8), objectMapper.getFactory());
     }
 
     /**
-     * Creates a new user.
+     * Creates a new user, hashing the password.
      * 
      * @param user the user to create
      * @return the saved user
+     * @throws PasswordHasher.SaturatedException if the hashing pool is full
      */
     public User createUser(User user) {
         if (user == null) {
             throw new IllegalArgumentException("User cannot be null");
         }
+        if (user.getPassword() != null && !passwordHasher.isHashed(user.getPassword())) {
+            user.setPassword(passwordHasher.hash(user.getPassword()));
+        }
         return userRepository.save(user);
     }
 
@@ -94,6 +112,15 @@ public class UserService {
         return userRepository.findByUsernameOrEmail(value, value);
     }
 
+    /**
+     * Checks credentials and role. Legacy plaintext or under-cost hashes are rehashed on success.
+     *
+     * @param identifier username or email
+     * @param password   the presented password
+     * @param role       the role the caller is logging in as
+     * @return the user if everything matches
+     * @throws PasswordHasher.SaturatedException if the hashing pool is full
+     */
     public Optional<User> authenticate(String identifier, String password, String role) {
         if (password == null || password.isBlank() || role == null || role.isBlank()) {
             return Optional.empty();
@@ -106,9 +133,17 @@ public class UserService {
             return Optional.empty();
         }
 
-        return getUserByUsernameOrEmail(identifier)
-                .filter(user -> user.getPassword().equals(password))
-                .filter(user -> user.getRole() == requestedRole);
+        Optional<User> found = getUserByUsernameOrEmail(identifier);
+        if (!passwordHasher.matches(password, found.map(User::getPassword).orElse(null))) {
+            return Optional.empty();
+        }
+        User user = found.get();
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHasher.hash(password));
+            user = userRepository.save(user);
+            principalCache.invalidateUser(user.getId());
+        }
+        return user.getRole() == requestedRole ? Optional.of(user) : Optional.empty();
     }
 
     public String generateToken(User user) {
@@ -122,68 +157,104 @@ public class UserService {
             payload.put("username", user.getUsername());
             payload.put("email", user.getEmail());
             payload.put("role", user.getRole().toString());
+            if (user.getRole() == UserRole.STUDENT) {
+                studentRepository.findByUserId(user.getId())
+                        .ifPresent(student -> payload.put("studentId", student.getStudentId()));
+            } else if (user.getRole() == UserRole.INSTRUCTOR) {
+                instructorRepository.findByUserId(user.getId())
+                        .ifPresent(instructor -> payload.put("instructorId", instructor.getInstructorId()));
+            }
             payload.put("iat", Instant.now().getEpochSecond());
             payload.put("exp", Instant.now().plusSeconds(TOKEN_TTL_SECONDS).getEpochSecond());
 
-            String encodedHeader = encodeJson(header);
-            String encodedPayload = encodeJson(payload);
-            String signature = sign(encodedHeader + "." + encodedPayload);
-            return encodedHeader + "." + encodedPayload + "." + signature;
+            return tokenCodec.encode(objectMapper.writeValueAsBytes(header), objectMapper.writeValueAsBytes(payload));
         } catch (Exception ex) {
             throw new IllegalStateException("Could not create auth token", ex);
         }
     }
 
     public Optional<User> getUserFromAuthorizationHeader(String authorizationHeader) {
+        return getPrincipalFromAuthorizationHeader(authorizationHeader).map(AuthPrincipal::user);
+    }
+
+    public Optional<AuthPrincipal> getPrincipalFromAuthorizationHeader(String authorizationHeader) {
         if (authorizationHeader == null || !authorizationHeader.startsWith(TOKEN_PREFIX)) {
             return Optional.empty();
         }
-        return verifyToken(authorizationHeader.substring(TOKEN_PREFIX.length()));
+        return verifyPrincipal(authorizationHeader.substring(TOKEN_PREFIX.length()));
     }
 
     public Optional<User> verifyToken(String token) {
-        try {
-            String[] parts = token.split("\\.");
-            if (parts.length != 3) {
-                return Optional.empty();
-            }
-
-            String expectedSignature = sign(parts[0] + "." + parts[1]);
-            if (!MessageDigest.isEqual(
-                    expectedSignature.getBytes(StandardCharsets.UTF_8),
-                    parts[2].getBytes(StandardCharsets.UTF_8))) {
-                return Optional.empty();
-            }
-
-            byte[] payloadBytes = Base64.getUrlDecoder().decode(parts[1]);
-            Map<String, Object> payload = objectMapper.readValue(payloadBytes, new TypeReference<>() {});
-            Number exp = (Number) payload.get("exp");
-            Number sub = (Number) payload.get("sub");
-            String role = (String) payload.get("role");
+        return verifyPrincipal(token).map(AuthPrincipal::user);
+    }
 
-            if (exp == null || sub == null || exp.longValue() < Instant.now().getEpochSecond()) {
-                return Optional.empty();
-            }
+    /**
+     * Verifies a token and resolves its user together with the owned student or instructor ID.
+     * Tokens issued before the ID claims existed fall back to one lookup, which is then cached.
+     *
+     * @param token the compact token
+     * @return the principal, empty if the token is invalid, expired or its user no longer matches
+     */
+    public Optional<AuthPrincipal> verifyPrincipal(String token) {
+        int signatureStart = token == null ? -1 : token.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return Optional.empty();
+        }
+        String signature = token.substring(signatureStart + 1);
+        String signingInput = token.substring(0, signatureStart);
+        if (revocationList.isRevoked(signature)) {
+            return Optional.empty();
+        }
+        Optional<AuthPrincipal> cached = principalCache.get(signature, signingInput);
+        if (cached.isPresent()) {
+            return cached;
+        }
 
-            return userRepository.findById(sub.longValue())
-                    .filter(user -> user.getRole().toString().equals(role));
-        } catch (Exception ex) {
+        Optional<TokenCodec.Claims> decoded = tokenCodec.decode(token);
+        if (decoded.isEmpty() || decoded.get().expiresAt() < Instant.now().getEpochSecond()) {
             return Optional.empty();
         }
+        TokenCodec.Claims claims = decoded.get();
+
+        long generation = principalCache.generation();
+        long loadedAt = System.currentTimeMillis();
+        Optional<AuthPrincipal> principal = userRepository.findById(claims.subject())
+                .filter(found -> found.getRole().toString().equals(claims.role()))
+                .map(found -> toPrincipal(found, claims));
+        principal.ifPresent(found -> principalCache.put(signature, signingInput, claims.expiresAt(), found, generation, loadedAt));
+        return principal;
     }
 
-    private String encodeJson(Map<String, Object> value) throws Exception {
-        return Base64.getUrlEncoder()
-                .withoutPadding()
-                .encodeToString(objectMapper.writeValueAsBytes(value));
+    /**
+     * Revokes the presented token on every node, e.g. on logout.
+     *
+     * @param authorizationHeader the Authorization header carrying the token
+     * @return false if there was no valid token to revoke
+     */
+    public boolean revokeToken(String authorizationHeader) {
+        Optional<AuthPrincipal> principal = getPrincipalFromAuthorizationHeader(authorizationHeader);
+        if (principal.isEmpty()) {
+            return false;
+        }
+        String token = authorizationHeader.substring(TOKEN_PREFIX.length());
+        Optional<TokenCodec.Claims> claims = tokenCodec.decode(token);
+        if (claims.isEmpty()) {
+            return false;
+        }
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(Instant.ofEpochSecond(claims.get().expiresAt()), ZoneId.systemDefault());
+        revocationList.revoke(token.substring(token.lastIndexOf('.') + 1), principal.get().userId(), expiresAt);
+        return true;
     }
 
-    private String sign(String data) throws Exception {
-        Mac mac = Mac.getInstance(HMAC_ALGORITHM);
-        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
-        return Base64.getUrlEncoder()
-                .withoutPadding()
-                .encodeToString(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+    private AuthPrincipal toPrincipal(User user, TokenCodec.Claims claims) {
+        Long studentId = claims.studentId();
+        Long instructorId = claims.instructorId();
+        if (user.getRole() == UserRole.STUDENT && studentId == null) {
+            studentId = studentRepository.findByUserId(user.getId()).map(Student::getStudentId).orElse(null);
+        } else if (user.getRole() == UserRole.INSTRUCTOR && instructorId == null) {
+            instructorId = instructorRepository.findByUserId(user.getId()).map(Instructor::getInstructorId).orElse(null);
+        }
+        return new AuthPrincipal(user, studentId, instructorId);
     }
 
     /**
@@ -209,6 +280,7 @@ public class UserService {
         }
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        UserRole previousRole = user.getRole();
 
         if (userDetails.getUsername() != null) {
             user.setUsername(userDetails.getUsername());
@@ -216,14 +288,24 @@ public class UserService {
         if (userDetails.getEmail() != null) {
             user.setEmail(userDetails.getEmail());
         }
+        // Like createUser, an already encoded value is kept as is, so sending back a fetched user
+        // does not hash its stored hash.
         if (userDetails.getPassword() != null) {
-            user.setPassword(userDetails.getPassword());
+            user.setPassword(passwordHasher.isHashed(userDetails.getPassword())
+                    ? userDetails.getPassword()
+                    : passwordHasher.hash(userDetails.getPassword()));
         }
         if (userDetails.getRole() != null) {
             user.setRole(userDetails.getRole());
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        principalCache.invalidateUser(id);
+        if (saved.getRole() != previousRole) {
+            // Principals cached on other nodes still carry the old role.
+            revocationList.revokeUser(id);
+        }
+        return saved;
     }
 
     /**
@@ -236,5 +318,7 @@ public class UserService {
             return;
         }
         userRepository.deleteById(id);
+        principalCache.invalidateUser(id);
+        revocationList.revokeUser(id);
     }
 }
@@ -0,0 +1,152 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Principals already resolved from a verified token, keyed by the token signature and kept
+ * until the token expires. Saves the HMAC, payload parse and user lookup on repeat requests.
+ * When full, the least recently used token is evicted to admit a new one. A hit whose user
+ * changed role or was deleted on any node after the principal was loaded is treated as a miss.
+ */
+@Component
+public class VerifiedPrincipalCache {
+
+    private final int maxSize;
+    private final TokenRevocationList revocationList;
+    private final Map<String, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedPrincipalCache(@Value("${auth.principal-cache.max-size:10000}") int maxSize,
+            TokenRevocationList revocationList, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.revocationList = revocationList;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > VerifiedPrincipalCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        FunctionCounter.builder("auth.principal.cache.hits", hits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("auth.principal.cache.misses", misses, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("auth.principal.cache.evictions", evictions, LongAdder::sum).register(meterRegistry);
+        Gauge.builder("auth.principal.cache.hit.ratio", this, VerifiedPrincipalCache::getHitRatio).register(meterRegistry);
+        Gauge.builder("auth.principal.cache.size", this, VerifiedPrincipalCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Looks up a cached principal.
+     *
+     * @param signature    the token signature segment
+     * @param signingInput the token header and payload segments the signature covers
+     * @return the cached principal with a copy of its user, empty if absent, expired, revoked or for a different payload
+     */
+    public Optional<AuthPrincipal> get(String signature, String signingInput) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(signature);
+            if (entry != null && (entry.expiresAt() < Instant.now().getEpochSecond()
+                    || revocationList.isUserRevokedSince(entry.userId(), entry.loadedAt()))) {
+                entries.remove(signature);
+                entry = null;
+            }
+        }
+        if (entry == null || !entry.signingInput().equals(signingInput)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        AuthPrincipal principal = entry.principal();
+        return Optional.of(new AuthPrincipal(copyOf(principal.user()), principal.studentId(), principal.instructorId()));
+    }
+
+    /**
+     * Current generation; read before resolving a principal and pass it to {@link #put}
+     * together with the time the lookup started.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a resolved principal unless the cache was invalidated since {@code observedGeneration}.
+     *
+     * @param signature          the token signature segment
+     * @param signingInput       the token header and payload segments
+     * @param expiresAt          the token exp claim, epoch seconds
+     * @param principal          the resolved principal
+     * @param observedGeneration the generation read before the user was loaded
+     * @param loadedAt           when the user lookup started, epoch milliseconds
+     */
+    public void put(String signature, String signingInput, long expiresAt, AuthPrincipal principal,
+            long observedGeneration, long loadedAt) {
+        AuthPrincipal stored = new AuthPrincipal(copyOf(principal.user()), principal.studentId(), principal.instructorId());
+        Entry entry = new Entry(signingInput, expiresAt, principal.userId(), loadedAt, stored);
+        synchronized (entries) {
+            // An update or delete may have raced with the lookup; do not keep what it loaded.
+            if (generation.get() == observedGeneration) {
+                entries.put(signature, entry);
+            }
+        }
+    }
+
+    /**
+     * Drops every cached token of a user on this node. Other nodes only drop them once the
+     * change is recorded with {@link TokenRevocationList#revokeUser}.
+     *
+     * @param userId the user ID
+     */
+    public void invalidateUser(Long userId) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.values().removeIf(entry -> entry.userId().equals(userId));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    // Callers may modify the user they get back; never hand out the cached instance.
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getUsername(), user.getPassword(), user.getEmail(), user.getRole(),
+                user.getCreatedAt());
+    }
+
+    private record Entry(String signingInput, long expiresAt, Long userId, long loadedAt, AuthPrincipal principal) {
+    }
+}
@@ -0,0 +1,41 @@
+-- Manual migration from AUTO_INCREMENT IDs to pooled, table-backed sequences (MySQL).
+-- Only needed when spring.jpa.hibernate.ddl-auto is not "update"; otherwise Hibernate creates
+-- the *_seq tables and IdSequenceInitializer moves them past existing rows at startup.
+-- Each next_val is max(id) + allocationSize (50) + 1, so the first pooled block cannot collide.
+-- Existing AUTO_INCREMENT columns can stay as they are: Hibernate now always supplies the ID.
+
+CREATE TABLE IF NOT EXISTS ai_prediction_seq (next_val BIGINT);
+INSERT INTO ai_prediction_seq (next_val) SELECT COALESCE(MAX(prediction_id), 0) + 51 FROM ai_prediction;
+
+CREATE TABLE IF NOT EXISTS assignment_seq (next_val BIGINT);
+INSERT INTO assignment_seq (next_val) SELECT COALESCE(MAX(assignment_id), 0) + 51 FROM assignment;
+
+CREATE TABLE IF NOT EXISTS attendance_seq (next_val BIGINT);
+INSERT INTO attendance_seq (next_val) SELECT COALESCE(MAX(attendance_id), 0) + 51 FROM attendance;
+
+CREATE TABLE IF NOT EXISTS course_seq (next_val BIGINT);
+INSERT INTO course_seq (next_val) SELECT COALESCE(MAX(course_id), 0) + 51 FROM course;
+
+CREATE TABLE IF NOT EXISTS grade_seq (next_val BIGINT);
+INSERT INTO grade_seq (next_val) SELECT COALESCE(MAX(grade_id), 0) + 51 FROM grade;
+
+CREATE TABLE IF NOT EXISTS grading_policy_seq (next_val BIGINT);
+INSERT INTO grading_policy_seq (next_val) SELECT COALESCE(MAX(policy_id), 0) + 51 FROM grading_policy;
+
+CREATE TABLE IF NOT EXISTS instructor_seq (next_val BIGINT);
+INSERT INTO instructor_seq (next_val) SELECT COALESCE(MAX(instructor_id), 0) + 51 FROM instructor;
+
+CREATE TABLE IF NOT EXISTS notification_seq (next_val BIGINT);
+INSERT INTO notification_seq (next_val) SELECT COALESCE(MAX(notification_id), 0) + 51 FROM notification;
+
+CREATE TABLE IF NOT EXISTS revoked_token_seq (next_val BIGINT);
+INSERT INTO revoked_token_seq (next_val) SELECT COALESCE(MAX(revoked_token_id), 0) + 51 FROM revoked_token;
+
+CREATE TABLE IF NOT EXISTS student_seq (next_val BIGINT);
+INSERT INTO student_seq (next_val) SELECT COALESCE(MAX(student_id), 0) + 51 FROM student;
+
+CREATE TABLE IF NOT EXISTS submission_seq (next_val BIGINT);
+INSERT INTO submission_seq (next_val) SELECT COALESCE(MAX(submission_id), 0) + 51 FROM submission;
+
+CREATE TABLE IF NOT EXISTS users_seq (next_val BIGINT);
+INSERT INTO users_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM users;
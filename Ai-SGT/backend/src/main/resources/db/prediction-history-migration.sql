@@ -0,0 +1,31 @@
+-- Manual migration to one latest ai_prediction row per student plus ai_prediction_history (MySQL).
+-- Run before starting the new version when ai_prediction already holds several rows per student;
+-- with spring.jpa.hibernate.ddl-auto=update the new tables and columns are otherwise created at startup,
+-- but the unique key on ai_prediction.student_id cannot be added while duplicates exist.
+
+CREATE TABLE IF NOT EXISTS ai_prediction_history (
+    point_id BIGINT NOT NULL PRIMARY KEY,
+    student_id BIGINT NOT NULL,
+    recorded_at DATETIME(6) NOT NULL,
+    predicted_score DOUBLE,
+    risk_level VARCHAR(16),
+    samples INT NOT NULL,
+    downsampled BIT NOT NULL,
+    INDEX idx_prediction_history_student_time (student_id, recorded_at)
+);
+
+-- Every existing prediction becomes a history point, keeping its ID.
+INSERT INTO ai_prediction_history (point_id, student_id, recorded_at, predicted_score, risk_level, samples, downsampled)
+SELECT prediction_id, student_id, COALESCE(created_at, NOW(6)), predicted_score, risk_level, 1, 0
+FROM ai_prediction WHERE student_id IS NOT NULL;
+
+CREATE TABLE IF NOT EXISTS ai_prediction_history_seq (next_val BIGINT);
+INSERT INTO ai_prediction_history_seq (next_val) SELECT COALESCE(MAX(point_id), 0) + 51 FROM ai_prediction_history;
+
+-- Keep only the newest row per student.
+DELETE p FROM ai_prediction p
+JOIN ai_prediction newer ON newer.student_id = p.student_id AND newer.prediction_id > p.prediction_id;
+
+ALTER TABLE ai_prediction ADD COLUMN updated_at DATETIME(6);
+UPDATE ai_prediction SET updated_at = created_at;
+ALTER TABLE ai_prediction ADD CONSTRAINT uk_ai_prediction_student UNIQUE (student_id);
@@ -0,0 +1,103 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.AiPrediction;
+import com.studenttracker.backend.entity.Notification;
+import com.studenttracker.backend.repository.AiPredictionRepository;
+import com.studenttracker.backend.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * RISK notifications follow the stored latest risk, whichever path saves the prediction:
+ * the nightly scan must not notify again for a High that a dashboard request already stored,
+ * and a request that stores a new High must notify.
+ */
+class AiServiceTest {
+
+    private final Map<Long, AiPrediction> rows = new HashMap<>();
+    private final List<Notification> sent = new ArrayList<>();
+    private AiService aiService;
+
+    @BeforeEach
+    void setUp() {
+        AiPredictionRepository repo = mock(AiPredictionRepository.class);
+        when(repo.findByStudentIdInForUpdate(anyCollection())).thenAnswer(call -> {
+            List<AiPrediction> found = new ArrayList<>();
+            for (Object id : call.<Iterable<?>>getArgument(0)) {
+                if (rows.containsKey(id)) {
+                    found.add(rows.get(id));
+                }
+            }
+            return found;
+        });
+        when(repo.saveAll(any())).thenAnswer(call -> {
+            long nextId = rows.size() + 1;
+            for (AiPrediction row : call.<Iterable<AiPrediction>>getArgument(0)) {
+                row.setPredictionId(nextId++);
+                rows.put(row.getStudentId(), row);
+            }
+            return call.getArgument(0);
+        });
+        NotificationRepository notificationRepository = mock(NotificationRepository.class);
+        when(notificationRepository.saveAll(any())).thenAnswer(call -> {
+            call.<Iterable<Notification>>getArgument(0).forEach(sent::add);
+            return call.getArgument(0);
+        });
+        aiService = new AiService(repo, mock(PredictionHistoryService.class),
+                new NotificationService(notificationRepository), mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void requestThatStoresHighNotifies() {
+        aiService.savePrediction(prediction(1L, "Low"));
+        assertThat(sent).isEmpty();
+
+        aiService.savePrediction(prediction(1L, "High"));
+
+        assertThat(sent).singleElement().satisfies(notification -> {
+            assertThat(notification.getStudentId()).isEqualTo(1L);
+            assertThat(notification.getType()).isEqualTo("RISK");
+        });
+    }
+
+    @Test
+    void scanAfterRequestStoredHighDoesNotNotifyAgain() {
+        aiService.savePrediction(prediction(2L, "High"));
+        sent.clear();
+
+        List<Notification> fromScan = aiService.upsert(List.of(prediction(2L, "High"), prediction(3L, "High")));
+
+        assertThat(fromScan).extracting(Notification::getStudentId).containsExactly(3L);
+        assertThat(sent).extracting(Notification::getStudentId).containsExactly(3L);
+    }
+
+    @Test
+    void dropBelowHighAndBackNotifiesAgain() {
+        aiService.savePredictions(List.of(prediction(4L, "High")));
+        aiService.savePredictions(List.of(prediction(4L, "Medium")));
+        aiService.savePredictions(List.of(prediction(4L, "High")));
+
+        assertThat(sent).hasSize(2);
+    }
+
+    private static AiPrediction prediction(Long studentId, String risk) {
+        AiPrediction p = new AiPrediction();
+        p.setStudentId(studentId);
+        p.setPredictedScore(50.0);
+        p.setRiskLevel(risk);
+        p.setSuggestion("Keep going.");
+        return p;
+    }
+}
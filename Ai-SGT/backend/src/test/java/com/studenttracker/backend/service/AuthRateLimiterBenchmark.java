@@ -0,0 +1,50 @@
+package com.studenttracker.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.Arrays;
+
+/**
+ * Latency AuthRateLimiter adds to login and signup under contention. Compares a disabled
+ * limiter (the cost of the call itself) with every thread using its own IP and username, and
+ * with every thread sharing one IP, which serializes them on a single stripe. Capacities are
+ * high enough that every call takes a token, so each run measures the same path.
+ *
+ * Arguments: [threads...], default 1, 16, 200 and 400.
+ */
+public final class AuthRateLimiterBenchmark {
+
+    private static final int UNLIMITED = 1_000_000_000;
+
+    private AuthRateLimiterBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] threadCounts = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] { 1, 16, 200, 400 };
+        for (int threads : threadCounts) {
+            String[] ips = new String[threads];
+            String[] usernames = new String[threads];
+            for (int i = 0; i < threads; i++) {
+                ips[i] = "10.0." + (i / 256) + "." + (i % 256);
+                usernames[i] = "student" + i + "@example.edu";
+            }
+            AuthRateLimiter disabled = limiter(false);
+            AuthRateLimiter perClient = limiter(true);
+            AuthRateLimiter sharedIp = limiter(true);
+
+            Microbench.run("tryAcquire/disabled", threads, 5, 1000,
+                    index -> disabled.tryAcquire(ips[index], usernames[index]).allowed() ? 1 : 0);
+            Microbench.run("tryAcquire/own-ip-and-username", threads, 5, 1000,
+                    index -> perClient.tryAcquire(ips[index], usernames[index]).allowed() ? 1 : 0);
+            Microbench.run("tryAcquire/shared-ip", threads, 5, 1000,
+                    index -> sharedIp.tryAcquire("10.1.1.1", usernames[index]).allowed() ? 1 : 0);
+        }
+    }
+
+    private static AuthRateLimiter limiter(boolean enabled) {
+        return new AuthRateLimiter(enabled, UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED, 600, 100_000,
+                new SimpleMeterRegistry());
+    }
+}
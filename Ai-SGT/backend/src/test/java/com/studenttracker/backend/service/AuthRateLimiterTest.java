@@ -0,0 +1,79 @@
+package com.studenttracker.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Refill is one token per minute in these tests, so no bucket refills while a test runs.
+ */
+class AuthRateLimiterTest {
+
+    private static final String NAT = "203.0.113.7";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void lockedIdentifierDoesNotDrainItsIpBudget() {
+        AuthRateLimiter limiter = new AuthRateLimiter(true, 3, 1, 1, 1, 600, 100_000, meterRegistry);
+
+        assertThat(limiter.tryAcquire(NAT, "alice").allowed()).isTrue();
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.tryAcquire(NAT, "alice").allowed()).isFalse();
+        }
+
+        assertThat(limiter.tryAcquire(NAT, "bob").allowed()).isTrue();
+        assertThat(limiter.tryAcquire(NAT, "carol").allowed()).isTrue();
+        assertThat(limiter.tryAcquire(NAT, "dave").allowed()).isFalse();
+        assertThat(meterRegistry.counter("auth.rate.limited", "key", "identifier").count()).isEqualTo(20);
+        assertThat(meterRegistry.counter("auth.rate.limited", "key", "ip").count()).isEqualTo(1);
+    }
+
+    @Test
+    void ipRejectionDoesNotDrainTheIdentifier() {
+        AuthRateLimiter limiter = new AuthRateLimiter(true, 1, 1, 2, 1, 600, 100_000, meterRegistry);
+
+        assertThat(limiter.tryAcquire(NAT, "alice").allowed()).isTrue();
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(NAT, "alice").allowed()).isFalse();
+        }
+
+        assertThat(limiter.tryAcquire("198.51.100.1", "alice").allowed()).isTrue();
+        assertThat(limiter.tryAcquire("198.51.100.2", "alice").allowed()).isFalse();
+    }
+
+    @Test
+    void rejectionReportsWhenToRetry() {
+        AuthRateLimiter limiter = new AuthRateLimiter(true, 5, 60, 1, 1, 600, 100_000, meterRegistry);
+        limiter.tryAcquire(NAT, "alice");
+
+        AuthRateLimiter.Decision decision = limiter.tryAcquire(NAT, "alice");
+
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.retryAfterSeconds()).isBetween(1L, 60L);
+    }
+
+    @Test
+    void sprayedIdentifiersAreCappedByEviction() {
+        AuthRateLimiter limiter = new AuthRateLimiter(true, 1_000_000, 1, 1, 1, 600, 640, meterRegistry);
+
+        for (int i = 0; i < 50_000; i++) {
+            limiter.tryAcquire(NAT, "user" + i + "@example.edu");
+        }
+
+        // 64 stripes of 10 buckets: everything beyond that, minus the IP bucket, was evicted.
+        assertThat(meterRegistry.counter("auth.rate.evicted").count()).isGreaterThanOrEqualTo(50_000 + 1 - 640);
+        // The IP bucket is used on every call, so it is never the eldest and keeps its count.
+        assertThat(limiter.tryAcquire(NAT, "fresh@example.edu").allowed()).isTrue();
+    }
+
+    @Test
+    void disabledLimiterAllowsEverything() {
+        AuthRateLimiter limiter = new AuthRateLimiter(false, 1, 1, 1, 1, 600, 100_000, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire(NAT, "alice").allowed()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.Course;
+import com.studenttracker.backend.entity.Grade;
+import com.studenttracker.backend.repository.CourseRepository;
+import com.studenttracker.backend.repository.GradeGpaInput;
+import com.studenttracker.backend.repository.GradeRepository;
+import com.studenttracker.backend.repository.StudentRepository;
+import com.studenttracker.backend.service.GpaSimulationService.HypotheticalGrade;
+import com.studenttracker.backend.service.GpaSimulationService.SimulationRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Differential test of the what-if simulator: every scenario is also applied to a copy of
+ * the student's grades, which GradeService.calculateGpaSummaryFromGrades then summarizes.
+ * A hypothetical for a course the student has replaces that course's grade points; any other
+ * hypothetical becomes a new grade in its given semester, or else its course's semester.
+ */
+class GpaSimulatorTest {
+
+    private static final long STUDENT_ID = 1L;
+
+    private final Random random = new Random(10);
+    private final Map<Long, Course> courses = new HashMap<>();
+    private List<Grade> grades = new ArrayList<>();
+    private CourseMetadataCache courseMetadataCache;
+    private GpaSimulationService simulationService;
+    private GradeService gradeService;
+
+    @BeforeEach
+    void setUp() {
+        // Course 8 carries no credits, course 9 has no semester and course 10 no credits set.
+        for (long id = 1; id <= 10; id++) {
+            int credits = 1 + random.nextInt(5);
+            courses.put(id, new Course(id, "Course " + id, "C" + id, id == 10 ? null : id == 8 ? 0 : credits,
+                    id == 9 ? null : 1 + random.nextInt(6), 1L, null));
+        }
+        CourseRepository courseRepository = mock(CourseRepository.class);
+        when(courseRepository.findAll()).thenReturn(List.copyOf(courses.values()));
+        courseMetadataCache = new CourseMetadataCache(courseRepository, new SimpleMeterRegistry());
+
+        GradeRepository gradeRepository = mock(GradeRepository.class);
+        when(gradeRepository.findGpaInputsByStudentId(anyLong())).thenAnswer(call -> gpaInputs(grades));
+        GradingPolicyService gradingPolicyService = mock(GradingPolicyService.class);
+        when(gradingPolicyService.forCourse(any())).thenReturn(CompiledGradingPolicy.DEFAULT);
+        simulationService = new GpaSimulationService(gradeRepository, courseMetadataCache, gradingPolicyService);
+
+        GradeRepository referenceRepository = mock(GradeRepository.class);
+        when(referenceRepository.findByStudentId(anyLong())).thenAnswer(call -> grades);
+        gradeService = new GradeService(referenceRepository, courseMetadataCache, mock(StudentRepository.class),
+                mock(GradeRankingService.class), gradingPolicyService, mock(StudentFeatureService.class));
+    }
+
+    @Test
+    void scenariosMatchSummaryOfEditedGrades() {
+        for (int run = 0; run < 500; run++) {
+            List<Grade> actual = randomGrades();
+            List<HypotheticalGrade> scenario = randomScenario();
+
+            grades = actual;
+            Map<String, Object> simulated = scenarios(simulationService.simulate(STUDENT_ID,
+                    new SimulationRequest(List.of(scenario), null, null))).get(0);
+            grades = withScenario(actual, scenario);
+            Map<String, Object> expected = gradeService.calculateGpaSummaryFromGrades(STUDENT_ID);
+
+            assertThat(simulated).as("run %d, scenario %s", run, scenario)
+                    .containsEntry("gpa", expected.get("gpa"))
+                    .containsEntry("cgpa", expected.get("cgpa"))
+                    .containsEntry("semesterGpas", expected.get("semesterGpas"));
+        }
+    }
+
+    @Test
+    void currentMatchesSummary() {
+        for (int run = 0; run < 200; run++) {
+            grades = randomGrades();
+            @SuppressWarnings("unchecked")
+            Map<String, Object> current = (Map<String, Object>) simulationService
+                    .simulate(STUDENT_ID, new SimulationRequest(null, null, null)).get("current");
+            Map<String, Object> expected = gradeService.calculateGpaSummaryFromGrades(STUDENT_ID);
+
+            assertThat(current).as("run %d", run)
+                    .containsEntry("gpa", expected.get("gpa"))
+                    .containsEntry("cgpa", expected.get("cgpa"))
+                    .containsEntry("semesterGpas", expected.get("semesterGpas"));
+        }
+    }
+
+    @Test
+    void minimumMarksIsTheLowestMarkThatReachesTarget() {
+        for (int run = 0; run < 300; run++) {
+            grades = randomGrades();
+            List<HypotheticalGrade> remaining = new ArrayList<>();
+            for (int i = 1 + random.nextInt(3); i > 0; i--) {
+                remaining.add(new HypotheticalGrade(20L + i, 1 + random.nextInt(6), null));
+            }
+            double target = random.nextInt(1001) / 100.0;
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> result = (Map<String, Object>) simulationService
+                    .simulate(STUDENT_ID, new SimulationRequest(null, target, remaining)).get("target");
+
+            if (cgpaWithUniformMarks(remaining, 100.0) < target) {
+                assertThat(result).as("run %d", run).containsEntry("reachable", false);
+                continue;
+            }
+            // CGPA never falls as marks rise, so the answer is the first 0.01 step that reaches the target.
+            double marks = (Double) result.get("minimumMarks");
+            assertThat(result).as("run %d", run).containsEntry("reachable", true);
+            assertThat(cgpaWithUniformMarks(remaining, marks)).as("run %d", run).isGreaterThanOrEqualTo(target);
+            if (marks > 0) {
+                assertThat(cgpaWithUniformMarks(remaining, Math.round(marks * 100 - 1) / 100.0)).as("run %d", run)
+                        .isLessThan(target);
+            }
+        }
+    }
+
+    @Test
+    void requestsOverTheCapsAreFlagged() {
+        List<HypotheticalGrade> maxScenario = new ArrayList<>();
+        for (int i = 0; i < simulationService.getMaxGrades(); i++) {
+            maxScenario.add(new HypotheticalGrade(1L, 1, 80.0));
+        }
+        List<HypotheticalGrade> oversized = new ArrayList<>(maxScenario);
+        oversized.add(new HypotheticalGrade(2L, 1, 80.0));
+        List<List<HypotheticalGrade>> maxScenarios = new ArrayList<>();
+        for (int i = 0; i < simulationService.getMaxScenarios(); i++) {
+            maxScenarios.add(maxScenario);
+        }
+        List<List<HypotheticalGrade>> tooManyScenarios = new ArrayList<>(maxScenarios);
+        tooManyScenarios.add(List.of());
+
+        assertThat(simulationService.exceedsLimits(null)).isFalse();
+        assertThat(simulationService.exceedsLimits(new SimulationRequest(maxScenarios, 8.0, maxScenario))).isFalse();
+        assertThat(simulationService.exceedsLimits(new SimulationRequest(tooManyScenarios, null, null))).isTrue();
+        assertThat(simulationService.exceedsLimits(new SimulationRequest(List.of(oversized), null, null))).isTrue();
+        assertThat(simulationService.exceedsLimits(new SimulationRequest(null, 8.0, oversized))).isTrue();
+    }
+
+    private double cgpaWithUniformMarks(List<HypotheticalGrade> remaining, double marks) {
+        List<HypotheticalGrade> scenario = remaining.stream()
+                .map(grade -> new HypotheticalGrade(grade.courseId(), grade.semester(), marks))
+                .toList();
+        List<Grade> actual = grades;
+        grades = withScenario(actual, scenario);
+        double cgpa = (Double) gradeService.calculateGpaSummaryFromGrades(STUDENT_ID).get("cgpa");
+        grades = actual;
+        return cgpa;
+    }
+
+    private List<Grade> randomGrades() {
+        List<Grade> result = new ArrayList<>();
+        for (int i = random.nextInt(12); i > 0; i--) {
+            // Course IDs 11 and 12 do not exist, so they count as one credit and have no semester.
+            Long courseId = random.nextInt(8) == 0 ? null : 1L + random.nextInt(12);
+            Integer semester = random.nextInt(6) == 0 ? null : 1 + random.nextInt(5);
+            Double gradePoints = random.nextInt(10) == 0 ? null : CompiledGradingPolicy.DEFAULT.gradePoints(randomMarks());
+            result.add(grade(courseId, semester, gradePoints));
+        }
+        return result;
+    }
+
+    private List<HypotheticalGrade> randomScenario() {
+        List<HypotheticalGrade> scenario = new ArrayList<>();
+        for (int i = random.nextInt(5); i > 0; i--) {
+            Long courseId = random.nextInt(8) == 0 ? null : 1L + random.nextInt(12);
+            Integer semester = random.nextBoolean() ? null : 1 + random.nextInt(7);
+            scenario.add(new HypotheticalGrade(courseId, semester, random.nextInt(8) == 0 ? null : randomMarks()));
+        }
+        return scenario;
+    }
+
+    private List<Grade> withScenario(List<Grade> actual, List<HypotheticalGrade> scenario) {
+        List<Grade> edited = new ArrayList<>();
+        boolean[] applied = new boolean[scenario.size()];
+        for (Grade grade : actual) {
+            Double gradePoints = grade.getGradePoints();
+            for (int h = 0; h < scenario.size() && grade.getCourseId() != null; h++) {
+                if (grade.getCourseId().equals(scenario.get(h).courseId())) {
+                    gradePoints = pointsFor(scenario.get(h));
+                    applied[h] = true;
+                    break;
+                }
+            }
+            edited.add(grade(grade.getCourseId(), grade.getSemester(), gradePoints));
+        }
+        for (int h = 0; h < scenario.size(); h++) {
+            HypotheticalGrade hypothetical = scenario.get(h);
+            if (applied[h]) {
+                continue;
+            }
+            Integer semester = hypothetical.semester() != null
+                    ? hypothetical.semester()
+                    : courseMetadataCache.get(hypothetical.courseId()).map(CourseMetadata::semester).orElse(null);
+            edited.add(grade(hypothetical.courseId(), semester, pointsFor(hypothetical)));
+        }
+        return edited;
+    }
+
+    private double randomMarks() {
+        return random.nextInt(10_001) / 100.0;
+    }
+
+    private static double pointsFor(HypotheticalGrade hypothetical) {
+        return CompiledGradingPolicy.DEFAULT.gradePoints(hypothetical.marks() == null ? 0.0 : hypothetical.marks());
+    }
+
+    private static Grade grade(Long courseId, Integer semester, Double gradePoints) {
+        Grade grade = new Grade();
+        grade.setStudentId(STUDENT_ID);
+        grade.setCourseId(courseId);
+        grade.setSemester(semester);
+        grade.setGradePoints(gradePoints);
+        return grade;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> scenarios(Map<String, Object> response) {
+        return (List<Map<String, Object>>) response.get("scenarios");
+    }
+
+    private static List<GradeGpaInput> gpaInputs(List<Grade> grades) {
+        List<GradeGpaInput> inputs = new ArrayList<>();
+        for (Grade grade : grades) {
+            inputs.add(new Input(grade.getCourseId(), grade.getSemester(), grade.getGradePoints()));
+        }
+        return inputs;
+    }
+
+    private record Input(Long courseId, Integer semester, Double gradePoints) implements GradeGpaInput {
+
+        @Override
+        public Long getCourseId() {
+            return courseId;
+        }
+
+        @Override
+        public Integer getSemester() {
+            return semester;
+        }
+
+        @Override
+        public Double getGradePoints() {
+            return gradePoints;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.Course;
+import com.studenttracker.backend.entity.Grade;
+import com.studenttracker.backend.repository.CourseRepository;
+import com.studenttracker.backend.repository.GradeMarks;
+import com.studenttracker.backend.repository.GradeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rank, percentile and top-N from the treap against a sorted-list oracle, across random
+ * sequences of grade inserts, mark and semester updates, and deletes. The oracle keeps every
+ * grade, takes each student's best (highest marks, then lowest grade ID), and sorts. Marks are
+ * drawn from a few values so ties are common.
+ */
+class GradeRankingServiceTest {
+
+    private static final long COURSE_ID = 1L;
+
+    private final Random random = new Random(7);
+    private final Map<Long, Grade> stored = new LinkedHashMap<>();
+    private GradeRankingService service;
+
+    @BeforeEach
+    void setUp() {
+        service = rankingService(3600);
+    }
+
+    @Test
+    void rankPercentileAndTopMatchSortedOracle() {
+        long nextGradeId = 1;
+        for (int step = 0; step < 3000; step++) {
+            int action = random.nextInt(10);
+            if (action < 5 || stored.isEmpty()) {
+                Grade grade = grade(nextGradeId++, 1L + random.nextInt(40), 1 + random.nextInt(3), randomMarks());
+                stored.put(grade.getGradeId(), grade);
+                service.onGradeSaved(null, copy(grade));
+            } else if (action < 8) {
+                Grade previous = copy(randomStored());
+                Grade updated = copy(previous);
+                if (random.nextBoolean()) {
+                    updated.setSemester(1 + random.nextInt(3));
+                }
+                updated.setMarks(random.nextInt(10) == 0 ? null : randomMarks());
+                stored.put(updated.getGradeId(), updated);
+                service.onGradeSaved(previous, copy(updated));
+            } else {
+                Grade deleted = stored.remove(randomStored().getGradeId());
+                service.onGradeDeleted(copy(deleted));
+            }
+
+            if (step % 25 == 0) {
+                for (Integer semester : new Integer[] { null, 1, 2, 3 }) {
+                    assertMatchesOracle(semester, step);
+                }
+            }
+        }
+    }
+
+    @Test
+    void everyBucketMatchesOracleWhenFirstLoaded() {
+        for (long gradeId = 1; gradeId <= 400; gradeId++) {
+            Grade grade = grade(gradeId, 1L + random.nextInt(60), 1 + random.nextInt(3), randomMarks());
+            stored.put(gradeId, grade);
+        }
+        for (Integer semester : new Integer[] { null, 1, 2, 3 }) {
+            assertMatchesOracle(semester, -1);
+        }
+    }
+
+    @Test
+    void gradesWrittenOnAnotherNodeAppearOnceTheBucketIsTooOld() throws InterruptedException {
+        stored.put(1L, grade(1L, 5L, 1, 80.0));
+        assertThat(service.rankOf(COURSE_ID, null, 5L)).get().extracting(rank -> rank.get("rank")).isEqualTo(1);
+
+        // Committed through another node: this node's afterCommit hook never runs.
+        stored.put(2L, grade(2L, 6L, 1, 90.0));
+        assertThat(service.rankOf(COURSE_ID, null, 5L)).get().extracting(rank -> rank.get("rank")).isEqualTo(1);
+
+        GradeRankingService expiring = rankingService(0);
+        assertThat(expiring.rankOf(COURSE_ID, null, 5L)).get().extracting(rank -> rank.get("rank")).isEqualTo(2);
+        stored.put(3L, grade(3L, 7L, 1, 95.0));
+        Thread.sleep(1);
+
+        assertThat(expiring.rankOf(COURSE_ID, null, 5L)).get().extracting(rank -> rank.get("rank")).isEqualTo(3);
+    }
+
+    @Test
+    void unknownCourseAndStudentWithoutGradeHaveNoRank() {
+        stored.put(1L, grade(1L, 5L, 1, 80.0));
+
+        assertThat(service.rankOf(99L, null, 5L)).isEmpty();
+        assertThat(service.rankOf(COURSE_ID, null, 6L)).isEmpty();
+        assertThat(service.top(99L, null, 10)).isEmpty();
+    }
+
+    private void assertMatchesOracle(Integer semester, int step) {
+        List<double[]> best = oracle(semester);
+        for (double[] entry : best) {
+            long studentId = (long) entry[0];
+            double marks = entry[1];
+            long above = best.stream().filter(other -> other[1] > marks).count();
+            long below = best.stream().filter(other -> other[1] < marks).count();
+            long equal = best.size() - above - below;
+            double percentile = Math.round(((below + 0.5 * equal) / best.size()) * 10000.0) / 100.0;
+
+            Optional<Map<String, Object>> rank = service.rankOf(COURSE_ID, semester, studentId);
+            assertThat(rank).as("step %d, semester %s, student %d", step, semester, studentId).isPresent();
+            assertThat(rank.get())
+                    .as("step %d, semester %s, student %d", step, semester, studentId)
+                    .containsEntry("marks", marks)
+                    .containsEntry("rank", (int) above + 1)
+                    .containsEntry("total", best.size())
+                    .containsEntry("percentile", percentile);
+        }
+
+        List<Map<String, Object>> top = service.top(COURSE_ID, semester, 10);
+        List<double[]> descending = new ArrayList<>(best);
+        descending.sort(Comparator.<double[]>comparingDouble(entry -> -entry[1]).thenComparingDouble(entry -> -entry[0]));
+        assertThat(top).as("step %d, semester %s", step, semester).hasSize(Math.min(10, best.size()));
+        for (int i = 0; i < top.size(); i++) {
+            assertThat(top.get(i))
+                    .as("step %d, semester %s, position %d", step, semester, i)
+                    .containsEntry("studentId", (long) descending.get(i)[0])
+                    .containsEntry("marks", descending.get(i)[1])
+                    .containsEntry("gradeId", (long) descending.get(i)[2]);
+        }
+    }
+
+    // Each student's best grade in the bucket, as {studentId, marks, gradeId}.
+    private List<double[]> oracle(Integer semester) {
+        Map<Long, Grade> bestByStudent = new HashMap<>();
+        for (Grade grade : stored.values()) {
+            if (grade.getMarks() == null || (semester != null && !semester.equals(grade.getSemester()))) {
+                continue;
+            }
+            bestByStudent.merge(grade.getStudentId(), grade, (a, b) -> a.getMarks() > b.getMarks()
+                    || (a.getMarks().equals(b.getMarks()) && a.getGradeId() < b.getGradeId()) ? a : b);
+        }
+        List<double[]> entries = new ArrayList<>();
+        bestByStudent.forEach((studentId, grade) ->
+                entries.add(new double[] { studentId, grade.getMarks(), grade.getGradeId() }));
+        return entries;
+    }
+
+    private GradeRankingService rankingService(long maxAgeSeconds) {
+        CourseRepository courseRepository = mock(CourseRepository.class);
+        when(courseRepository.findAll()).thenReturn(List.of(new Course(COURSE_ID, "Course", "C1", 3, 1, 1L, null)));
+        GradeRepository repo = mock(GradeRepository.class);
+        when(repo.findMarksByCourse(anyLong(), any())).thenAnswer(call -> marksIn(call.getArgument(1)));
+        return new GradeRankingService(repo, new CourseMetadataCache(courseRepository, new SimpleMeterRegistry()),
+                maxAgeSeconds);
+    }
+
+    private List<GradeMarks> marksIn(Integer semester) {
+        List<GradeMarks> rows = new ArrayList<>();
+        for (Grade grade : stored.values()) {
+            if (semester == null || semester.equals(grade.getSemester())) {
+                rows.add(new Marks(grade.getGradeId(), grade.getStudentId(), grade.getMarks()));
+            }
+        }
+        return rows;
+    }
+
+    private Grade randomStored() {
+        List<Grade> grades = new ArrayList<>(stored.values());
+        return grades.get(random.nextInt(grades.size()));
+    }
+
+    private double randomMarks() {
+        return random.nextInt(11) * 10.0;
+    }
+
+    private static Grade grade(long gradeId, long studentId, int semester, Double marks) {
+        Grade grade = new Grade();
+        grade.setGradeId(gradeId);
+        grade.setStudentId(studentId);
+        grade.setCourseId(COURSE_ID);
+        grade.setSemester(semester);
+        grade.setMarks(marks);
+        return grade;
+    }
+
+    private static Grade copy(Grade grade) {
+        return grade(grade.getGradeId(), grade.getStudentId(), grade.getSemester(), grade.getMarks());
+    }
+
+    private record Marks(Long gradeId, Long studentId, Double marks) implements GradeMarks {
+
+        @Override
+        public Long getGradeId() {
+            return gradeId;
+        }
+
+        @Override
+        public Long getStudentId() {
+            return studentId;
+        }
+
+        @Override
+        public Double getMarks() {
+            return marks;
+        }
+    }
+}
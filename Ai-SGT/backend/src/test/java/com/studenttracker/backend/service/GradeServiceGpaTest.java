@@ -0,0 +1,245 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.Course;
+import com.studenttracker.backend.entity.Grade;
+import com.studenttracker.backend.entity.Student;
+import com.studenttracker.backend.repository.CourseRepository;
+import com.studenttracker.backend.repository.GradeRepository;
+import com.studenttracker.backend.repository.SemesterGpaTotals;
+import com.studenttracker.backend.repository.StudentRepository;
+import com.studenttracker.backend.repository.StudentSemesterGpaTotals;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * How the aggregate GPA paths fold per-semester totals into a summary, against
+ * calculateGpaSummaryFromGrades, which sums loaded grades in Java and is the reference result.
+ * The repository aggregates are stubbed with rows computed in Java to match what their JPQL
+ * is meant to return: grades left-joined to courses, grouped by semester, with missing grade
+ * points counted as 0 and missing courses or credits as one credit. The queries themselves
+ * are not executed here, so this does not show that the database returns those rows.
+ */
+class GradeServiceGpaTest {
+
+    private static final int STUDENTS = 300;
+
+    private final Random random = new Random(6);
+    private final List<Course> courses = new ArrayList<>();
+    private final Map<Long, List<Grade>> gradesByStudent = new LinkedHashMap<>();
+    private CourseMetadataCache courseMetadataCache;
+    private GradeRepository gradeRepository;
+    private StudentRepository studentRepository;
+    private GradeService service;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 12; id++) {
+            // Course 11 carries no credits and course 12 has none set; IDs above 12 are referenced
+            // by grades but do not exist.
+            int credits = 1 + random.nextInt(5);
+            courses.add(new Course(id, "Course " + id, "C" + id, id == 12 ? null : id == 11 ? 0 : credits,
+                    1 + random.nextInt(8), 1L, null));
+        }
+        for (long studentId = 1; studentId <= STUDENTS; studentId++) {
+            List<Grade> grades = new ArrayList<>();
+            int count = random.nextInt(14);
+            for (int i = 0; i < count; i++) {
+                Grade grade = new Grade();
+                grade.setStudentId(studentId);
+                grade.setCourseId(random.nextInt(10) == 0 ? null : 1L + random.nextInt(14));
+                grade.setSemester(random.nextInt(6) == 0 ? null : 1 + random.nextInt(4));
+                grade.setGradePoints(random.nextInt(12) == 0 ? null : (double) random.nextInt(11));
+                grades.add(grade);
+            }
+            gradesByStudent.put(studentId, grades);
+        }
+
+        CourseRepository courseRepository = mock(CourseRepository.class);
+        when(courseRepository.findAll()).thenReturn(courses);
+        gradeRepository = mock(GradeRepository.class);
+        when(gradeRepository.findByStudentId(anyLong()))
+                .thenAnswer(call -> gradesByStudent.getOrDefault(call.<Long>getArgument(0), List.of()));
+        when(gradeRepository.sumGpaTotalsBySemester(anyLong()))
+                .thenAnswer(call -> sumBySemester(call.getArgument(0)));
+        when(gradeRepository.sumGpaTotalsByStudentAndSemester(anyCollection()))
+                .thenAnswer(call -> sumByStudentAndSemester(call.getArgument(0)));
+
+        courseMetadataCache = new CourseMetadataCache(courseRepository, new SimpleMeterRegistry());
+        studentRepository = mock(StudentRepository.class);
+        when(studentRepository.save(any())).thenAnswer(call -> call.getArgument(0));
+        service = new GradeService(gradeRepository, courseMetadataCache, studentRepository,
+                mock(GradeRankingService.class), mock(GradingPolicyService.class), mock(StudentFeatureService.class));
+    }
+
+    @Test
+    void perStudentAggregateRowsFoldToJavaSummary() {
+        for (Long studentId : gradesByStudent.keySet()) {
+            assertThat(service.aggregateGpaTotals(studentId).toSummary(studentId))
+                    .as("student %d", studentId)
+                    .isEqualTo(service.calculateGpaSummaryFromGrades(studentId));
+        }
+    }
+
+    @Test
+    void groupedAggregateRowsFoldToJavaSummary() {
+        Map<Long, GpaLedger> ledgers = GpaLedger.byStudent(sumByStudentAndSemester(gradesByStudent.keySet()));
+
+        for (Long studentId : gradesByStudent.keySet()) {
+            Map<String, Object> expected = service.calculateGpaSummaryFromGrades(studentId);
+            GpaLedger ledger = ledgers.getOrDefault(studentId, GpaLedger.empty());
+            assertThat(ledger.toSummary(studentId)).as("student %d", studentId).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void storedSnapshotMatchesJavaSummary() {
+        for (Map.Entry<Long, List<Grade>> entry : gradesByStudent.entrySet()) {
+            GpaLedger ledger = GpaLedger.empty();
+            for (Grade grade : entry.getValue()) {
+                double points = grade.getGradePoints() == null ? 0.0 : grade.getGradePoints();
+                ledger.apply(grade.getSemester(), points, courseMetadataCache.creditsFor(grade.getCourseId()), 1);
+            }
+            Student student = new Student();
+            ledger.writeTo(student);
+
+            assertThat(GpaLedger.of(student).toSummary(entry.getKey()))
+                    .as("student %d", entry.getKey())
+                    .isEqualTo(service.calculateGpaSummaryFromGrades(entry.getKey()));
+        }
+    }
+
+    @Test
+    void zeroCreditSemesterStaysUntilItsLastGradeIsRemoved() {
+        GpaLedger ledger = GpaLedger.empty();
+        ledger.apply(1, 8.0, 3, 1);
+        ledger.apply(2, 9.0, 0, 1);
+        ledger.apply(2, 7.0, 0, 1);
+        assertThat(ledger.semesterGpas()).containsExactly(Map.entry(1, 8.0), Map.entry(2, 0.0));
+        assertThat(ledger.cgpa()).isEqualTo(4.0);
+
+        Student student = new Student();
+        ledger.writeTo(student);
+        GpaLedger stored = GpaLedger.of(student);
+        stored.apply(2, 9.0, 0, -1);
+        assertThat(stored.semesterGpas()).containsExactly(Map.entry(1, 8.0), Map.entry(2, 0.0));
+        stored.apply(2, 7.0, 0, -1);
+        assertThat(stored.semesterGpas()).containsExactly(Map.entry(1, 8.0));
+        assertThat(stored.cgpa()).isEqualTo(8.0);
+    }
+
+    @Test
+    void snapshotWithoutGradeCountsDropsASemesterWithItsCredits() {
+        Student student = new Student();
+        student.setGpaWeightedPoints(40.0);
+        student.setGpaCredits(5.0);
+        student.setSemesterGpaTotals("1:16.0:2.0;2:24.0:3.0");
+        GpaLedger ledger = GpaLedger.of(student);
+
+        ledger.apply(1, 8.0, 1, -1);
+        assertThat(ledger.semesterGpas()).containsExactly(Map.entry(1, 8.0), Map.entry(2, 8.0));
+        ledger.apply(1, 8.0, 1, -1);
+        assertThat(ledger.semesterGpas()).containsExactly(Map.entry(2, 8.0));
+    }
+
+    @Test
+    void lazyRebuildLocksTheStudentBeforeReadingGrades() {
+        Student student = new Student();
+        student.setStudentId(1L);
+        when(studentRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(student));
+
+        assertThat(service.calculateGpaSummary(1L)).isEqualTo(service.calculateGpaSummaryFromGrades(1L));
+
+        InOrder order = inOrder(studentRepository, gradeRepository);
+        order.verify(studentRepository).findByIdForUpdate(1L);
+        order.verify(gradeRepository).sumGpaTotalsBySemester(1L);
+        order.verify(studentRepository).save(student);
+        verify(studentRepository, never()).findById(any());
+    }
+
+    @Test
+    void studentWithoutGradesHasZeroSummary() {
+        Long studentId = (long) STUDENTS + 1;
+
+        assertThat(service.aggregateGpaTotals(studentId).toSummary(studentId))
+                .isEqualTo(service.calculateGpaSummaryFromGrades(studentId))
+                .containsEntry("gpa", 0.0)
+                .containsEntry("cgpa", 0.0);
+    }
+
+    private List<SemesterGpaTotals> sumBySemester(Long studentId) {
+        return new ArrayList<>(sumByStudentAndSemester(List.of(studentId)));
+    }
+
+    // What sumGpaTotalsByStudentAndSemester should return for the stored grades.
+    private List<StudentSemesterGpaTotals> sumByStudentAndSemester(Iterable<Long> studentIds) {
+        List<StudentSemesterGpaTotals> rows = new ArrayList<>();
+        for (Long studentId : studentIds) {
+            Map<Integer, double[]> bySemester = new LinkedHashMap<>();
+            for (Grade grade : gradesByStudent.getOrDefault(studentId, List.of())) {
+                double credits = courses.stream()
+                        .filter(course -> Objects.equals(course.getCourseId(), grade.getCourseId()))
+                        .map(Course::getCredits)
+                        .filter(Objects::nonNull)
+                        .findFirst()
+                        .orElse(1);
+                double points = grade.getGradePoints() == null ? 0.0 : grade.getGradePoints();
+                double[] totals = bySemester.computeIfAbsent(grade.getSemester(), key -> new double[3]);
+                totals[0] += points * credits;
+                totals[1] += credits;
+                totals[2]++;
+            }
+            bySemester.forEach((semester, totals) ->
+                    rows.add(new Totals(studentId, semester, totals[0], totals[1], (long) totals[2])));
+        }
+        return rows;
+    }
+
+    private record Totals(Long studentId, Integer semester, Double weightedPoints, Double credits, Long grades)
+            implements StudentSemesterGpaTotals {
+
+        @Override
+        public Long getStudentId() {
+            return studentId;
+        }
+
+        @Override
+        public Integer getSemester() {
+            return semester;
+        }
+
+        @Override
+        public Double getWeightedPoints() {
+            return weightedPoints;
+        }
+
+        @Override
+        public Double getCredits() {
+            return credits;
+        }
+
+        @Override
+        public Long getGrades() {
+            return grades;
+        }
+    }
+}
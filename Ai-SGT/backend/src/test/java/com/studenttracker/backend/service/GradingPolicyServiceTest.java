@@ -0,0 +1,150 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.Course;
+import com.studenttracker.backend.entity.GradingPolicy;
+import com.studenttracker.backend.entity.Instructor;
+import com.studenttracker.backend.repository.CourseRepository;
+import com.studenttracker.backend.repository.GradingPolicyRepository;
+import com.studenttracker.backend.repository.InstructorRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Band lookup at and around band edges, compile-time validation, and the order in which a
+ * course's policy is chosen: course, then the instructor's department, then the institution
+ * default, then the built-in scale.
+ */
+class GradingPolicyServiceTest {
+
+    private final List<GradingPolicy> policies = new ArrayList<>();
+    private GradingPolicyService service;
+
+    @BeforeEach
+    void setUp() {
+        // Course 1 has a policy of its own; course 2 is taught in CSE, course 3 in MECH.
+        CourseRepository courseRepository = mock(CourseRepository.class);
+        when(courseRepository.findAll()).thenReturn(List.of(
+                new Course(1L, "Course 1", "C1", 3, 1, 10L, null),
+                new Course(2L, "Course 2", "C2", 3, 1, 10L, null),
+                new Course(3L, "Course 3", "C3", 3, 1, 20L, null)));
+        InstructorRepository instructorRepository = mock(InstructorRepository.class);
+        when(instructorRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(instructorRepository.findById(10L))
+                .thenReturn(Optional.of(new Instructor(10L, null, "Ten", "ten@example.com", " cse ")));
+        when(instructorRepository.findById(20L))
+                .thenReturn(Optional.of(new Instructor(20L, null, "Twenty", "twenty@example.com", "MECH")));
+        GradingPolicyRepository repository = mock(GradingPolicyRepository.class);
+        when(repository.findAll()).thenAnswer(call -> List.copyOf(policies));
+        when(repository.save(any())).thenAnswer(call -> {
+            policies.add(call.getArgument(0));
+            return call.getArgument(0);
+        });
+        service = new GradingPolicyService(repository, instructorRepository,
+                new CourseMetadataCache(courseRepository, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void bandEdgesRoundToTheNearestHundredth() {
+        CompiledGradingPolicy policy = CompiledGradingPolicy.DEFAULT;
+
+        assertThat(policy.letterGrade(90.0)).isEqualTo("O");
+        assertThat(policy.letterGrade(89.99)).isEqualTo("A+");
+        assertThat(policy.letterGrade(89.994)).isEqualTo("A+");
+        assertThat(policy.letterGrade(89.995)).isEqualTo("O");
+        assertThat(policy.letterGrade(89.9999999)).isEqualTo("O");
+        assertThat(policy.letterGrade(39.99)).isEqualTo("F");
+        assertThat(policy.letterGrade(40.0)).isEqualTo("C");
+        assertThat(policy.gradePoints(100.0)).isEqualTo(10.0);
+        assertThat(policy.gradePoints(150.0)).isEqualTo(10.0);
+        assertThat(policy.gradePoints(-5.0)).isEqualTo(0.0);
+    }
+
+    @Test
+    void inexactProductsLandOnTheirBand() {
+        // 0.29 * 100 is 28.999999999999996 in binary floating point.
+        CompiledGradingPolicy policy = CompiledGradingPolicy.compile("0.29:D:1", 0.3, 0.5, 0.2);
+
+        assertThat(policy.letterGrade(0.29)).isEqualTo("D");
+        assertThat(policy.letterGrade(0.28)).isEqualTo("F");
+    }
+
+    @Test
+    void compileRejectsInvalidDefinitions() {
+        assertThatThrownBy(() -> CompiledGradingPolicy.compile("", 0.3, 0.5, 0.2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompiledGradingPolicy.compile("90:O", 0.3, 0.5, 0.2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompiledGradingPolicy.compile("ninety:O:10", 0.3, 0.5, 0.2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompiledGradingPolicy.compile("101:O:10", 0.3, 0.5, 0.2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CompiledGradingPolicy.compile("90:O:10", -0.1, 0.5, 0.2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void compileSortsBandsAndCapsWeightedMarks() {
+        CompiledGradingPolicy policy = CompiledGradingPolicy.compile("50:P:5; 80:D:9", 1.0, 1.0, 0.0);
+
+        assertThat(policy.letterGrade(49.99)).isEqualTo("F");
+        assertThat(policy.letterGrade(50.0)).isEqualTo("P");
+        assertThat(policy.letterGrade(80.0)).isEqualTo("D");
+        assertThat(policy.weightedMarks(70.0, 70.0, 70.0)).isEqualTo(100.0);
+    }
+
+    @Test
+    void courseWithoutAnyPolicyUsesTheBuiltInScale() {
+        assertThat(service.forCourse(2L)).isSameAs(CompiledGradingPolicy.DEFAULT);
+        assertThat(service.forCourse(null)).isSameAs(CompiledGradingPolicy.DEFAULT);
+    }
+
+    @Test
+    void coursePolicyBeatsDepartmentWhichBeatsInstitutionDefault() {
+        service.save(policy(null, null, "0:INST:1"));
+        service.save(policy(null, "CSE", "0:DEPT:2"));
+        service.save(policy(1L, null, "0:COURSE:3"));
+
+        assertThat(service.forCourse(1L).letterGrade(50)).isEqualTo("COURSE");
+        assertThat(service.forCourse(2L).letterGrade(50)).isEqualTo("DEPT");
+        assertThat(service.forCourse(3L).letterGrade(50)).isEqualTo("INST");
+        assertThat(service.forCourse(99L).letterGrade(50)).isEqualTo("INST");
+        assertThat(service.forCourse(null).letterGrade(50)).isEqualTo("INST");
+    }
+
+    @Test
+    void savingAPolicyReplacesCachedResolutions() {
+        assertThat(service.forCourse(2L)).isSameAs(CompiledGradingPolicy.DEFAULT);
+
+        service.save(policy(null, "cse", "0:DEPT:2"));
+
+        assertThat(service.forCourse(2L).letterGrade(50)).isEqualTo("DEPT");
+    }
+
+    @Test
+    void saveRejectsInvalidBandsWithoutStoringThem() {
+        assertThatThrownBy(() -> service.save(policy(1L, null, "90:O")))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(policies).isEmpty();
+    }
+
+    private static GradingPolicy policy(Long courseId, String department, String bands) {
+        GradingPolicy policy = new GradingPolicy();
+        policy.setCourseId(courseId);
+        policy.setDepartment(department);
+        policy.setBands(bands);
+        return policy;
+    }
+}
@@ -0,0 +1,113 @@
+package com.studenttracker.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Minimal throughput and latency harness for the *Benchmark mains in this package. Each
+ * benchmark runs warm-up rounds, then measured rounds, on a fixed number of threads that all
+ * call the operation in a loop; it reports operations per second and per-call latency
+ * percentiles sampled from every thread. Not picked up by the test run; start a benchmark with
+ * {@code java -cp target/test-classes:target/classes:<dependencies> com.studenttracker.backend.service.<Name>Benchmark}.
+ */
+final class Microbench {
+
+    private static final int SAMPLE_EVERY = 64;
+    private static volatile int sink;
+
+    private Microbench() {
+    }
+
+    /**
+     * Runs one benchmark and prints its result line.
+     *
+     * @param name      the label to print
+     * @param threads   threads calling the operation concurrently
+     * @param rounds    measured rounds, after as many warm-up rounds
+     * @param roundMs   length of each round in milliseconds
+     * @param operation called with the thread index; its results are consumed so the JIT keeps the work
+     */
+    static void run(String name, int threads, int rounds, long roundMs, IntUnaryOperator operation)
+            throws InterruptedException {
+        for (int i = 0; i < rounds; i++) {
+            round(threads, roundMs, operation, null);
+        }
+        long operations = 0;
+        long nanos = 0;
+        List<long[]> samples = new ArrayList<>();
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            operations += round(threads, roundMs, operation, samples);
+            nanos += System.nanoTime() - start;
+        }
+        long[] latencies = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf(Locale.ROOT, "%-40s threads=%-4d ops/s=%,14.0f p50=%,8d ns p99=%,8d ns p99.9=%,8d ns%n",
+                name, threads, operations * 1e9 / nanos, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                percentile(latencies, 0.999));
+    }
+
+    private static long round(int threads, long roundMs, IntUnaryOperator operation, List<long[]> samples)
+            throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        long[] counts = new long[threads];
+        long[][] latencies = new long[threads][];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            workers[t] = new Thread(() -> {
+                long[] sampled = new long[1 << 16];
+                int sampledCount = 0;
+                long count = 0;
+                int result = 0;
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                while (running.get()) {
+                    if ((count & (SAMPLE_EVERY - 1)) == 0 && sampledCount < sampled.length) {
+                        long before = System.nanoTime();
+                        result += operation.applyAsInt(index);
+                        sampled[sampledCount++] = System.nanoTime() - before;
+                    } else {
+                        result += operation.applyAsInt(index);
+                    }
+                    count++;
+                }
+                sink += result;
+                counts[index] = count;
+                latencies[index] = Arrays.copyOf(sampled, sampledCount);
+            }, "bench-" + t);
+            workers[t].start();
+        }
+        ready.await();
+        start.countDown();
+        TimeUnit.MILLISECONDS.sleep(roundMs);
+        running.set(false);
+        long total = 0;
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+            total += counts[t];
+            if (samples != null) {
+                samples.add(latencies[t]);
+            }
+        }
+        return total;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,193 @@
+package com.studenttracker.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studenttracker.backend.controller.AuthController;
+import com.studenttracker.backend.entity.User;
+import com.studenttracker.backend.entity.UserRole;
+import com.studenttracker.backend.repository.InstructorRepository;
+import com.studenttracker.backend.repository.StudentRepository;
+import com.studenttracker.backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The hashing pool and the login paths built on it: a full pool rejects work at once and
+ * login answers 503, unknown users still pay for one hash, and logins upgrade plaintext or
+ * under-cost passwords.
+ */
+class PasswordHasherTest {
+
+    private static final int ITERATIONS = 1_000;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<PasswordHasher> hashers = new ArrayList<>();
+    private final AtomicReference<User> stored = new AtomicReference<>();
+    private UserRepository userRepository;
+    private PasswordHasher hasher;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        hasher = hasher(ITERATIONS, 2, 8, meterRegistry);
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsernameOrEmail(anyString(), anyString()))
+                .thenAnswer(call -> Optional.ofNullable(stored.get())
+                        .filter(user -> user.getUsername().equals(call.getArgument(0))));
+        when(userRepository.findById(anyLong())).thenAnswer(call -> Optional.ofNullable(stored.get()));
+        when(userRepository.save(any())).thenAnswer(call -> {
+            stored.set(call.getArgument(0));
+            return call.getArgument(0);
+        });
+        userService = new UserService(userRepository, mock(StudentRepository.class), mock(InstructorRepository.class),
+                new ObjectMapper(), mock(VerifiedPrincipalCache.class), hasher, mock(TokenRevocationList.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashers.forEach(PasswordHasher::shutdown);
+    }
+
+    @Test
+    void hashesVerifyAndCarryTheConfiguredCost() {
+        String hash = hasher.hash("secret");
+
+        assertThat(hash).startsWith("pbkdf2$" + ITERATIONS + "$");
+        assertThat(hasher.matches("secret", hash)).isTrue();
+        assertThat(hasher.matches("Secret", hash)).isFalse();
+        assertThat(hasher.needsRehash(hash)).isFalse();
+        assertThat(hasher.hash("secret")).isNotEqualTo(hash);
+    }
+
+    @Test
+    void fullPoolRejectsWorkInsteadOfQueueingIt() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHasher bounded = hasher(ITERATIONS, 1, 1, registry);
+        // Verification uses the cost in the stored value, so this keeps the only thread busy.
+        String slow = hasher(2_000_000, 1, 1, new SimpleMeterRegistry()).hash("secret");
+        Thread running = new Thread(() -> bounded.matches("secret", slow));
+        Thread queued = new Thread(() -> bounded.matches("secret", slow));
+        running.start();
+        awaitGauge(registry, "auth.password.hash.active", 1);
+        queued.start();
+        awaitGauge(registry, "auth.password.hash.queue.size", 1);
+
+        assertThatThrownBy(() -> bounded.hash("other")).isInstanceOf(PasswordHasher.SaturatedException.class);
+        assertThat(registry.counter("auth.password.hash.rejected").count()).isEqualTo(1.0);
+
+        running.join();
+        queued.join();
+        assertThat(bounded.matches("secret", bounded.hash("secret"))).isTrue();
+    }
+
+    @Test
+    void loginAnswers503WhenThePoolIsFull() {
+        UserService saturated = mock(UserService.class);
+        when(saturated.authenticate(any(), any(), any())).thenThrow(new PasswordHasher.SaturatedException());
+        AuthRateLimiter rateLimiter = new AuthRateLimiter(false, 20, 20, 5, 5, 600, 100, new SimpleMeterRegistry());
+        AuthController controller = new AuthController(saturated, null, null, rateLimiter);
+
+        ResponseEntity<?> response = controller.login(
+                Map.of("username", "alice", "password", "secret", "role", "STUDENT"),
+                mock(HttpServletRequest.class));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotBlank();
+    }
+
+    @Test
+    void unknownUserStillCostsOneHash() {
+        long before = meterRegistry.timer("auth.password.hash").count();
+
+        assertThat(hasher.matches("secret", null)).isFalse();
+        assertThat(userService.authenticate("nobody", "secret", "STUDENT")).isEmpty();
+
+        assertThat(meterRegistry.timer("auth.password.hash").count()).isEqualTo(before + 2);
+    }
+
+    @Test
+    void loginRehashesPlaintextPassword() {
+        stored.set(user("secret"));
+
+        assertThat(userService.authenticate("alice", "secret", "STUDENT")).isPresent();
+
+        assertThat(hasher.isHashed(stored.get().getPassword())).isTrue();
+        assertThat(hasher.matches("secret", stored.get().getPassword())).isTrue();
+        assertThat(userService.authenticate("alice", "secret", "STUDENT")).isPresent();
+    }
+
+    @Test
+    void loginRehashesUnderCostHashOnlyOnSuccess() {
+        String cheap = hasher(ITERATIONS / 2, 1, 1, new SimpleMeterRegistry()).hash("secret");
+        stored.set(user(cheap));
+
+        assertThat(userService.authenticate("alice", "wrong", "STUDENT")).isEmpty();
+        verify(userRepository, never()).save(any());
+        assertThat(userService.authenticate("alice", "secret", "STUDENT")).isPresent();
+
+        assertThat(stored.get().getPassword()).startsWith("pbkdf2$" + ITERATIONS + "$");
+        assertThat(hasher.needsRehash(stored.get().getPassword())).isFalse();
+    }
+
+    @Test
+    void updateKeepsAnAlreadyEncodedPassword() {
+        stored.set(user(hasher.hash("secret")));
+        String hash = stored.get().getPassword();
+
+        // A client sending back the user it fetched, stored hash included.
+        userService.updateUser(1L, user(hash));
+        assertThat(stored.get().getPassword()).isEqualTo(hash);
+        assertThat(userService.authenticate("alice", "secret", "STUDENT")).isPresent();
+
+        userService.updateUser(1L, user("changed"));
+        assertThat(hasher.matches("changed", stored.get().getPassword())).isTrue();
+    }
+
+    private PasswordHasher hasher(int iterations, int threads, int queueCapacity, MeterRegistry registry) {
+        PasswordHasher created = new PasswordHasher(iterations, threads, queueCapacity, registry);
+        hashers.add(created);
+        return created;
+    }
+
+    private static void awaitGauge(MeterRegistry registry, String name, double value) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (registry.get(name).gauge().value() != value) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError(name + " never reached " + value);
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static User user(String password) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setPassword(password);
+        user.setRole(UserRole.STUDENT);
+        return user;
+    }
+}
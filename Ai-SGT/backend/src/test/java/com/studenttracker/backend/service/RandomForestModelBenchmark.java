@@ -0,0 +1,145 @@
+package com.studenttracker.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * RandomForestModel.predict on a generated forest of 120 trees, as many as ai-engine/train.py
+ * fits, with depth capped at 12. The forest is built in the export_trees.py layout and loaded
+ * through RandomForestModel.load. Afterwards checks on one warmed-up thread that predict
+ * allocates nothing, and fails if it does.
+ *
+ * Arguments: [threads...], default 1 and the number of processors.
+ */
+public final class RandomForestModelBenchmark {
+
+    private static final int TREES = 120;
+    private static final int MAX_DEPTH = 12;
+    private static final int ROWS = 1024;
+    private static final double[] FEATURE_RANGES = { 100.0, 100.0, 100.0, 10.0, 8.0 };
+
+    private RandomForestModelBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(19);
+        ObjectMapper objectMapper = new ObjectMapper();
+        double[][] rows = new double[ROWS][];
+        for (int r = 0; r < ROWS; r++) {
+            rows[r] = randomRow(random);
+        }
+        ObjectNode export = forest(objectMapper, random, rows);
+        RandomForestModel model = RandomForestModel.load(
+                new ByteArrayInputStream(objectMapper.writeValueAsBytes(export)), objectMapper);
+        System.out.printf(Locale.ROOT, "forest: %d trees, %d nodes%n", model.treeCount(), model.nodeCount());
+
+        int[] threadCounts = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] { 1, Runtime.getRuntime().availableProcessors() };
+        for (int threads : threadCounts) {
+            int[] next = new int[threads * 16];
+            Microbench.run("predict/120-trees", threads, 5, 1000, index -> {
+                int row = next[index * 16]++ & (ROWS - 1);
+                return (int) model.predict(rows[row]);
+            });
+        }
+
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        double sum = 0.0;
+        for (int i = 0; i < 200_000; i++) {
+            sum += model.predict(rows[i & (ROWS - 1)]);
+        }
+        int calls = 1_000_000;
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < calls; i++) {
+            sum += model.predict(rows[i & (ROWS - 1)]);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        System.out.printf(Locale.ROOT, "allocation: %d bytes over %,d predictions (checksum %.3f)%n", allocated, calls, sum);
+        if (allocated > 0) {
+            throw new IllegalStateException("predict allocated " + allocated + " bytes");
+        }
+    }
+
+    private static double[] randomRow(Random random) {
+        double[] row = new double[FEATURE_RANGES.length];
+        for (int f = 0; f < row.length; f++) {
+            row[f] = f == 4 ? random.nextInt(8) : random.nextDouble() * FEATURE_RANGES[f];
+        }
+        return row;
+    }
+
+    // Trees in scikit-learn's tree_ layout: nodes in depth-first order, leaves with feature -2 and children -1.
+    private static ObjectNode forest(ObjectMapper objectMapper, Random random, double[][] rows) {
+        ObjectNode export = objectMapper.createObjectNode();
+        export.put("format", "random-forest-regressor/v1");
+        ArrayNode features = export.putArray("features");
+        for (String name : new String[] { "attendance", "average_marks", "average_assignment", "previous_gpa",
+                "submission_delay" }) {
+            features.add(name);
+        }
+        List<Tree> trees = new ArrayList<>();
+        ArrayNode treeNodes = export.putArray("trees");
+        for (int t = 0; t < TREES; t++) {
+            Tree tree = new Tree();
+            tree.grow(random, 0);
+            trees.add(tree);
+            ObjectNode node = treeNodes.addObject();
+            tree.feature.forEach(node.putArray("feature")::add);
+            tree.threshold.forEach(node.putArray("threshold")::add);
+            tree.left.forEach(node.putArray("left")::add);
+            tree.right.forEach(node.putArray("right")::add);
+            tree.value.forEach(node.putArray("value")::add);
+        }
+        ArrayNode parity = export.putArray("parity");
+        for (int r = 0; r < 32; r++) {
+            double[] row = rows[r];
+            ObjectNode sample = parity.addObject();
+            Arrays.stream(row).forEach(sample.putArray("features")::add);
+            sample.put("prediction", trees.stream().mapToDouble(tree -> tree.predict(row)).sum() / TREES);
+        }
+        return export;
+    }
+
+    private static final class Tree {
+        private final List<Integer> feature = new ArrayList<>();
+        private final List<Double> threshold = new ArrayList<>();
+        private final List<Integer> left = new ArrayList<>();
+        private final List<Integer> right = new ArrayList<>();
+        private final List<Double> value = new ArrayList<>();
+
+        private int grow(Random random, int depth) {
+            int node = feature.size();
+            boolean leaf = depth == MAX_DEPTH || (depth > 4 && random.nextInt(4) == 0);
+            int split = random.nextInt(FEATURE_RANGES.length);
+            feature.add(leaf ? -2 : split);
+            threshold.add(leaf ? -2.0 : random.nextDouble() * FEATURE_RANGES[split]);
+            left.add(-1);
+            right.add(-1);
+            value.add(random.nextDouble() * 100);
+            if (!leaf) {
+                left.set(node, grow(random, depth + 1));
+                right.set(node, grow(random, depth + 1));
+            }
+            return node;
+        }
+
+        private double predict(double[] x) {
+            int node = 0;
+            while (left.get(node) >= 0) {
+                node = (float) x[feature.get(node)] <= threshold.get(node) ? left.get(node) : right.get(node);
+            }
+            return value.get(node);
+        }
+    }
+}
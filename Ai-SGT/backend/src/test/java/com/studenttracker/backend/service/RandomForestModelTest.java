@@ -0,0 +1,168 @@
+package com.studenttracker.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * model-trees-sample.json is a small forest in the export_trees.py format, laid out like
+ * scikit-learn's tree_ arrays (leaves have feature -2 and children -1, one tree is a single
+ * leaf). Its parity predictions follow scikit-learn's rule of comparing float32 inputs with
+ * float64 thresholds, and include inputs that land on either side of a threshold only after
+ * that rounding.
+ */
+class RandomForestModelTest {
+
+    private static final Path TRAINED_EXPORT = Path.of("../ai-engine/model-trees.json");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void loadsSampleExportAndPassesItsParityCheck() throws IOException {
+        RandomForestModel model = load(sample());
+
+        assertThat(model.featureCount()).isEqualTo(5);
+        assertThat(model.treeCount()).isEqualTo(3);
+        assertThat(model.nodeCount()).isEqualTo(13);
+    }
+
+    @Test
+    void comparesInputsAsFloat32LikeScikitLearn() throws IOException {
+        RandomForestModel model = load(sample());
+
+        // 70.000001 rounds to 70.0f, which is <= 70.0000005, so the second tree goes left.
+        assertThat(model.predict(new double[] { 70.000001, 60.5, 65.5, 7.0, 2.0 }))
+                .isCloseTo((45.0 + 50.0 + 60.0) / 3, offset(1e-12));
+    }
+
+    @Test
+    void matchesTreeWalkOfTheExportOnRandomInputs() throws IOException {
+        JsonNode export = sample();
+        RandomForestModel model = load(export);
+        Random random = new Random(19);
+        double[] x = new double[5];
+        for (int i = 0; i < 10_000; i++) {
+            x[0] = random.nextDouble() * 100;
+            x[1] = random.nextDouble() * 100;
+            x[2] = random.nextDouble() * 100;
+            x[3] = random.nextDouble() * 10;
+            x[4] = random.nextInt(8);
+
+            assertThat(model.predict(x)).isEqualTo(reference(export, x));
+        }
+    }
+
+    @Test
+    void rejectsExportWhosePredictionsDoNotMatch() throws IOException {
+        ObjectNode export = (ObjectNode) sample();
+        ((ObjectNode) export.path("parity").get(0)).put("prediction", 1000.0);
+
+        assertThatThrownBy(() -> load(export))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Parity check failed on sample 0");
+    }
+
+    @Test
+    void rejectsExportWithoutParitySamples() throws IOException {
+        ObjectNode empty = (ObjectNode) sample();
+        empty.putArray("parity");
+        assertThatThrownBy(() -> load(empty))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("no parity samples");
+
+        ObjectNode missing = (ObjectNode) sample();
+        missing.remove("parity");
+        assertThatThrownBy(() -> load(missing))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("no parity samples");
+    }
+
+    @Test
+    void predictDoesNotAllocate() throws IOException {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "per-thread allocation counters are not available");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        RandomForestModel model = load(sample());
+        double[] x = { 72.5, 61.0, 66.0, 7.5, 1.0 };
+        double sum = 0.0;
+        for (int i = 0; i < 20_000; i++) {
+            sum += model.predict(x);
+        }
+
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < 100_000; i++) {
+            sum += model.predict(x);
+        }
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+
+        assertThat(sum).isPositive();
+        // Under one byte per call: any per-prediction allocation would cost at least 16 bytes each,
+        // while a JIT or safepoint event in a shared JVM can charge a few hundred bytes once.
+        assertThat(allocated).as("bytes allocated by 100000 predictions").isLessThan(100_000L);
+    }
+
+    @Test
+    void rejectsUnknownFormatAndFeature() throws IOException {
+        ObjectNode wrongFormat = (ObjectNode) sample();
+        wrongFormat.put("format", "gradient-boosting/v1");
+        assertThatThrownBy(() -> load(wrongFormat)).isInstanceOf(IllegalStateException.class);
+
+        ObjectNode wrongFeature = (ObjectNode) sample();
+        ((ArrayNode) wrongFeature.path("trees").get(0).path("feature")).set(0, 9);
+        assertThatThrownBy(() -> load(wrongFeature))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("unknown feature 9");
+    }
+
+    @Test
+    void trainedExportMatchesPythonPredictions() throws IOException {
+        assumeTrue(Files.exists(TRAINED_EXPORT), "run ai-engine/train.py to export model-trees.json");
+        try (InputStream in = Files.newInputStream(TRAINED_EXPORT)) {
+            // load() fails unless every stored scikit-learn prediction is reproduced within 1e-6.
+            RandomForestModel model = RandomForestModel.load(in, objectMapper);
+
+            assertThat(model.treeCount()).isPositive();
+        }
+    }
+
+    private JsonNode sample() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/model-trees-sample.json")) {
+            return objectMapper.readTree(in);
+        }
+    }
+
+    private RandomForestModel load(JsonNode export) throws IOException {
+        return RandomForestModel.load(new ByteArrayInputStream(objectMapper.writeValueAsBytes(export)), objectMapper);
+    }
+
+    // Walks the exported arrays directly, as scikit-learn's DecisionTreeRegressor.predict does.
+    private static double reference(JsonNode export, double[] x) {
+        double sum = 0.0;
+        for (JsonNode tree : export.path("trees")) {
+            int node = 0;
+            while (tree.path("left").get(node).asInt() >= 0) {
+                float value = (float) x[tree.path("feature").get(node).asInt()];
+                node = value <= tree.path("threshold").get(node).asDouble()
+                        ? tree.path("left").get(node).asInt()
+                        : tree.path("right").get(node).asInt();
+            }
+            sum += tree.path("value").get(node).asDouble();
+        }
+        return sum / export.path("trees").size();
+    }
+}
@@ -0,0 +1,92 @@
+package com.studenttracker.backend.service;
+
+import com.studenttracker.backend.entity.JobCheckpoint;
+import com.studenttracker.backend.repository.JobCheckpointRepository;
+import com.studenttracker.backend.repository.StudentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Every node runs the scan schedule; only the one that claims the checkpoint row may scan.
+ */
+class RiskScanServiceTest {
+
+    private final JobCheckpoint row = new JobCheckpoint(RiskScanService.JOB_NAME);
+    private StudentRepository studentRepository;
+    private RiskScanService service;
+
+    @BeforeEach
+    void setUp() {
+        JobCheckpointRepository checkpointRepository = mock(JobCheckpointRepository.class);
+        when(checkpointRepository.findByIdForUpdate(RiskScanService.JOB_NAME)).thenAnswer(call -> Optional.of(row));
+        when(checkpointRepository.save(any())).thenAnswer(call -> call.getArgument(0));
+        studentRepository = mock(StudentRepository.class);
+        when(studentRepository.findIdsAfter(anyLong(), any())).thenReturn(List.of());
+        service = new RiskScanService(studentRepository, mock(StudentFeatureService.class), mock(MlEngineClient.class),
+                mock(AiService.class), checkpointRepository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 1, 500, 100, 900);
+    }
+
+    @Test
+    void skipsWhileAnotherNodeHoldsTheLease() throws InterruptedException {
+        row.setState("RUNNING");
+        row.setOwner("other-node");
+        row.setLeaseUntil(LocalDateTime.now().plusMinutes(5));
+        row.setLastStudentId(400L);
+
+        JobProgress progress = awaitFinished(service.submit());
+
+        assertThat(progress.toMap()).containsEntry("state", "SKIPPED");
+        assertThat(row.getOwner()).isEqualTo("other-node");
+        verify(studentRepository, never()).findIdsAfter(anyLong(), any());
+    }
+
+    @Test
+    void resumesAfterTheLastChunkOnceTheLeaseLapsed() throws InterruptedException {
+        row.setState("RUNNING");
+        row.setOwner("crashed-node");
+        row.setLeaseUntil(LocalDateTime.now().minusMinutes(1));
+        row.setLastStudentId(400L);
+
+        JobProgress progress = awaitFinished(service.submit());
+
+        assertThat(progress.toMap()).containsEntry("state", "COMPLETED");
+        verify(studentRepository).findIdsAfter(eq(400L), any());
+        assertThat(row.getState()).isEqualTo("COMPLETED");
+        assertThat(row.getOwner()).isNull();
+    }
+
+    @Test
+    void startsFromTheBeginningAfterACompletedScan() throws InterruptedException {
+        row.setState("COMPLETED");
+        row.setLastStudentId(900L);
+
+        JobProgress progress = awaitFinished(service.submit());
+
+        assertThat(progress.toMap()).containsEntry("state", "COMPLETED");
+        verify(studentRepository).findIdsAfter(eq(0L), any());
+    }
+
+    private JobProgress awaitFinished(JobProgress progress) throws InterruptedException {
+        for (int i = 0; i < 500 && progress.isActive(); i++) {
+            Thread.sleep(10);
+        }
+        service.shutdown();
+        return progress;
+    }
+}
@@ -0,0 +1,82 @@
+package com.studenttracker.backend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token verification throughput: the previous UserService path (a Mac per call, regex split,
+ * String signature comparison, payload read into a Map) against TokenCodec.decode. Both check
+ * the signature and read sub, role and exp of the same token; neither touches the cache or the
+ * database.
+ *
+ * Arguments: [threads...], default 1 and the number of processors.
+ */
+public final class TokenCodecBenchmark {
+
+    private static final byte[] SECRET = "ai-sgt-local-development-secret-change-before-production"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private TokenCodecBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        TokenCodec codec = new TokenCodec(SECRET, objectMapper.getFactory());
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("sub", 1234);
+        payload.put("username", "student1234");
+        payload.put("role", "STUDENT");
+        payload.put("studentId", 987);
+        payload.put("iat", 1_800_000_000L);
+        payload.put("exp", 1_800_028_800L);
+        String token = codec.encode(objectMapper.writeValueAsBytes(Map.of("alg", "HS256", "typ", "JWT")),
+                objectMapper.writeValueAsBytes(payload));
+        if (codec.decode(token).isEmpty() || legacyVerify(token, objectMapper) == 0) {
+            throw new IllegalStateException("Benchmark token does not verify");
+        }
+
+        int[] threadCounts = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] { 1, Runtime.getRuntime().availableProcessors() };
+        for (int threads : threadCounts) {
+            Microbench.run("verify/previous", threads, 5, 1000, index -> legacyVerify(token, objectMapper));
+            Microbench.run("verify/TokenCodec", threads, 5, 1000,
+                    index -> (int) codec.decode(token).map(TokenCodec.Claims::subject).orElse(0L).longValue());
+        }
+    }
+
+    // UserService.verifyToken before TokenCodec, minus the cache and user lookup.
+    private static int legacyVerify(String token, ObjectMapper objectMapper) {
+        try {
+            String[] parts = token.split("\\.");
+            if (parts.length != 3) {
+                return 0;
+            }
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET, "HmacSHA256"));
+            String expectedSignature = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal((parts[0] + "." + parts[1]).getBytes(StandardCharsets.UTF_8)));
+            if (!MessageDigest.isEqual(expectedSignature.getBytes(StandardCharsets.UTF_8),
+                    parts[2].getBytes(StandardCharsets.UTF_8))) {
+                return 0;
+            }
+            Map<String, Object> claims = objectMapper.readValue(Base64.getUrlDecoder().decode(parts[1]),
+                    new TypeReference<>() {});
+            Number sub = (Number) claims.get("sub");
+            Number exp = (Number) claims.get("exp");
+            String role = (String) claims.get("role");
+            return exp == null || role == null ? 0 : sub.intValue();
+        } catch (Exception ex) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.studenttracker.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenCodecTest {
+
+    private static final byte[] SECRET = "test-secret".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TokenCodec codec = new TokenCodec(SECRET, objectMapper.getFactory());
+
+    @Test
+    void roundTripsClaims() throws Exception {
+        String token = token(Map.of("sub", 42, "role", "STUDENT", "exp", 1_900_000_000L, "studentId", 7));
+
+        assertThat(codec.decode(token)).contains(new TokenCodec.Claims(42, "STUDENT", 1_900_000_000L, 7L, null));
+    }
+
+    @Test
+    void skipsUnknownClaimsAndNestedValues() throws Exception {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("iat", 1_800_000_000L);
+        payload.put("extra", Map.of("sub", 99, "list", new int[] { 1, 2 }));
+        payload.put("sub", 5);
+        payload.put("role", "INSTRUCTOR");
+        payload.put("exp", 1_900_000_000L);
+        payload.put("instructorId", 3);
+
+        assertThat(codec.decode(token(payload)))
+                .contains(new TokenCodec.Claims(5, "INSTRUCTOR", 1_900_000_000L, null, 3L));
+    }
+
+    @Test
+    void signsLikeThePreviousImplementation() throws Exception {
+        String token = token(Map.of("sub", 1, "role", "STUDENT", "exp", 1_900_000_000L));
+        int signatureStart = token.lastIndexOf('.');
+
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET, "HmacSHA256"));
+        String expected = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(mac.doFinal(token.substring(0, signatureStart).getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(token.substring(signatureStart + 1)).isEqualTo(expected);
+    }
+
+    @Test
+    void rejectsTamperedPayload() throws Exception {
+        String token = token(Map.of("sub", 42, "role", "STUDENT", "exp", 1_900_000_000L));
+        String forged = token(Map.of("sub", 42, "role", "INSTRUCTOR", "exp", 1_900_000_000L));
+        String[] original = token.split("\\.");
+        String[] changed = forged.split("\\.");
+
+        assertThat(codec.decode(original[0] + "." + changed[1] + "." + original[2])).isEmpty();
+    }
+
+    @Test
+    void rejectsTamperedSignature() throws Exception {
+        String token = token(Map.of("sub", 42, "role", "STUDENT", "exp", 1_900_000_000L));
+        int position = token.lastIndexOf('.') + 10;
+        char replacement = token.charAt(position) == 'A' ? 'B' : 'A';
+
+        assertThat(codec.decode(token.substring(0, position) + replacement + token.substring(position + 1))).isEmpty();
+    }
+
+    @Test
+    void rejectsNonCanonicalSignatureEncoding() throws Exception {
+        String token = token(Map.of("sub", 42, "role", "STUDENT", "exp", 1_900_000_000L));
+        // The last of 43 characters carries 4 bits of the signature and 2 padding bits that must be zero.
+        char last = token.charAt(token.length() - 1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        char padded = alphabet.charAt(alphabet.indexOf(last) | 1);
+
+        assertThat(codec.decode(token.substring(0, token.length() - 1) + padded)).isEmpty();
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() throws Exception {
+        TokenCodec other = new TokenCodec("other-secret".getBytes(StandardCharsets.UTF_8), objectMapper.getFactory());
+        String token = other.encode(objectMapper.writeValueAsBytes(Map.of("alg", "HS256", "typ", "JWT")),
+                objectMapper.writeValueAsBytes(Map.of("sub", 42, "role", "STUDENT", "exp", 1_900_000_000L)));
+
+        assertThat(codec.decode(token)).isEmpty();
+    }
+
+    @Test
+    void rejectsMalformedTokens() throws Exception {
+        String token = token(Map.of("sub", 42, "role", "STUDENT", "exp", 1_900_000_000L));
+
+        assertThat(codec.decode("")).isEmpty();
+        assertThat(codec.decode("a.b")).isEmpty();
+        assertThat(codec.decode(token + ".x")).isEmpty();
+        assertThat(codec.decode(token.substring(0, token.length() - 1))).isEmpty();
+        assertThat(codec.decode(token.replaceFirst("\\.", ".é"))).isEmpty();
+        assertThat(codec.decode("a".repeat(9000) + token)).isEmpty();
+    }
+
+    @Test
+    void rejectsSignedPayloadWithoutRequiredClaims() throws Exception {
+        assertThat(codec.decode(token(Map.of("sub", 42, "role", "STUDENT")))).isEmpty();
+        assertThat(codec.decode(token(Map.of("sub", "42", "role", "STUDENT", "exp", 1_900_000_000L)))).isEmpty();
+        String notAnObject = codec.encode(objectMapper.writeValueAsBytes(Map.of("alg", "HS256")),
+                "[1,2]".getBytes(StandardCharsets.UTF_8));
+        assertThat(codec.decode(notAnObject)).isEmpty();
+    }
+
+    @Test
+    void decodesBase64UrlLikeTheJdk() {
+        Random random = new Random(12);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        for (int i = 0; i < 2000; i++) {
+            byte[] data = new byte[random.nextInt(64)];
+            random.nextBytes(data);
+            byte[] encoded = encoder.encode(data);
+            byte[] decoded = new byte[data.length + 3];
+
+            int length = TokenCodec.decodeBase64Url(encoded, 0, encoded.length, decoded);
+
+            assertThat(length).isEqualTo(data.length);
+            assertThat(Arrays.copyOf(decoded, length)).isEqualTo(data);
+        }
+    }
+
+    @Test
+    void rejectsInvalidBase64Url() {
+        byte[] dst = new byte[16];
+
+        assertThat(TokenCodec.decodeBase64Url(ascii("abc+"), 0, 4, dst)).isEqualTo(-1);
+        assertThat(TokenCodec.decodeBase64Url(ascii("abc="), 0, 4, dst)).isEqualTo(-1);
+        assertThat(TokenCodec.decodeBase64Url(ascii("abcde"), 0, 5, dst)).isEqualTo(-1);
+        assertThat(TokenCodec.decodeBase64Url(ascii("AB"), 0, 2, dst)).isEqualTo(-1);
+        assertThat(TokenCodec.decodeBase64Url(ascii("AA"), 0, 2, dst)).isEqualTo(1);
+    }
+
+    private String token(Map<String, Object> payload) throws Exception {
+        return codec.encode(objectMapper.writeValueAsBytes(Map.of("alg", "HS256", "typ", "JWT")),
+                objectMapper.writeValueAsBytes(payload));
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,157 @@
+package com.studenttracker.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.studenttracker.backend.entity.RevokedUser;
+import com.studenttracker.backend.entity.User;
+import com.studenttracker.backend.entity.UserRole;
+import com.studenttracker.backend.repository.InstructorRepository;
+import com.studenttracker.backend.repository.RevokedTokenRepository;
+import com.studenttracker.backend.repository.RevokedUserRepository;
+import com.studenttracker.backend.repository.StudentRepository;
+import com.studenttracker.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two nodes, each with its own revocation list and principal cache, sharing one revoked_user
+ * table. A role change or deletion made through one node must stop the other node's cache
+ * from serving the old principal once it has refreshed.
+ */
+class VerifiedPrincipalCacheTest {
+
+    private static final long USER_ID = 7L;
+    private static final String SIGNATURE = "signature";
+    private static final String SIGNING_INPUT = "header.payload";
+
+    private final Map<Long, RevokedUser> revokedUsers = new ConcurrentHashMap<>();
+    private RevokedUserRepository revokedUserRepository;
+
+    @BeforeEach
+    void setUp() {
+        revokedUserRepository = mock(RevokedUserRepository.class);
+        when(revokedUserRepository.findById(anyLong()))
+                .thenAnswer(call -> Optional.ofNullable(revokedUsers.get(call.<Long>getArgument(0))));
+        when(revokedUserRepository.save(any())).thenAnswer(call -> {
+            RevokedUser row = call.getArgument(0);
+            revokedUsers.put(row.getUserId(), new RevokedUser(row.getUserId(), row.getRevokedAt()));
+            return row;
+        });
+        when(revokedUserRepository.findRevokedSince(any())).thenAnswer(call -> {
+            LocalDateTime since = call.getArgument(0);
+            return revokedUsers.values().stream().filter(row -> !row.getRevokedAt().isBefore(since)).toList();
+        });
+    }
+
+    @Test
+    void roleChangeOnOneNodeDropsPrincipalCachedOnAnother() {
+        TokenRevocationList nodeA = node(60);
+        TokenRevocationList nodeB = node(60);
+        VerifiedPrincipalCache cacheB = new VerifiedPrincipalCache(100, nodeB, new SimpleMeterRegistry());
+        cacheB.put(SIGNATURE, SIGNING_INPUT, farExpiry(), principal(UserRole.INSTRUCTOR), cacheB.generation(),
+                System.currentTimeMillis());
+        assertThat(cacheB.get(SIGNATURE, SIGNING_INPUT)).isPresent();
+
+        nodeA.revokeUser(USER_ID);
+        // Node B only learns of the change on its next refresh.
+        assertThat(cacheB.get(SIGNATURE, SIGNING_INPUT)).isPresent();
+        nodeB.refresh();
+
+        assertThat(cacheB.get(SIGNATURE, SIGNING_INPUT)).isEmpty();
+        assertThat(cacheB.size()).isZero();
+    }
+
+    @Test
+    void revocationAppliesAtOnceOnTheNodeThatMadeIt() {
+        TokenRevocationList node = node(60);
+        VerifiedPrincipalCache cache = new VerifiedPrincipalCache(100, node, new SimpleMeterRegistry());
+        cache.put(SIGNATURE, SIGNING_INPUT, farExpiry(), principal(UserRole.STUDENT), cache.generation(),
+                System.currentTimeMillis());
+
+        node.revokeUser(USER_ID);
+
+        assertThat(cache.get(SIGNATURE, SIGNING_INPUT)).isEmpty();
+    }
+
+    @Test
+    void principalLoadedAfterRevocationIsServedAgain() {
+        TokenRevocationList nodeA = node(0);
+        TokenRevocationList nodeB = node(0);
+        VerifiedPrincipalCache cacheB = new VerifiedPrincipalCache(100, nodeB, new SimpleMeterRegistry());
+        nodeA.revokeUser(USER_ID);
+        nodeB.refresh();
+
+        cacheB.put(SIGNATURE, SIGNING_INPUT, farExpiry(), principal(UserRole.STUDENT), cacheB.generation(),
+                System.currentTimeMillis() + 1000);
+
+        assertThat(cacheB.get(SIGNATURE, SIGNING_INPUT)).isPresent();
+    }
+
+    @Test
+    void principalLoadedWithinOverlapAfterRevocationIsNotTrusted() {
+        TokenRevocationList node = node(60);
+        node.revokeUser(USER_ID);
+
+        assertThat(node.isUserRevokedSince(USER_ID, System.currentTimeMillis() + 30_000)).isTrue();
+        assertThat(node.isUserRevokedSince(USER_ID, System.currentTimeMillis() + 90_000)).isFalse();
+        assertThat(node.isUserRevokedSince(USER_ID + 1, 0)).isFalse();
+    }
+
+    @Test
+    void userServiceRecordsRoleChangesAndDeletionsButNotOtherEdits() {
+        TokenRevocationList revocationList = mock(TokenRevocationList.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(USER_ID)).thenAnswer(call -> Optional.of(principal(UserRole.STUDENT).user()));
+        when(userRepository.save(any())).thenAnswer(call -> call.getArgument(0));
+        UserService userService = new UserService(userRepository, mock(StudentRepository.class),
+                mock(InstructorRepository.class), new ObjectMapper(),
+                new VerifiedPrincipalCache(100, revocationList, new SimpleMeterRegistry()),
+                mock(PasswordHasher.class), revocationList);
+
+        User emailOnly = new User();
+        emailOnly.setEmail("new@example.edu");
+        userService.updateUser(USER_ID, emailOnly);
+        verify(revocationList, never()).revokeUser(USER_ID);
+
+        User promoted = new User();
+        promoted.setRole(UserRole.INSTRUCTOR);
+        userService.updateUser(USER_ID, promoted);
+        verify(revocationList).revokeUser(USER_ID);
+
+        userService.deleteUser(USER_ID);
+        verify(revocationList, times(2)).revokeUser(USER_ID);
+    }
+
+    private TokenRevocationList node(long overlapSeconds) {
+        RevokedTokenRepository tokenRepository = mock(RevokedTokenRepository.class);
+        when(tokenRepository.findActiveSignatures(any())).thenReturn(List.of());
+        TokenRevocationList node = new TokenRevocationList(tokenRepository, revokedUserRepository, 1000, overlapSeconds,
+                28_800, new SimpleMeterRegistry());
+        node.load();
+        return node;
+    }
+
+    private static long farExpiry() {
+        return System.currentTimeMillis() / 1000 + 3600;
+    }
+
+    private static AuthPrincipal principal(UserRole role) {
+        return new AuthPrincipal(new User(USER_ID, "user7", "hash", "user7@example.edu", role, null),
+                role == UserRole.STUDENT ? 70L : null, role == UserRole.INSTRUCTOR ? 700L : null);
+    }
+}
@@ -106,6 +106,7 @@ export const getGrades = () => get(PATHS.grades);
 export const getGradesByStudent = (id) => get(`${PATHS.grades}/student/${id}`);
 export const getGpaSummary = (id) => get(`${PATHS.grades}/student/${id}/summary`);
 export const addGrade = (data) => post(PATHS.grades, data);
+export const addGradesBulk = (rows) => post(`${PATHS.grades}/bulk`, rows);
 export const updateGrade = (id, data) => put(`${PATHS.grades}/${id}`, data);
 export const deleteGrade = (id) => remove(`${PATHS.grades}/${id}`);
 
@@ -118,7 +119,11 @@ export const deleteAttendance = (id) => remove(`${PATHS.attendance}/${id}`);
 
 // -------- AI Prediction API --------
 export const getAiPrediction = (id) => get(`${PATHS.ai}/predict/${id}`);
+export const predictCourse = (courseId) => post(`${PATHS.ai}/predict/batch`, { courseId });
+export const predictStudents = (studentIds) => post(`${PATHS.ai}/predict/batch`, { studentIds });
 export const getPredictionHistory = (studentId) => get(`${PATHS.ai}/prediction/${studentId}`);
+export const getPredictionSeries = (studentId, params = {}) =>
+  api.get(`${PATHS.ai}/prediction/${studentId}/history`, { params });
 export const getAiInsights = (studentId) => get(`${PATHS.ai}/insights/${studentId}`);
 
 // -------- Notification API --------